@@ -0,0 +1,213 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import uk.ac.ed.inf.ilp.constant.OrderStatus;
+import uk.ac.ed.inf.ilp.constant.OrderValidationCode;
+import uk.ac.ed.inf.ilp.constant.SystemConstants;
+import uk.ac.ed.inf.ilp.data.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Inputs shared by the benchmarks.
+ * Real inputs come from the checked-in 2023-11-15 outputs and the static REST data, downloaded into the
+ * working directory if missing, as the tests do. Synthetic inputs are generated from a fixed seed so
+ * every fork measures the same data.
+ */
+public class BenchmarkData {
+
+    public static final String FIXTURE_DATE = "2023-11-15";
+    public static final LngLat APPLETON = new LngLat(-3.186874, 55.944494);
+    public static final long SEED = 20231115L;
+
+    private static final String DEFAULT_URL = "https://ilp-rest.azurewebsites.net/";
+    private static final JsonParser jsonParser = new JsonParser();
+
+    /**
+     * Downloads a static REST resource into the working directory unless it is already there.
+     *
+     * @param resource Name of the resource, also used as the file name.
+     */
+    private static void ensureDownloaded(String resource) throws IOException {
+        if (!Files.exists(Paths.get(resource))) {
+            Download.main(new String[]{System.getProperty("pizzadronz.url", DEFAULT_URL), resource});
+        }
+    }
+
+    public static NamedRegion[] noFlyZones() throws IOException {
+        ensureDownloaded("noFlyZones");
+        return jsonParser.parseNoFlyZones("noFlyZones");
+    }
+
+    public static NamedRegion centralArea() throws IOException {
+        ensureDownloaded("centralArea");
+        return jsonParser.parseCentralArea("centralArea");
+    }
+
+    public static Restaurant[] restaurants() throws IOException {
+        ensureDownloaded("restaurants");
+        return jsonParser.parseRestaurant("restaurants");
+    }
+
+    /**
+     * Reads the checked-in flightpath output back into a node path.
+     *
+     * @return Nodes of the 2023-11-15 day path, starting with the first move's origin.
+     */
+    public static List<Node> fixturePath() throws IOException {
+        JsonNode moves = new ObjectMapper().readTree(new File("flightpath-" + FIXTURE_DATE + ".json"));
+        List<Node> path = new ArrayList<>(moves.size() + 1);
+        for (JsonNode move : moves) {
+            String orderNo = move.get("orderNo").asText();
+            if (path.isEmpty()) {
+                path.add(new Node(new LngLat(move.get("fromLongitude").asDouble(), move.get("fromLatitude").asDouble()), 999, orderNo));
+            }
+            Node node = new Node(new LngLat(move.get("toLongitude").asDouble(), move.get("toLatitude").asDouble()), move.get("angle").asDouble(), orderNo);
+            node.parent = path.get(path.size() - 1);
+            path.add(node);
+        }
+        return path;
+    }
+
+    /**
+     * Extracts the legs flown in the checked-in flightpath, split at hover moves.
+     *
+     * @return Start and end positions of each leg, as {startLng, startLat, endLng, endLat}.
+     */
+    public static List<double[]> fixtureLegs() throws IOException {
+        List<double[]> legs = new ArrayList<>();
+        List<Node> path = fixturePath();
+        Node legStart = path.get(0);
+        for (int i = 1; i < path.size(); i++) {
+            Node node = path.get(i);
+            if (node.angle == 999) {
+                if (node.lngLat.equals(legStart.lngLat)) continue;
+                legs.add(new double[]{legStart.lng(), legStart.lat(), node.lng(), node.lat()});
+                legStart = node;
+            }
+        }
+        return legs;
+    }
+
+    /**
+     * Repeats a path end to end so writers can be measured on larger days.
+     *
+     * @param path   Path to repeat.
+     * @param factor Number of copies.
+     * @return The scaled path.
+     */
+    public static List<Node> scaledPath(List<Node> path, int factor) {
+        List<Node> scaled = new ArrayList<>(path.size() * factor);
+        for (int copy = 0; copy < factor; copy++) {
+            scaled.addAll(path);
+        }
+        return scaled;
+    }
+
+    /**
+     * Generates convex polygons scattered over the area around Appleton Tower.
+     *
+     * @param count    Number of zones.
+     * @param vertices Vertices per zone, excluding the closing vertex.
+     * @param random   Random source.
+     * @return Synthetic no-fly zones, each closed by repeating its first vertex.
+     */
+    public static NamedRegion[] syntheticZones(int count, int vertices, Random random) {
+        NamedRegion[] zones = new NamedRegion[count];
+        for (int z = 0; z < count; z++) {
+            double centreLng = APPLETON.lng() + (random.nextDouble() - 0.5) * 0.02;
+            double centreLat = APPLETON.lat() + (random.nextDouble() - 0.5) * 0.01;
+            double radius = 0.0002 + random.nextDouble() * 0.0006;
+            LngLat[] polygon = new LngLat[vertices + 1];
+            for (int v = 0; v < vertices; v++) {
+                double angle = 2 * Math.PI * v / vertices;
+                polygon[v] = new LngLat(centreLng + radius * Math.cos(angle), centreLat + radius * Math.sin(angle));
+            }
+            polygon[vertices] = polygon[0];
+            zones[z] = new NamedRegion("synthetic-" + z, polygon);
+        }
+        return zones;
+    }
+
+    /**
+     * Generates random positions around Appleton Tower.
+     *
+     * @param count  Number of positions.
+     * @param random Random source.
+     * @return Interleaved longitude and latitude values.
+     */
+    public static double[] syntheticPoints(int count, Random random) {
+        double[] points = new double[count * 2];
+        for (int i = 0; i < count; i++) {
+            points[2 * i] = APPLETON.lng() + (random.nextDouble() - 0.5) * 0.02;
+            points[2 * i + 1] = APPLETON.lat() + (random.nextDouble() - 0.5) * 0.01;
+        }
+        return points;
+    }
+
+    /**
+     * Generates orders for the fixture date against the given restaurants.
+     * Roughly one order in five carries one of the common validation errors, so every branch of the validator runs.
+     *
+     * @param count       Number of orders.
+     * @param restaurants Restaurants whose menus the orders are drawn from.
+     * @param random      Random source.
+     * @return Unvalidated orders.
+     */
+    public static Order[] syntheticOrders(int count, Restaurant[] restaurants, Random random) {
+        LocalDate date = LocalDate.parse(FIXTURE_DATE);
+        String expiry = "12/" + String.format("%02d", (LocalDate.now().getYear() + 2) % 100);
+        Order[] orders = new Order[count];
+
+        for (int i = 0; i < count; i++) {
+            Restaurant restaurant = restaurants[random.nextInt(restaurants.length)];
+            int pizzaCount = 1 + random.nextInt(SystemConstants.MAX_PIZZAS_PER_ORDER);
+            Pizza[] pizzas = new Pizza[pizzaCount];
+            int total = SystemConstants.ORDER_CHARGE_IN_PENCE;
+            for (int p = 0; p < pizzaCount; p++) {
+                pizzas[p] = restaurant.menu()[random.nextInt(restaurant.menu().length)];
+                total += pizzas[p].priceInPence();
+            }
+
+            String cardNumber = String.format("%016d", Math.abs(random.nextLong()) % 10_000_000_000_000_000L);
+            String cvv = String.format("%03d", random.nextInt(1000));
+            switch (random.nextInt(20)) {
+                case 0 -> cvv = "12";
+                case 1 -> cardNumber = cardNumber.substring(1);
+                case 2 -> total += 100;
+                case 3 -> pizzas[0] = new Pizza("Undefined", 1000);
+                default -> { }
+            }
+
+            orders[i] = new Order(String.format("%08X", i), date, OrderStatus.UNDEFINED, OrderValidationCode.UNDEFINED,
+                    total, pizzas, new CreditCardInformation(cardNumber, expiry, cvv));
+        }
+        return orders;
+    }
+
+    /**
+     * Generates restaurants open every day at random positions near Appleton Tower.
+     *
+     * @param count  Number of restaurants.
+     * @param random Random source.
+     * @return Synthetic restaurants with uniquely named two-pizza menus.
+     */
+    public static Restaurant[] syntheticRestaurants(int count, Random random) {
+        Restaurant[] restaurants = new Restaurant[count];
+        for (int r = 0; r < count; r++) {
+            LngLat location = new LngLat(APPLETON.lng() + (random.nextDouble() - 0.5) * 0.03, APPLETON.lat() + (random.nextDouble() - 0.5) * 0.015);
+            Pizza[] menu = {new Pizza("S" + r + ": Margarita", 1000 + random.nextInt(500)), new Pizza("S" + r + ": Calzone", 1200 + random.nextInt(500))};
+            restaurants[r] = new Restaurant("Synthetic " + r, location, DayOfWeek.values(), menu);
+        }
+        return restaurants;
+    }
+}
@@ -0,0 +1,90 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.io.IOException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Point-in-polygon, segment-polygon and position arithmetic used by every move validity check.
+ * Each invocation processes a fixed batch of positions so results are comparable across polygon sizes.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class GeometryBenchmark {
+
+    private static final int BATCH = 1024;
+
+    /** "real" uses the downloaded no-fly zones, a number selects synthetic zones with that many vertices. */
+    @Param({"real", "8", "64"})
+    public String polygons;
+
+    private final LngLatHandler lngLatHandler = new LngLatHandler();
+    private NamedRegion[] zones;
+    private double[] points;
+    private double[] angles;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(BenchmarkData.SEED);
+        zones = polygons.equals("real")
+                ? BenchmarkData.noFlyZones()
+                : BenchmarkData.syntheticZones(4, Integer.parseInt(polygons), random);
+        points = BenchmarkData.syntheticPoints(BATCH, random);
+        angles = new double[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            angles[i] = random.nextInt(LngLatHandler.DIRECTIONS) * LngLatHandler.DIRECTION_STEP;
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void isPointInsidePolygon(Blackhole blackhole) {
+        for (int i = 0; i < BATCH; i++) {
+            for (NamedRegion zone : zones) {
+                blackhole.consume(PointInAreaHandler.isPointInsidePolygon(points[2 * i], points[2 * i + 1], zone.vertices()));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void doesLineIntersectPolygon(Blackhole blackhole) {
+        for (int i = 0; i < BATCH; i++) {
+            double lng = points[2 * i], lat = points[2 * i + 1];
+            int direction = (int) (angles[i] / LngLatHandler.DIRECTION_STEP);
+            double toLng = lng + LngLatHandler.DIRECTION_LNG[direction];
+            double toLat = lat + LngLatHandler.DIRECTION_LAT[direction];
+            for (NamedRegion zone : zones) {
+                blackhole.consume(PointInAreaHandler.doesLineIntersectPolygon(lng, lat, toLng, toLat, zone.vertices()));
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void nextPosition(Blackhole blackhole) {
+        for (int i = 0; i < BATCH; i++) {
+            blackhole.consume(lngLatHandler.nextPosition(new LngLat(points[2 * i], points[2 * i + 1]), angles[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public void distanceTo(Blackhole blackhole) {
+        LngLat previous = BenchmarkData.APPLETON;
+        for (int i = 0; i < BATCH; i++) {
+            LngLat current = new LngLat(points[2 * i], points[2 * i + 1]);
+            blackhole.consume(lngLatHandler.distanceTo(previous, current));
+            previous = current;
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+import uk.ac.ed.inf.ilp.data.Order;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Output writers on the checked-in 2023-11-15 day path, repeated to simulate busier days.
+ * Files are written to a temporary directory and the writers' status lines are discarded.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Thread)
+public class JsonWriterBenchmark {
+
+    @Param({"1", "10"})
+    public int scale;
+
+    private final JsonConverter jsonConverter = new JsonConverter();
+    private List<Node> path;
+    private Order[] orders;
+    private Path outputDir;
+    private PrintStream stdout;
+
+    @Setup
+    public void setUp() throws IOException {
+        path = BenchmarkData.scaledPath(BenchmarkData.fixturePath(), scale);
+        orders = OrderValidator.validateDailyOrders(
+                BenchmarkData.syntheticOrders(50 * scale, BenchmarkData.restaurants(), new Random(BenchmarkData.SEED)),
+                BenchmarkData.restaurants());
+        outputDir = Files.createTempDirectory("pizzadronz-bench");
+        stdout = System.out;
+        System.setOut(new PrintStream(OutputStream.nullOutputStream()));
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        System.setOut(stdout);
+        try (Stream<Path> files = Files.walk(outputDir)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public void convertFlightpathToJson() {
+        jsonConverter.convertFlightpathToJson(path, outputDir.resolve("flightpath").toString());
+    }
+
+    @Benchmark
+    public void convertNodesToGeoJson() throws IOException {
+        jsonConverter.convertNodesToGeoJson(path, outputDir.resolve("drone").toString());
+    }
+
+    @Benchmark
+    public void convertOrdersToJson() {
+        jsonConverter.convertOrdersToJson(orders, outputDir.resolve("deliveries").toString());
+    }
+}
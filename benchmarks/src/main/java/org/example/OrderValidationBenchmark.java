@@ -0,0 +1,48 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+import uk.ac.ed.inf.ilp.data.Order;
+import uk.ac.ed.inf.ilp.data.Restaurant;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Daily order validation on synthetic days of increasing size.
+ * Validation only overwrites status and code, so the same orders can be validated on every invocation.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+@State(Scope.Thread)
+public class OrderValidationBenchmark {
+
+    @Param({"50", "1000", "10000"})
+    public int orderCount;
+
+    /** Synthetic restaurants added to the downloaded ones, which lengthens the menu scan. */
+    @Param({"0", "100"})
+    public int extraRestaurants;
+
+    private Order[] orders;
+    private Restaurant[] restaurants;
+
+    @Setup
+    public void setUp() throws IOException {
+        Random random = new Random(BenchmarkData.SEED);
+        Restaurant[] real = BenchmarkData.restaurants();
+        Restaurant[] synthetic = BenchmarkData.syntheticRestaurants(extraRestaurants, random);
+        restaurants = Arrays.copyOf(real, real.length + synthetic.length);
+        System.arraycopy(synthetic, 0, restaurants, real.length, synthetic.length);
+        orders = BenchmarkData.syntheticOrders(orderCount, restaurants, random);
+    }
+
+    @Benchmark
+    public Order[] validateDailyOrders() {
+        return OrderValidator.validateDailyOrders(orders, restaurants);
+    }
+}
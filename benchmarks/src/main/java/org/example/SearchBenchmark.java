@@ -0,0 +1,60 @@
+package org.example;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sub-path search on the legs flown in the checked-in 2023-11-15 flightpath.
+ * One invocation plans every fixture leg once, without the route cache, so the score is the search cost of a day.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(2)
+@State(Scope.Thread)
+public class SearchBenchmark {
+
+    @Param({"CLASSIC", "LATTICE", "BIDIRECTIONAL", "VISIBILITY_GRAPH"})
+    public SearchMode mode;
+
+    @Param({"EUCLIDEAN", "LATTICE"})
+    public HeuristicType heuristic;
+
+    /** Synthetic zones added to the downloaded ones, to see how search cost grows with obstacles. */
+    @Param({"0", "16"})
+    public int extraZones;
+
+    private NamedRegion[] zones;
+    private List<double[]> legs;
+
+    @Setup
+    public void setUp() throws IOException {
+        NamedRegion[] real = BenchmarkData.noFlyZones();
+        NamedRegion[] synthetic = BenchmarkData.syntheticZones(extraZones, 6, new Random(BenchmarkData.SEED));
+        zones = new NamedRegion[real.length + synthetic.length];
+        System.arraycopy(real, 0, zones, 0, real.length);
+        System.arraycopy(synthetic, 0, zones, real.length, synthetic.length);
+
+        legs = BenchmarkData.fixtureLegs();
+        Flightpath.setSearchMode(mode);
+        Flightpath.setHeuristicType(heuristic);
+        Flightpath.setRouteCache(null);
+        //Build per-zone structures outside the measurement
+        Flightpath.zoneIndexFor(zones);
+        if (mode == SearchMode.VISIBILITY_GRAPH) Flightpath.visibilityPlannerFor(zones);
+    }
+
+    @Benchmark
+    public void planFixtureLegs(Blackhole blackhole) {
+        for (double[] leg : legs) {
+            blackhole.consume(Flightpath.searchPath(leg[0], leg[1], leg[2], leg[3], zones, "bench"));
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package org.example;
+
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.util.List;
+
+/**
+ * Anytime lattice search for a single leg.
+ * A heavily weighted search returns a first legal path quickly, then searches with smaller weights,
+ * pruned by the best path so far, repeatedly improve it until the weight reaches 1 or the budget runs out.
+ */
+public class AnytimeSearch {
+
+    public static final double DEFAULT_INITIAL_WEIGHT = 3.0;
+    //Weights closer to 1 than this are rounded down to an exact search
+    private static final double FINAL_WEIGHT_MARGIN = 0.05;
+
+    /**
+     * Path found for a leg and the suboptimality bound it is known to meet.
+     *
+     * @param path  List of nodes forming the path, empty if no path exists.
+     * @param bound Factor by which the path may exceed the shortest lattice path, 1 when proven shortest.
+     */
+    public record Result(List<Node> path, double bound) { }
+
+    /**
+     * Finds a path from start to end position avoiding no-fly zones within the given budget.
+     * The first path is always completed so a legal leg is returned even if it overruns the budget.
+     *
+     * @param startLng      Longitude of start position.
+     * @param startLat      Latitude of start position.
+     * @param endLng        Longitude of end position.
+     * @param endLat        Latitude of end position.
+     * @param noFlyZones    Array of no-fly zones.
+     * @param orderNo       Order number for identification.
+     * @param initialWeight Heuristic weight of the first search, at least 1.
+     * @param budget        Allowance shared by all searches for this leg.
+     * @return The best path found and its suboptimality bound.
+     */
+    public static Result findPath(double startLng, double startLat, double endLng, double endLat, NamedRegion[] noFlyZones,
+                                  String orderNo, double initialWeight, SearchBudget budget) {
+        return findPath(startLng, startLat, endLng, endLat, noFlyZones, orderNo, initialWeight, budget, null);
+    }
+
+    /**
+     * Finds a path within the given budget that may not leave the central area once it has entered it.
+     *
+     * @param startLng      Longitude of start position.
+     * @param startLat      Latitude of start position.
+     * @param endLng        Longitude of end position.
+     * @param endLat        Latitude of end position.
+     * @param noFlyZones    Array of no-fly zones.
+     * @param orderNo       Order number for identification.
+     * @param initialWeight Heuristic weight of the first search, at least 1.
+     * @param budget        Allowance shared by all searches for this leg.
+     * @param centralArea   Area the path may not leave once inside, or null for no constraint.
+     * @return The best path found and its suboptimality bound.
+     */
+    public static Result findPath(double startLng, double startLat, double endLng, double endLat, NamedRegion[] noFlyZones,
+                                  String orderNo, double initialWeight, SearchBudget budget, NamedRegion centralArea) {
+        double weight = Math.max(1.0, initialWeight);
+        List<Node> best = Flightpath.findPathLattice(startLng, startLat, endLng, endLat, noFlyZones, orderNo, weight, Double.MAX_VALUE, null, centralArea);
+        if (best.isEmpty()) {
+            return new Result(best, Double.POSITIVE_INFINITY);
+        }
+
+        double bound = weight;
+        while (weight > 1.0 && !budget.isExhausted()) {
+            weight = 1 + (weight - 1) / 2;
+            if (weight - 1 < FINAL_WEIGHT_MARGIN) weight = 1.0;
+
+            double bestCost = best.get(best.size() - 1).startCost;
+            List<Node> improved = Flightpath.findPathLattice(startLng, startLat, endLng, endLat, noFlyZones, orderNo, weight, bestCost, budget, centralArea);
+            //A completed path is legal and cheaper than the incumbent even if the budget ran out as it was found
+            if (!improved.isEmpty()) best = improved;
+            //A search cut short proves nothing about this weight's bound
+            if (budget.isExhausted()) break;
+
+            //An empty result means nothing beats the incumbent, which then meets this weight's bound
+            bound = weight;
+        }
+        return new Result(best, bound);
+    }
+}
@@ -1,12 +1,11 @@
 package org.example;
 
-import uk.ac.ed.inf.ilp.data.NamedRegion;
-import uk.ac.ed.inf.ilp.data.Order;
-import uk.ac.ed.inf.ilp.data.Restaurant;
-
 import java.io.IOException;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Matcher;
@@ -19,6 +18,11 @@ public class App {
 
     private static final Logger LOGGER = Logger.getLogger(App.class.getName());
 
+    //Last day of a batch run, or null to plan only the date given as the first argument
+    private static LocalDate batchEnd;
+    //Route atlas file to write instead of planning, or null to plan as usual
+    private static Path atlasOutput;
+
     /**
      * Main method to start the application.
      *
@@ -27,16 +31,40 @@ public class App {
      */
     public static void main(String[] args) throws IOException {
         checkArgs(args);
-        Download.downloadAll(args);
-        JsonParser jsonParser = new JsonParser();
+        applyOptions(args);
+        if (atlasOutput != null) {
+            buildAtlas(args[1]);
+            return;
+        }
 
-        Restaurant[] restaurants = jsonParser.parseRestaurant("restaurants");
-        NamedRegion centralArea = jsonParser.parseCentralArea("centralArea");
-        NamedRegion[] noFlyZones = jsonParser.parseNoFlyZones("noFlyZones");
-        Order[] orders = jsonParser.parseOrders(args[0]);
-        Order[] validOrders = OrderValidator.validateDailyOrders(orders, restaurants);
+        try {
+            if (batchEnd != null) {
+                BatchPlanner.planRange(args[1], LocalDate.parse(args[0]), batchEnd);
+                return;
+            }
+
+            Download.DayData day = Download.loadDay(args[1], args[0]);
+            Download.StaticData data = day.data();
+
+            Flightpath.getFullDayPath(data.noFlyZones(), data.centralArea(), data.restaurants(), day.validOrders(), args[0]);
+        } catch (IllegalStateException e) {
+            //Planning threads report orders that cannot be planned here rather than exiting themselves
+            LOGGER.log(Level.SEVERE, "Error: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Precomputes every Appleton Tower to restaurant leg and return leg and writes them to the atlas file.
+     *
+     * @param baseUrl Base URL of the REST service.
+     * @throws IOException If the static data cannot be read or the atlas cannot be written.
+     */
+    private static void buildAtlas(String baseUrl) throws IOException {
+        Download.StaticData data = Download.loadStatic(baseUrl);
 
-        Flightpath.getFullDayPath(noFlyZones, centralArea, restaurants, validOrders, args[0]);
+        int legs = RouteAtlas.build(atlasOutput, data.noFlyZones(), data.centralArea(), data.restaurants());
+        System.out.println("Route atlas written to " + atlasOutput + " with " + legs + " legs");
     }
 
     /**
@@ -50,8 +78,8 @@ public class App {
         Matcher m = r.matcher(args[0]);
 
         // Validate number of arguments
-        if (args.length != 2) {
-            LOGGER.log(Level.SEVERE, "Error: Expected 2 arguments. Received" + args.length + ".");
+        if (args.length < 2) {
+            LOGGER.log(Level.SEVERE, "Error: Expected at least 2 arguments. Received" + args.length + ".");
             System.exit(1);
         }
 
@@ -69,4 +97,99 @@ public class App {
             System.exit(1);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Applies optional planner settings given after the two required arguments.
+     * Supported options: --search=CLASSIC|LATTICE|VISIBILITY_GRAPH|BIDIRECTIONAL|ANYTIME, --threads=N,
+     * --until=YYYY-MM-DD to plan every day up to that date in one run, --heuristic=EUCLIDEAN|LATTICE|LANDMARK,
+     * --weight=W for the heuristic weight, --leg-budget-ms=N and --leg-budget-expansions=N for the anytime search,
+     * --atlas=FILE to serve legs from a precomputed route atlas, --build-atlas=FILE to write one instead of planning,
+     * --shorten-paths to remove moves from each order path after planning, --tour-capacity=P and
+     * --tour-move-budget=M to fly orders together in multi-stop flights of at most P pizzas and M moves,
+     * --drones=N and --battery-moves=M to share the day's flights between N drones flying at most M moves on each battery charge,
+     * --precision=D to round coordinates in the flightpath and GeoJSON files to D decimal places,
+     * --binary-flightpath or --binary-flightpath=gzip to also write each flightpath in binary form,
+     * --fsync=NONE|DATA|FULL for how far output files are forced to disk before being renamed into place,
+     * --route-cache to reuse legs searched earlier in the run, --raster-cache=DIR to keep the no-fly zone occupancy raster in DIR between runs,
+     * and --in-memory to parse the server's responses as they arrive instead of saving them as files first,
+     * or --in-memory=persist to also save them.
+     *
+     * @param args Command line arguments.
+     */
+    static void applyOptions(String[] args) {
+        for (int i = 2; i < args.length; i++) {
+            String option = args[i];
+            try {
+                if (option.startsWith("--search=")) {
+                    Flightpath.setSearchMode(SearchMode.valueOf(option.substring("--search=".length())));
+                } else if (option.startsWith("--threads=")) {
+                    Flightpath.setPlanningThreads(Integer.parseInt(option.substring("--threads=".length())));
+                } else if (option.startsWith("--until=")) {
+                    batchEnd = LocalDate.parse(option.substring("--until=".length()));
+                    if (batchEnd.isBefore(LocalDate.parse(args[0]))) {
+                        LOGGER.log(Level.SEVERE, "Error: Batch end date " + batchEnd + " is before " + args[0] + ".");
+                        System.exit(1);
+                    }
+                } else if (option.startsWith("--heuristic=")) {
+                    Flightpath.setHeuristicType(HeuristicType.valueOf(option.substring("--heuristic=".length())));
+                } else if (option.startsWith("--weight=")) {
+                    Flightpath.setHeuristicWeight(Double.parseDouble(option.substring("--weight=".length())));
+                } else if (option.startsWith("--leg-budget-ms=")) {
+                    Flightpath.setLegBudget(Long.parseLong(option.substring("--leg-budget-ms=".length())), Flightpath.getLegBudgetExpansions());
+                } else if (option.startsWith("--leg-budget-expansions=")) {
+                    Flightpath.setLegBudget(Flightpath.getLegBudgetMillis(), Long.parseLong(option.substring("--leg-budget-expansions=".length())));
+                } else if (option.startsWith("--tour-capacity=")) {
+                    Flightpath.setTourPlanning(Integer.parseInt(option.substring("--tour-capacity=".length())), Flightpath.getTourMoveBudget());
+                } else if (option.startsWith("--tour-move-budget=")) {
+                    Flightpath.setTourPlanning(Flightpath.getTourCapacity(), Integer.parseInt(option.substring("--tour-move-budget=".length())));
+                } else if (option.startsWith("--drones=")) {
+                    Flightpath.setFleet(Integer.parseInt(option.substring("--drones=".length())), Flightpath.getBatteryMoves());
+                } else if (option.startsWith("--battery-moves=")) {
+                    Flightpath.setFleet(Flightpath.getFleetSize(), Integer.parseInt(option.substring("--battery-moves=".length())));
+                } else if (option.startsWith("--precision=")) {
+                    JsonConverter.setCoordinatePrecision(Integer.parseInt(option.substring("--precision=".length())));
+                } else if (option.equals("--binary-flightpath")) {
+                    Flightpath.setBinaryFlightpath(true, false);
+                } else if (option.equals("--binary-flightpath=gzip")) {
+                    Flightpath.setBinaryFlightpath(true, true);
+                } else if (option.startsWith("--fsync=")) {
+                    OutputStage.SyncPolicy policy = OutputStage.SyncPolicy.valueOf(option.substring("--fsync=".length()));
+                    Flightpath.setOutputStage(new OutputStage(OutputStage.DEFAULT_THREADS, policy, true));
+                } else if (option.equals("--in-memory")) {
+                    Download.setInMemory(true, false);
+                } else if (option.equals("--in-memory=persist")) {
+                    Download.setInMemory(true, true);
+                } else if (option.equals("--shorten-paths")) {
+                    Flightpath.setPathShortening(true);
+                } else if (option.equals("--route-cache")) {
+                    Flightpath.setRouteCache(new RouteCache(RouteCache.DEFAULT_MAX_ENTRIES, RouteCache.DEFAULT_MAX_NODES));
+                } else if (option.startsWith("--raster-cache=")) {
+                    Flightpath.setRasterCacheDirectory(Path.of(option.substring("--raster-cache=".length())));
+                } else if (option.startsWith("--atlas=")) {
+                    useAtlas(Path.of(option.substring("--atlas=".length())));
+                } else if (option.startsWith("--build-atlas=")) {
+                    atlasOutput = Path.of(option.substring("--build-atlas=".length()));
+                } else {
+                    LOGGER.log(Level.SEVERE, "Error: Unknown option " + option + ".");
+                    System.exit(1);
+                }
+            } catch (IllegalArgumentException | DateTimeParseException e) {
+                LOGGER.log(Level.SEVERE, "Error: Invalid value for option " + option + ".");
+                System.exit(1);
+            }
+        }
+    }
+
+    /**
+     * Loads a route atlas for planning, carrying on with live searches if it cannot be read.
+     *
+     * @param file Atlas file written by --build-atlas.
+     */
+    private static void useAtlas(Path file) {
+        try {
+            Flightpath.setRouteAtlas(RouteAtlas.open(file));
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Ignoring route atlas " + file + ": " + e.getMessage());
+        }
+    }
+}
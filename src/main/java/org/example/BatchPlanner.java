@@ -0,0 +1,113 @@
+package org.example;
+
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+import uk.ac.ed.inf.ilp.data.Order;
+import uk.ac.ed.inf.ilp.data.Restaurant;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Plans a range of days in one run.
+ * Static data is loaded once and shared by every day, so the zone index, visibility graph, landmark tables
+ * and route cache built for one day are reused by the next. The next day's orders are fetched on a
+ * background thread while the current day is being planned, and each day's files are written while the next is planned.
+ */
+public class BatchPlanner {
+
+    /**
+     * Source of a day's validated orders.
+     */
+    @FunctionalInterface
+    public interface OrderSource {
+        /**
+         * Loads and validates the orders for a day, so validation runs on the prefetch thread alongside planning.
+         *
+         * @param date The day to load.
+         * @return Validated orders placed for that day, empty if there are none.
+         * @throws IOException If the orders cannot be fetched or parsed.
+         */
+        Order[] load(LocalDate date) throws IOException;
+    }
+
+    /**
+     * Downloads the static data once, then plans every day from start to end inclusive.
+     *
+     * @param baseUrl Base address of the REST server.
+     * @param start   First day to plan.
+     * @param end     Last day to plan.
+     * @throws IOException If static data or orders cannot be read, or output cannot be written.
+     */
+    public static void planRange(String baseUrl, LocalDate start, LocalDate end) throws IOException {
+        Download.StaticData data = Download.loadStatic(baseUrl);
+
+        planDays(data.noFlyZones(), data.centralArea(), data.restaurants(), start, end,
+                date -> Download.loadOrders(baseUrl, date.toString(), data.restaurants()));
+    }
+
+    /**
+     * Plans every day from start to end inclusive against the same static data.
+     *
+     * @param noFlyZones  Array of no-fly zones.
+     * @param centralArea Central area of operation.
+     * @param restaurants Array of available restaurants.
+     * @param start       First day to plan.
+     * @param end         Last day to plan.
+     * @param orderSource Source of each day's validated orders, called on a background thread.
+     * @return Number of days planned.
+     * @throws IOException If orders cannot be read or output cannot be written.
+     */
+    public static int planDays(NamedRegion[] noFlyZones, NamedRegion centralArea, Restaurant[] restaurants,
+                               LocalDate start, LocalDate end, OrderSource orderSource) throws IOException {
+        if (end.isBefore(start)) {
+            throw new IllegalArgumentException("Batch end date " + end + " is before start date " + start);
+        }
+
+        ExecutorService prefetcher = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-prefetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        int days = 0;
+        boolean asyncOutput = Flightpath.isAsyncOutput();
+        //Each day's files are written while the next day is planned
+        Flightpath.setAsyncOutput(true);
+        try {
+            Future<Order[]> nextOrders = prefetcher.submit(() -> orderSource.load(start));
+            for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+                Order[] orders = await(nextOrders, date);
+                LocalDate nextDate = date.plusDays(1);
+                if (!nextDate.isAfter(end)) {
+                    nextOrders = prefetcher.submit(() -> orderSource.load(nextDate));
+                }
+
+                System.out.println("Planning day " + date);
+                Flightpath.getFullDayPath(noFlyZones, centralArea, restaurants, orders, date.toString());
+                days++;
+            }
+            Flightpath.awaitOutput();
+        } finally {
+            Flightpath.setAsyncOutput(asyncOutput);
+            prefetcher.shutdownNow();
+        }
+
+        System.out.println("Batch complete: " + days + " day(s) planned");
+        return days;
+    }
+
+    private static Order[] await(Future<Order[]> orders, LocalDate date) throws IOException {
+        try {
+            return orders.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while fetching orders for " + date, e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IllegalStateException("Fetching orders for " + date + " failed", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,207 @@
+package org.example;
+
+import uk.ac.ed.inf.ilp.constant.SystemConstants;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Bidirectional A* over the same move lattice as Flightpath's lattice search.
+ * One frontier grows forward from the start and the other backward from the goal, where a backward
+ * step undoes a compass move. When the frontiers reach the same lattice cell, the backward half is
+ * replayed forward from the meeting position using the original headings, so every move of the
+ * combined path is an exact compass move that is re-checked for legality.
+ */
+public class BidirectionalSearch {
+
+    private static final LngLatHandler lngLatHandler = new LngLatHandler();
+
+    /**
+     * Open and closed state for one direction of the search.
+     */
+    private static final class Frontier {
+        final PriorityQueue<Node> openSet = new PriorityQueue<>();
+        final LongHashSet closedSet = new LongHashSet(1024);
+        //Cheapest node reached in each cell, open or closed
+        final LongObjectHashMap<Node> bestNode = new LongObjectHashMap<>(1024);
+        final LngLat target;
+
+        Frontier(LngLat target) {
+            this.target = target;
+        }
+
+        /**
+         * Discards superseded entries at the head of the open set and returns the live head.
+         */
+        Node peekLive(double originLng, double originLat) {
+            while (!openSet.isEmpty()) {
+                Node top = openSet.peek();
+                long key = Flightpath.latticeKey(top.lng(), top.lat(), originLng, originLat);
+                if (!closedSet.contains(key) && bestNode.get(key) == top) return top;
+                openSet.poll();
+            }
+            return null;
+        }
+    }
+
+    private final NamedRegion[] noFlyZones;
+    private final String orderNo;
+    private final Node start;
+    private final LngLat goal;
+    private final Node goalNode;
+    private final Frontier forward;
+    private final Frontier backward;
+    private final SearchMetrics metrics = SearchMetrics.current();
+
+    private double bestCost = Double.MAX_VALUE;
+    private List<Node> bestPath;
+
+    private BidirectionalSearch(double startLng, double startLat, double endLng, double endLat, NamedRegion[] noFlyZones, String orderNo) {
+        this.noFlyZones = noFlyZones;
+        this.orderNo = orderNo;
+        this.start = new Node(new LngLat(startLng, startLat), 999, orderNo);
+        this.goal = new LngLat(endLng, endLat);
+        //Backward root only anchors the chain, its angle is never emitted
+        this.goalNode = new Node(goal, 999, orderNo);
+        this.forward = new Frontier(goal);
+        this.backward = new Frontier(start.lngLat);
+    }
+
+    /**
+     * Finds a path from start to end position avoiding no-fly zones.
+     *
+     * @param startLng   Longitude of start position.
+     * @param startLat   Latitude of start position.
+     * @param endLng     Longitude of end position.
+     * @param endLat     Latitude of end position.
+     * @param noFlyZones Array of no-fly zones.
+     * @param orderNo    Order number for identification.
+     * @return List of nodes forming the path, in the same form as Flightpath.findPath, or empty if none exists.
+     */
+    public static List<Node> findPath(double startLng, double startLat, double endLng, double endLat, NamedRegion[] noFlyZones, String orderNo) {
+        return new BidirectionalSearch(startLng, startLat, endLng, endLat, noFlyZones, orderNo).run();
+    }
+
+    private List<Node> run() {
+        if (lngLatHandler.distanceTo(start.lngLat, goal) < Flightpath.GOAL_TOLERANCE) {
+            return new ArrayList<>(List.of(start));
+        }
+
+        seed(forward, start);
+        seed(backward, goalNode);
+
+        while (true) {
+            Node forwardTop = forward.peekLive(start.lng(), start.lat());
+            Node backwardTop = backward.peekLive(start.lng(), start.lat());
+            if (forwardTop == null || backwardTop == null) break;
+            if (metrics != null) metrics.recordOpenSize(forward.openSet.size() + backward.openSet.size());
+
+            //Either frontier's smallest f bounds every path not yet found
+            double bound = Math.max(forwardTop.startCost + forwardTop.endCost, backwardTop.startCost + backwardTop.endCost);
+            if (bestPath != null && bestCost <= bound) break;
+
+            if (forward.openSet.size() <= backward.openSet.size()) {
+                expand(forward, backward, true);
+            } else {
+                expand(backward, forward, false);
+            }
+        }
+
+        if (metrics != null) metrics.closedSize += forward.closedSet.size() + backward.closedSet.size();
+        return bestPath != null ? bestPath : new ArrayList<>();
+    }
+
+    private void seed(Frontier frontier, Node root) {
+        root.startCost = 0;
+        root.endCost = lngLatHandler.distanceTo(root.lngLat, frontier.target);
+        frontier.openSet.add(root);
+        frontier.bestNode.put(Flightpath.latticeKey(root.lng(), root.lat(), start.lng(), start.lat()), root);
+    }
+
+    /**
+     * Expands the head of one frontier and records any meeting with the other.
+     *
+     * @param side        Frontier being expanded.
+     * @param other       Opposite frontier.
+     * @param isForward   true when expanding from the start, false when expanding from the goal.
+     */
+    private void expand(Frontier side, Frontier other, boolean isForward) {
+        Node current = side.openSet.poll();
+        side.closedSet.add(Flightpath.latticeKey(current.lng(), current.lat(), start.lng(), start.lat()));
+        if (metrics != null) metrics.nodesExpanded++;
+        double tentativeG = current.startCost + SystemConstants.DRONE_MOVE_DISTANCE;
+
+        for (int d = 0; d < LngLatHandler.DIRECTIONS; d++) {
+            //Backward steps undo the move, so the stored angle is always the forward heading
+            double sign = isForward ? 1 : -1;
+            double nextLng = current.lng() + sign * LngLatHandler.DIRECTION_LNG[d];
+            double nextLat = current.lat() + sign * LngLatHandler.DIRECTION_LAT[d];
+            long nextKey = Flightpath.latticeKey(nextLng, nextLat, start.lng(), start.lat());
+
+            if (side.closedSet.contains(nextKey)) continue;
+            Node existing = side.bestNode.get(nextKey);
+            if (existing != null && tentativeG >= existing.startCost) continue;
+            if (!Flightpath.isValidMove(nextLng, nextLat, current.lng(), current.lat(), noFlyZones)) continue;
+
+            Node neighbor = new Node(new LngLat(nextLng, nextLat), LngLatHandler.DIRECTION_ANGLES[d], orderNo);
+            neighbor.parent = current;
+            neighbor.startCost = tentativeG;
+            neighbor.endCost = lngLatHandler.distanceTo(neighbor.lngLat, side.target);
+            side.bestNode.put(nextKey, neighbor);
+            side.openSet.add(neighbor);
+            if (metrics != null) metrics.nodesGenerated++;
+
+            //Reaching the goal tolerance directly ends the path just as the one-way search does
+            if (isForward && neighbor.endCost < Flightpath.GOAL_TOLERANCE && tentativeG < bestCost) {
+                join(neighbor, goalNode);
+            }
+
+            Node meeting = other.bestNode.get(nextKey);
+            if (meeting != null && tentativeG + meeting.startCost < bestCost) {
+                if (isForward) {
+                    join(neighbor, meeting);
+                } else {
+                    join(meeting, neighbor);
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the combined path through a meeting cell and keeps it if it is legal and cheaper than the best so far.
+     *
+     * @param forwardNode  Node reached from the start.
+     * @param backwardNode Node reached from the goal in the same cell.
+     */
+    private void join(Node forwardNode, Node backwardNode) {
+        List<Node> path = new ArrayList<>();
+        for (Node node = forwardNode; node != null; node = node.parent) {
+            path.add(node);
+        }
+        Collections.reverse(path);
+
+        //Replay the backward chain forward from the meeting position with the same headings
+        Node current = forwardNode;
+        for (Node step = backwardNode; step.parent != null; step = step.parent) {
+            int direction = LngLatHandler.directionIndex(step.angle);
+            double nextLng = current.lng() + LngLatHandler.DIRECTION_LNG[direction];
+            double nextLat = current.lat() + LngLatHandler.DIRECTION_LAT[direction];
+            if (!Flightpath.isValidMove(nextLng, nextLat, current.lng(), current.lat(), noFlyZones)) return;
+
+            Node next = new Node(new LngLat(nextLng, nextLat), step.angle, orderNo);
+            next.parent = current;
+            next.startCost = current.startCost + SystemConstants.DRONE_MOVE_DISTANCE;
+            path.add(next);
+            current = next;
+        }
+
+        if (lngLatHandler.distanceTo(current.lngLat, goal) >= Flightpath.GOAL_TOLERANCE) return;
+
+        bestCost = current.startCost;
+        bestPath = path;
+    }
+}
@@ -0,0 +1,295 @@
+package org.example;
+
+import uk.ac.ed.inf.ilp.data.LngLat;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Compact binary form of a flightpath, written alongside the JSON file.
+ * The file holds a dictionary of order numbers followed by legs. Each leg stores its order, the exact position
+ * and angle of its first node, and one byte per following node: a compass direction index or a hover.
+ * A new leg starts whenever the order changes or a node is not exactly one compass move or hover on from the
+ * previous one, so every path is stored losslessly. The body may be gzip-compressed.
+ * Reading the file back and passing the nodes to JsonConverter gives exactly the JSON flightpath file.
+ */
+public class BinaryFlightpath {
+
+    private static final Logger LOGGER = Logger.getLogger(BinaryFlightpath.class.getName());
+
+    public static final String EXTENSION = ".fpb";
+
+    private static final int FILE_MAGIC = 0x46504231;
+    private static final int FILE_VERSION = 1;
+    private static final int FLAG_GZIP = 1;
+    //Move code of a hover, after the compass direction indices
+    private static final int HOVER = LngLatHandler.DIRECTIONS;
+    //Order index of a node without an order number, and of the marker after the last leg
+    private static final int NO_ORDER = -1;
+    private static final int END_OF_LEGS = -2;
+
+    /**
+     * Converts a binary flightpath file to the JSON flightpath file JsonConverter writes.
+     *
+     * @param args Array of strings with expected length 2, containing the binary file and the JSON file name without extension.
+     */
+    public static void main(String[] args) {
+        if (args.length < 2) {
+            LOGGER.log(Level.SEVERE, "Error: Expected a binary flightpath file and a JSON file name.");
+            System.exit(1);
+        }
+        try (Reader reader = open(Path.of(args[0]))) {
+            new JsonConverter().convertFlightpathToJson(reader, args[1]);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Error reading binary flightpath: " + args[0] + ". " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    /**
+     * Writes a flightpath in binary form.
+     *
+     * @param flightpath Nodes of the flightpath.
+     * @param file       Destination file.
+     * @param gzip       true to compress the body.
+     * @throws IOException If the file cannot be written.
+     */
+    public static void write(List<Node> flightpath, Path file, boolean gzip) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            write(flightpath, out, gzip);
+        }
+    }
+
+    /**
+     * Writes a flightpath in binary form to a stream.
+     *
+     * @param flightpath Nodes of the flightpath.
+     * @param raw        Stream to write to, closed when done.
+     * @param gzip       true to compress the body.
+     * @throws IOException If the stream cannot be written.
+     */
+    public static void write(List<Node> flightpath, OutputStream raw, boolean gzip) throws IOException {
+        Map<String, Integer> orderIndex = new HashMap<>();
+        List<String> dictionary = new ArrayList<>();
+        for (Node node : flightpath) {
+            if (node.orderNo != null && !orderIndex.containsKey(node.orderNo)) {
+                orderIndex.put(node.orderNo, dictionary.size());
+                dictionary.add(node.orderNo);
+            }
+        }
+
+        try (raw) {
+            DataOutputStream header = new DataOutputStream(raw);
+            header.writeInt(FILE_MAGIC);
+            header.writeInt(FILE_VERSION);
+            header.writeByte(gzip ? FLAG_GZIP : 0);
+            header.flush();
+
+            DataOutputStream out = new DataOutputStream(gzip ? new BufferedOutputStream(new GZIPOutputStream(raw)) : raw);
+            out.writeInt(dictionary.size());
+            for (String orderNo : dictionary) {
+                out.writeUTF(orderNo);
+            }
+
+            byte[] moves = new byte[64];
+            int count = 0;
+            Node legStart = null, previous = null;
+            for (Node node : flightpath) {
+                int code = previous == null || !Objects.equals(node.orderNo, previous.orderNo) ? -1 : moveCode(previous, node);
+                if (code < 0) {
+                    if (legStart != null) writeLeg(out, legStart, orderIndex, moves, count);
+                    legStart = node;
+                    count = 0;
+                } else {
+                    if (count == moves.length) moves = Arrays.copyOf(moves, count * 2);
+                    moves[count++] = (byte) code;
+                }
+                previous = node;
+            }
+            if (legStart != null) writeLeg(out, legStart, orderIndex, moves, count);
+            out.writeInt(END_OF_LEGS);
+            out.close();
+        }
+    }
+
+    private static void writeLeg(DataOutputStream out, Node start, Map<String, Integer> orderIndex, byte[] moves, int count) throws IOException {
+        out.writeInt(start.orderNo == null ? NO_ORDER : orderIndex.get(start.orderNo));
+        out.writeDouble(start.lng());
+        out.writeDouble(start.lat());
+        out.writeDouble(start.angle);
+        out.writeInt(count);
+        out.write(moves, 0, count);
+    }
+
+    /**
+     * Finds the move code that replays a node exactly from the previous one.
+     *
+     * @param previous Previous node.
+     * @param node     Node to encode.
+     * @return The direction index, HOVER, or -1 if the node has to start a new leg.
+     */
+    private static int moveCode(Node previous, Node node) {
+        if (same(node.angle, 999)) {
+            return same(node.lng(), previous.lng()) && same(node.lat(), previous.lat()) ? HOVER : -1;
+        }
+        int direction = LngLatHandler.directionIndex(node.angle);
+        if (direction < 0 || !same(node.angle, LngLatHandler.DIRECTION_ANGLES[direction])) return -1;
+        boolean replays = same(node.lng(), previous.lng() + LngLatHandler.DIRECTION_LNG[direction])
+                && same(node.lat(), previous.lat() + LngLatHandler.DIRECTION_LAT[direction]);
+        return replays ? direction : -1;
+    }
+
+    //Compares bit patterns, so the replayed value prints exactly like the original
+    private static boolean same(double a, double b) {
+        return Double.doubleToLongBits(a) == Double.doubleToLongBits(b);
+    }
+
+    /**
+     * Opens a binary flightpath file for streaming.
+     *
+     * @param file File written by write.
+     * @return Reader over the nodes of the flightpath.
+     * @throws IOException If the file cannot be read or is not a binary flightpath of this version.
+     */
+    public static Reader open(Path file) throws IOException {
+        InputStream raw = new BufferedInputStream(Files.newInputStream(file));
+        try {
+            DataInputStream header = new DataInputStream(raw);
+            if (header.readInt() != FILE_MAGIC || header.readInt() != FILE_VERSION) {
+                throw new IOException("Not a binary flightpath of version " + FILE_VERSION);
+            }
+            boolean gzip = (header.readByte() & FLAG_GZIP) != 0;
+            DataInputStream in = new DataInputStream(gzip ? new BufferedInputStream(new GZIPInputStream(raw)) : raw);
+
+            int size = in.readInt();
+            if (size < 0) throw new IOException("Invalid order dictionary size " + size);
+            String[] dictionary = new String[size];
+            for (int i = 0; i < size; i++) {
+                dictionary[i] = in.readUTF();
+            }
+            return new Reader(in, dictionary);
+        } catch (IOException e) {
+            raw.close();
+            throw e instanceof EOFException ? new IOException("Truncated binary flightpath", e) : e;
+        }
+    }
+
+    /**
+     * Streams the nodes of a binary flightpath, reading one leg at a time.
+     * Nodes are not linked to their parents, so memory use does not grow with path length.
+     * Read errors during iteration are thrown as UncheckedIOException.
+     */
+    public static final class Reader implements Iterable<Node>, Closeable {
+
+        private final DataInputStream in;
+        private final String[] dictionary;
+        private boolean iterated = false;
+
+        private Reader(DataInputStream in, String[] dictionary) {
+            this.in = in;
+            this.dictionary = dictionary;
+        }
+
+        /**
+         * @return Iterator over the nodes; a reader can only be iterated once.
+         */
+        @Override
+        public Iterator<Node> iterator() {
+            if (iterated) throw new IllegalStateException("A binary flightpath can only be read once");
+            iterated = true;
+
+            return new Iterator<>() {
+                private int movesLeft;
+                private Node next = readLegStart();
+
+                private Node readLegStart() {
+                    try {
+                        int order = in.readInt();
+                        if (order == END_OF_LEGS) return null;
+                        if (order < NO_ORDER || order >= dictionary.length) throw new IOException("Invalid order index " + order);
+
+                        Node start = new Node(new LngLat(in.readDouble(), in.readDouble()), in.readDouble(), order == NO_ORDER ? null : dictionary[order]);
+                        movesLeft = in.readInt();
+                        if (movesLeft < 0) throw new IOException("Invalid move count " + movesLeft);
+                        return start;
+                    } catch (EOFException e) {
+                        throw new UncheckedIOException(new IOException("Truncated binary flightpath", e));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                private Node readMove(Node previous) {
+                    try {
+                        int code = in.readUnsignedByte();
+                        movesLeft--;
+                        if (code == HOVER) return new Node(previous.lngLat, 999, previous.orderNo);
+                        if (code >= LngLatHandler.DIRECTIONS) throw new IOException("Invalid move code " + code);
+                        return new Node(new LngLat(previous.lng() + LngLatHandler.DIRECTION_LNG[code], previous.lat() + LngLatHandler.DIRECTION_LAT[code]),
+                                LngLatHandler.DIRECTION_ANGLES[code], previous.orderNo);
+                    } catch (EOFException e) {
+                        throw new UncheckedIOException(new IOException("Truncated binary flightpath", e));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+
+                @Override
+                public boolean hasNext() {
+                    return next != null;
+                }
+
+                @Override
+                public Node next() {
+                    if (next == null) throw new NoSuchElementException();
+                    Node current = next;
+                    next = movesLeft > 0 ? readMove(current) : readLegStart();
+                    return current;
+                }
+            };
+        }
+
+        /**
+         * Reads the remaining nodes into a list.
+         *
+         * @return Nodes of the flightpath.
+         * @throws IOException If the file is corrupt or cannot be read.
+         */
+        public List<Node> readAll() throws IOException {
+            List<Node> nodes = new ArrayList<>();
+            try {
+                for (Node node : this) nodes.add(node);
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            return nodes;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
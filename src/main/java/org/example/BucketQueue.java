@@ -0,0 +1,143 @@
+package org.example;
+
+import uk.ac.ed.inf.ilp.constant.SystemConstants;
+
+import java.util.Arrays;
+
+/**
+ * Two-level bucket queue over integer ids.
+ * Every move costs DRONE_MOVE_DISTANCE, so f-scores cluster into narrow bands. The first level
+ * buckets ids by f-score band and the second level scans the lowest non-empty band for its exact minimum.
+ */
+public class BucketQueue implements OpenList {
+
+    public static final double DEFAULT_BUCKET_WIDTH = SystemConstants.DRONE_MOVE_DISTANCE / 8;
+
+    private final double bucketWidth;
+    private double baseF = Double.NaN;
+
+    private int[][] buckets = new int[64][];
+    private int[] bucketSizes = new int[64];
+    private int cursor;
+    private int size;
+
+    //Per-id bucket (-1 when not queued), slot within that bucket and f-score
+    private int[] bucketOf = new int[64];
+    private int[] slotOf = new int[64];
+    private double[] fScore = new double[64];
+
+    /**
+     * Constructs an empty bucket queue.
+     *
+     * @param bucketWidth Width of each first-level f-score band.
+     */
+    public BucketQueue(double bucketWidth) {
+        if (!(bucketWidth > 0)) {
+            throw new IllegalArgumentException("Bucket width must be positive");
+        }
+        this.bucketWidth = bucketWidth;
+        Arrays.fill(bucketOf, -1);
+    }
+
+    @Override
+    public void insertOrDecrease(int id, double f) {
+        ensureId(id);
+        if (bucketOf[id] >= 0) {
+            if (f >= fScore[id]) return;
+            removeFromBucket(id);
+            size--;
+        }
+        if (Double.isNaN(baseF)) {
+            baseF = f;
+        }
+
+        fScore[id] = f;
+        //Scores below the first one are clamped into the first bucket and still ordered exactly there
+        int bucket = (int) Math.max(0, Math.floor((f - baseF) / bucketWidth));
+        addToBucket(id, bucket);
+        cursor = Math.min(cursor, bucket);
+        size++;
+    }
+
+    @Override
+    public int poll() {
+        int bucket = lowestBucket();
+        int best = bestInBucket(bucket);
+        int id = buckets[bucket][best];
+        removeFromBucket(id);
+        size--;
+        return id;
+    }
+
+    @Override
+    public double peekF() {
+        int bucket = lowestBucket();
+        return fScore[buckets[bucket][bestInBucket(bucket)]];
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return id < bucketOf.length && bucketOf[id] >= 0;
+    }
+
+    @Override
+    public int size() { return this.size; }
+
+    private int lowestBucket() {
+        if (size == 0) {
+            throw new IllegalStateException("Open list is empty");
+        }
+        while (bucketSizes[cursor] == 0) {
+            cursor++;
+        }
+        return cursor;
+    }
+
+    private int bestInBucket(int bucket) {
+        int[] ids = buckets[bucket];
+        int best = 0;
+        for (int slot = 1; slot < bucketSizes[bucket]; slot++) {
+            if (fScore[ids[slot]] < fScore[ids[best]]) best = slot;
+        }
+        return best;
+    }
+
+    private void addToBucket(int id, int bucket) {
+        if (bucket >= buckets.length) {
+            int newLength = Math.max(bucket + 1, buckets.length * 2);
+            buckets = Arrays.copyOf(buckets, newLength);
+            bucketSizes = Arrays.copyOf(bucketSizes, newLength);
+        }
+        if (buckets[bucket] == null) {
+            buckets[bucket] = new int[8];
+        } else if (bucketSizes[bucket] == buckets[bucket].length) {
+            buckets[bucket] = Arrays.copyOf(buckets[bucket], bucketSizes[bucket] * 2);
+        }
+        int slot = bucketSizes[bucket]++;
+        buckets[bucket][slot] = id;
+        bucketOf[id] = bucket;
+        slotOf[id] = slot;
+    }
+
+    private void removeFromBucket(int id) {
+        int bucket = bucketOf[id];
+        int slot = slotOf[id];
+        int last = --bucketSizes[bucket];
+        //Swap the last id into the freed slot
+        int moved = buckets[bucket][last];
+        buckets[bucket][slot] = moved;
+        slotOf[moved] = slot;
+        bucketOf[id] = -1;
+    }
+
+    private void ensureId(int id) {
+        if (id >= bucketOf.length) {
+            int oldLength = bucketOf.length;
+            int newLength = Math.max(id + 1, oldLength * 2);
+            bucketOf = Arrays.copyOf(bucketOf, newLength);
+            slotOf = Arrays.copyOf(slotOf, newLength);
+            fScore = Arrays.copyOf(fScore, newLength);
+            Arrays.fill(bucketOf, oldLength, newLength, -1);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package org.example;
+
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+/**
+ * Occupancy raster of the central area, answering whether a position is inside it.
+ * Cells entirely inside or outside the area are answered from the raster; only positions in boundary cells
+ * run the exact polygon test. Constrained searches and path shortening test every candidate position this way.
+ */
+public class CentralAreaIndex {
+
+    private static final LngLatHandler lngLatHandler = new LngLatHandler();
+
+    private final NamedRegion centralArea;
+    private final long fingerprint;
+    private final OccupancyRaster raster;
+
+    /**
+     * Rasterises the central area.
+     *
+     * @param centralArea Central area of operation.
+     */
+    public CentralAreaIndex(NamedRegion centralArea) {
+        this.centralArea = centralArea;
+        this.fingerprint = RouteCache.fingerprint(new NamedRegion[]{centralArea});
+        this.raster = OccupancyRaster.build(new NamedRegion[]{centralArea}, OccupancyRaster.DEFAULT_CELL_SIZE);
+    }
+
+    public NamedRegion area() { return this.centralArea; }
+
+    /**
+     * @return Fingerprint of the area geometry, as computed by RouteCache.fingerprint.
+     */
+    public long fingerprint() { return this.fingerprint; }
+
+    /**
+     * Checks whether a position lies inside the central area, agreeing with LngLatHandler.isInRegion.
+     *
+     * @param lng Longitude of the position.
+     * @param lat Latitude of the position.
+     * @return true if the position is inside or on the edge of the central area.
+     */
+    public boolean contains(double lng, double lat) {
+        int state = raster.state(lng, lat);
+        if (state != OccupancyRaster.BOUNDARY) return state == OccupancyRaster.BLOCKED;
+        return lngLatHandler.isInRegion(lng, lat, centralArea);
+    }
+}
@@ -1,58 +1,215 @@
 package org.example;
 
-import java.io.BufferedInputStream;
-import java.io.FileOutputStream;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+import uk.ac.ed.inf.ilp.data.Order;
+import uk.ac.ed.inf.ilp.data.Restaurant;
+
 import java.io.IOException;
-import java.net.URL;
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
  * Simple download application to retrieve files from a REST server.
+ * The load methods fetch and parse the data the planner needs. They normally go through files in the working
+ * directory; in memory mode each response body is parsed as it arrives and files are only written if asked for.
  */
 public class Download {
 
     private static final Logger LOGGER = Logger.getLogger("Logger");
 
+    //Shared so every download of a run reuses the same kept-alive connections and file cache
+    private static final HttpFetcher FETCHER = new HttpFetcher();
+
+    //Whether responses are parsed straight from the network, and whether their raw bodies are still saved as files
+    private static boolean inMemory = false;
+    private static boolean persistPayloads = false;
+
+    /**
+     * Data shared by every day: restaurants, central area and no-fly zones.
+     *
+     * @param restaurants Array of available restaurants.
+     * @param centralArea Central area of operation.
+     * @param noFlyZones  Array of no-fly zones.
+     */
+    public record StaticData(Restaurant[] restaurants, NamedRegion centralArea, NamedRegion[] noFlyZones) {
+    }
+
+    /**
+     * Everything needed to plan one day.
+     *
+     * @param data        Static data.
+     * @param validOrders Orders of the day, validated against the restaurants.
+     */
+    public record DayData(StaticData data, Order[] validOrders) {
+    }
+
+    /**
+     * Chooses how the load methods get their data.
+     *
+     * @param enabled true to parse response bodies as they arrive instead of reading them back from files.
+     * @param persist true to still save the raw bodies as files in memory mode, which also lets unchanged static files
+     *                be revalidated instead of downloaded again.
+     */
+    public static void setInMemory(boolean enabled, boolean persist) {
+        inMemory = enabled;
+        persistPayloads = enabled && persist;
+    }
+
+    public static boolean isInMemory() { return inMemory; }
+
+    public static boolean isPersistingPayloads() { return persistPayloads; }
+
     /**
      * Downloads a file from the specified URL and saves it locally.
      *
      * @param args Array of strings with expected length 2, containing a base address and a filename.
      */
     public static void main(String[] args) {
-        String baseUrl = args[0];
-        String endpoint = args[1];
-        if (!baseUrl.endsWith("/")) {
-            baseUrl += "/";
-        }
-        URL fullUrl;
+        fetchOrExit(args[0], args[1]);
+    }
+
+    /**
+     * Downloads a file from the specified URL and saves it locally, leaving failure handling to the caller.
+     * A copy already on disk is revalidated with the server and only downloaded again if it has changed.
+     *
+     * @param baseUrl  Base address of the server.
+     * @param endpoint Name of the resource, also used as the local file name.
+     * @throws IOException If the file cannot be downloaded or written.
+     */
+    public static void download(String baseUrl, String endpoint) throws IOException {
+        FETCHER.fetchAll(baseUrl, endpoint);
+    }
+
+    /**
+     * Downloads relevant files from the server for system operation, all at the same time.
+     *
+     * @param args Arguments used for specifying the server URL and the date for orders.
+     */
+    public static void downloadAll(String[] args) {
+        fetchOrExit(args[1], "restaurants", "centralArea", "noFlyZones", "orders/" + args[0]);
+    }
+
+    /**
+     * Downloads the static files shared by every day: restaurants, central area and no-fly zones.
+     *
+     * @param baseUrl Base address of the server.
+     */
+    public static void downloadStatic(String baseUrl) {
+        fetchOrExit(baseUrl, "restaurants", "centralArea", "noFlyZones");
+    }
+
+    /**
+     * Fetches resources from the server, exiting if any of them cannot be fetched.
+     *
+     * @param baseUrl   Base address of the server.
+     * @param resources Paths of the resources relative to the base address.
+     */
+    private static void fetchOrExit(String baseUrl, String... resources) {
         try {
-            fullUrl = new URL(baseUrl + endpoint);
-            // Download the file
-            try (BufferedInputStream in = new BufferedInputStream(fullUrl.openStream());
-                 FileOutputStream fileOutputStream = new FileOutputStream(endpoint)) {
-                byte[] dataBuffer = new byte[4096];
-                int bytesRead;
-                while ((bytesRead = in.read(dataBuffer, 0, 1024)) != -1) {
-                    fileOutputStream.write(dataBuffer, 0, bytesRead);
-                }
-                System.out.println("File was downloaded: " + endpoint);
-            }
+            FETCHER.fetchAll(baseUrl, resources);
         } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, "Error downloading file: " + baseUrl + endpoint + ". Check arguments.");
+            LOGGER.log(Level.SEVERE, "Error downloading files from " + baseUrl + ". " + e.getMessage());
             System.exit(1);
         }
     }
 
     /**
-     * Downloads relevant files from the server for system operation.
+     * Fetches and parses the static data, exiting if it cannot be fetched, or in memory mode parsed.
      *
-     * @param args Arguments used for specifying the server URL and the date for orders.
+     * @param baseUrl Base address of the server.
+     * @return The static data.
+     * @throws IOException If downloaded files cannot be parsed.
      */
-    public static void downloadAll(String[] args) {
-        Download.main(new String[]{args[1], "restaurants"});
-        Download.main(new String[]{args[1], "centralArea"});
-        Download.main(new String[]{args[1], "noFlyZones"});
-        Download.main(new String[]{args[1] + "/orders/", args[0]});
+    public static StaticData loadStatic(String baseUrl) throws IOException {
+        JsonParser jsonParser = new JsonParser();
+        if (!inMemory) {
+            downloadStatic(baseUrl);
+            return parseStatic(jsonParser);
+        }
+
+        CompletableFuture<StaticData> data = fetchStatic(baseUrl, jsonParser);
+        awaitOrExit(baseUrl, List.of(data));
+        return data.join();
+    }
+
+    /**
+     * Fetches and parses the static data and the orders of one day at the same time, exiting if they cannot be
+     * fetched, or in memory mode parsed.
+     *
+     * @param baseUrl Base address of the server.
+     * @param date    Day of the orders, as YYYY-MM-DD.
+     * In file mode the orders file is validated as it is streamed; in memory mode the orders arrive alongside the
+     * restaurants they are validated against, so they are parsed first and validated once both are in.
+     *
+     * @return The static data and the validated orders.
+     * @throws IOException If downloaded files cannot be parsed.
+     */
+    public static DayData loadDay(String baseUrl, String date) throws IOException {
+        JsonParser jsonParser = new JsonParser();
+        if (!inMemory) {
+            downloadAll(new String[]{date, baseUrl});
+            StaticData data = parseStatic(jsonParser);
+            return new DayData(data, OrderValidator.validateDailyOrders(date, data.restaurants()));
+        }
+
+        CompletableFuture<StaticData> data = fetchStatic(baseUrl, jsonParser);
+        CompletableFuture<Order[]> orders = FETCHER.fetchParsed(resource(baseUrl, "orders/" + date), payloadFile(date), jsonParser::parseOrders);
+        awaitOrExit(baseUrl, List.of(data, orders));
+        return new DayData(data.join(), OrderValidator.validateDailyOrders(orders.join(), data.join().restaurants()));
+    }
+
+    /**
+     * Fetches the orders of one day and validates each one as it is streamed, leaving failure handling to the caller.
+     *
+     * @param baseUrl     Base address of the server.
+     * @param date        Day of the orders, as YYYY-MM-DD.
+     * @param restaurants The restaurants to validate against.
+     * @return Validated orders of the day.
+     * @throws IOException If the orders cannot be fetched or parsed.
+     */
+    public static Order[] loadOrders(String baseUrl, String date, Restaurant[] restaurants) throws IOException {
+        if (!inMemory) {
+            download(baseUrl, "orders/" + date);
+            return OrderValidator.validateDailyOrders(date, restaurants);
+        }
+
+        CompletableFuture<Order[]> orders = FETCHER.fetchParsed(resource(baseUrl, "orders/" + date), payloadFile(date),
+                in -> OrderValidator.validateDailyOrders(in, restaurants));
+        HttpFetcher.awaitAll(List.of(orders));
+        return orders.join();
+    }
+
+    private static StaticData parseStatic(JsonParser jsonParser) throws IOException {
+        return new StaticData(jsonParser.parseRestaurant("restaurants"), jsonParser.parseCentralArea("centralArea"),
+                jsonParser.parseNoFlyZones("noFlyZones"));
+    }
+
+    //Requests the three static files at the same time and combines them once all are parsed
+    private static CompletableFuture<StaticData> fetchStatic(String baseUrl, JsonParser jsonParser) {
+        CompletableFuture<Restaurant[]> restaurants = FETCHER.fetchParsed(resource(baseUrl, "restaurants"), payloadFile("restaurants"), jsonParser::parseRestaurant);
+        CompletableFuture<NamedRegion> centralArea = FETCHER.fetchParsed(resource(baseUrl, "centralArea"), payloadFile("centralArea"), jsonParser::parseCentralArea);
+        CompletableFuture<NamedRegion[]> noFlyZones = FETCHER.fetchParsed(resource(baseUrl, "noFlyZones"), payloadFile("noFlyZones"), jsonParser::parseNoFlyZones);
+        return CompletableFuture.allOf(restaurants, centralArea, noFlyZones)
+                .thenApply(ignored -> new StaticData(restaurants.join(), centralArea.join(), noFlyZones.join()));
+    }
+
+    private static URI resource(String baseUrl, String resource) {
+        return URI.create((baseUrl.endsWith("/") ? baseUrl : baseUrl + "/") + resource);
+    }
+
+    private static String payloadFile(String fileName) {
+        return persistPayloads ? fileName : null;
+    }
+
+    private static void awaitOrExit(String baseUrl, List<? extends CompletableFuture<?>> futures) {
+        try {
+            HttpFetcher.awaitAll(futures);
+        } catch (IOException e) {
+            LOGGER.log(Level.SEVERE, "Error downloading files from " + baseUrl + ". " + e.getMessage());
+            System.exit(1);
+        }
     }
-}
\ No newline at end of file
+}
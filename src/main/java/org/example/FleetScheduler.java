@@ -0,0 +1,156 @@
+package org.example;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Assigns the flights of a day to a fleet of drones so the busiest drone flies as few moves as possible.
+ * Flights are placed longest first on the least loaded drone, then moved or swapped off the busiest drone
+ * while that lowers its load. Every flight starts and ends at Appleton Tower, where the drone's battery is
+ * recharged, so the battery limit caps the moves of each flight rather than of a drone's day. Flights longer than
+ * one charge are left unassigned and their orders stay undelivered, however many drones there are.
+ */
+public class FleetScheduler {
+
+    //Most moves one drone can fly on a single battery charge
+    public static final int DEFAULT_BATTERY_MOVES = 2000;
+
+    private final int drones;
+    private final int batteryMoves;
+
+    /**
+     * Flights given to each drone.
+     *
+     * @param droneFlights Indices of the flights of each drone, in their original sequence.
+     * @param droneMoves   Moves flown by each drone, including its closing hover.
+     * @param unassigned   Indices of the flights too long to fly on one battery charge.
+     */
+    public record Schedule(List<List<Integer>> droneFlights, int[] droneMoves, List<Integer> unassigned) {
+
+        /**
+         * @return Moves flown by the busiest drone.
+         */
+        public int makespan() {
+            return Arrays.stream(droneMoves).max().orElse(0);
+        }
+    }
+
+    /**
+     * Constructs a scheduler for a fleet of identical drones.
+     *
+     * @param drones       Number of drones.
+     * @param batteryMoves Most moves a drone may fly on one battery charge.
+     */
+    public FleetScheduler(int drones, int batteryMoves) {
+        if (drones < 1) {
+            throw new IllegalArgumentException("Fleet must have at least one drone");
+        }
+        if (batteryMoves < 1) {
+            throw new IllegalArgumentException("Battery move limit must be positive");
+        }
+        this.drones = drones;
+        this.batteryMoves = batteryMoves;
+    }
+
+    /**
+     * Assigns flights to drones.
+     *
+     * @param flightMoves Number of moves of each flight.
+     * @return The schedule.
+     */
+    public Schedule assign(int[] flightMoves) {
+        List<List<Integer>> droneFlights = new ArrayList<>(drones);
+        for (int d = 0; d < drones; d++) droneFlights.add(new ArrayList<>());
+        int[] load = new int[drones];
+
+        //Longest flights first, ties kept in their original sequence
+        List<Integer> byLength = new ArrayList<>();
+        for (int i = 0; i < flightMoves.length; i++) byLength.add(i);
+        byLength.sort(Comparator.comparingInt((Integer i) -> flightMoves[i]).reversed());
+
+        List<Integer> unassigned = new ArrayList<>();
+        for (int flight : byLength) {
+            if (fits(flightMoves[flight])) {
+                place(flight, flightMoves, droneFlights, load);
+            } else {
+                unassigned.add(flight);
+            }
+        }
+        Collections.sort(unassigned);
+
+        while (improve(flightMoves, droneFlights, load)) {
+            //Keep moving flights off the busiest drone until it cannot get any lighter
+        }
+
+        int[] droneMoves = new int[drones];
+        for (int d = 0; d < drones; d++) {
+            Collections.sort(droneFlights.get(d));
+            droneMoves[d] = droneFlights.get(d).isEmpty() ? 0 : load[d] + 1;
+        }
+        return new Schedule(droneFlights, droneMoves, unassigned);
+    }
+
+    /**
+     * Places a flight on the least loaded drone.
+     */
+    private void place(int flight, int[] flightMoves, List<List<Integer>> droneFlights, int[] load) {
+        int best = 0;
+        for (int d = 1; d < drones; d++) {
+            if (load[d] < load[best]) best = d;
+        }
+
+        droneFlights.get(best).add(flight);
+        load[best] += flightMoves[flight];
+    }
+
+    /**
+     * Applies the first move or swap that lowers the load of the busiest drone without making another drone
+     * as busy. Every change strictly reduces the sum of squared loads, so repeated calls terminate.
+     *
+     * @return true if a flight was moved.
+     */
+    private boolean improve(int[] flightMoves, List<List<Integer>> droneFlights, int[] load) {
+        int busiest = 0;
+        for (int d = 1; d < drones; d++) {
+            if (load[d] > load[busiest]) busiest = d;
+        }
+
+        List<Integer> flights = droneFlights.get(busiest);
+        for (int f = 0; f < flights.size(); f++) {
+            int moves = flightMoves[flights.get(f)];
+            for (int d = 0; d < drones; d++) {
+                if (d == busiest) continue;
+
+                //Move the flight to the other drone
+                if (load[d] + moves < load[busiest]) {
+                    droneFlights.get(d).add(flights.remove(f));
+                    load[d] += moves;
+                    load[busiest] -= moves;
+                    return true;
+                }
+
+                //Swap it for a shorter flight of the other drone
+                List<Integer> others = droneFlights.get(d);
+                for (int g = 0; g < others.size(); g++) {
+                    int delta = moves - flightMoves[others.get(g)];
+                    if (delta > 0 && load[d] + delta < load[busiest]) {
+                        int other = others.set(g, flights.get(f));
+                        flights.set(f, other);
+                        load[d] += delta;
+                        load[busiest] -= delta;
+                        return true;
+                    }
+                }
+            }
+        }
+        return false;
+    }
+
+    //A flight leaves Appleton Tower on a full charge and must be back before it runs out
+    private boolean fits(int flightMoves) {
+        return flightMoves <= batteryMoves;
+    }
+}
@@ -5,7 +5,14 @@ import uk.ac.ed.inf.ilp.constant.OrderStatus;
 import uk.ac.ed.inf.ilp.constant.SystemConstants;
 import uk.ac.ed.inf.ilp.data.*;
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.DoubleAccumulator;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -19,45 +26,388 @@ public class Flightpath {
     private static final LngLat APPLETON = new LngLat(-3.186874, 55.944494);
     private static final LngLatHandler lngLatHandler = new LngLatHandler();
 
+    //Lower value than the system constant to address a bug
+    static final double GOAL_TOLERANCE = 0.00014999;
+
+    //Lattice cells per move distance, positions closer than a cell are treated as the same search state
+    private static final double LATTICE_RESOLUTION = 4;
+    private static final double LATTICE_CELL = SystemConstants.DRONE_MOVE_DISTANCE / LATTICE_RESOLUTION;
+
+    private static SearchMode searchMode = SearchMode.CLASSIC;
+    //Whether the lattice fallback for constrained legs of a search mode that cannot track the central area was reported
+    private static volatile boolean constraintFallbackLogged = false;
+
+    /**
+     * Sets the search algorithm used for all subsequent path calculations.
+     * @param mode The search mode to use.
+     */
+    public static void setSearchMode(SearchMode mode) {
+        searchMode = mode;
+    }
+
+    public static SearchMode getSearchMode() { return searchMode; }
+
+    private static OpenListType openListType = OpenListType.D_ARY_HEAP;
+
+    /**
+     * Sets the open list implementation used by the lattice search.
+     * @param type The open list type to use.
+     */
+    public static void setOpenListType(OpenListType type) {
+        openListType = type;
+    }
+
+    public static OpenListType getOpenListType() { return openListType; }
+
+    private static RouteCache routeCache;
+
+    /**
+     * Sets the cache consulted before each sub-path search. No cache is used by default.
+     * Legs found by the anytime search depend on the wall clock and are never cached.
+     * @param cache The route cache to use, or null to always search.
+     */
+    public static void setRouteCache(RouteCache cache) {
+        routeCache = cache;
+    }
+
+    public static RouteCache getRouteCache() { return routeCache; }
+
+    private static RouteAtlas routeAtlas;
+    //Atlas serving legs for the day being planned, null when none matches the day's inputs
+    private static volatile RouteAtlas activeAtlas;
+
+    /**
+     * Sets the precomputed route atlas consulted before the route cache.
+     * The atlas is only used for days planned from the same restaurants, no-fly zones and central area it was built from.
+     * @param atlas The route atlas to use, or null to always search.
+     */
+    public static void setRouteAtlas(RouteAtlas atlas) {
+        routeAtlas = atlas;
+        activeAtlas = null;
+    }
+
+    public static RouteAtlas getRouteAtlas() { return routeAtlas; }
+
+    private static double heuristicWeight = 1.0;
+
+    /**
+     * Sets the weight applied to the heuristic by the lattice search.
+     * Weights above 1 find paths faster at up to that factor above the shortest lattice path,
+     * and give the initial weight of the anytime search.
+     * @param weight Heuristic weight, at least 1.
+     */
+    public static void setHeuristicWeight(double weight) {
+        if (!(weight >= 1.0)) {
+            throw new IllegalArgumentException("Heuristic weight must be at least 1");
+        }
+        heuristicWeight = weight;
+    }
+
+    public static double getHeuristicWeight() { return heuristicWeight; }
+
+    private static HeuristicType heuristicType = HeuristicType.EUCLIDEAN;
+    private static volatile LandmarkHeuristic landmarkHeuristic;
+    //Searches stop within GOAL_TOLERANCE of the goal, so the distance to the goal point is reduced by it to stay a lower bound
+    private static final Heuristic euclideanHeuristic = (fromLng, fromLat, toLng, toLat) ->
+            Math.max(0, lngLatHandler.distanceTo(new LngLat(fromLng, fromLat), new LngLat(toLng, toLat)) - GOAL_TOLERANCE);
+    private static final Heuristic latticeHeuristic = new LatticeDistanceHeuristic();
+
+    /**
+     * Sets the heuristic used by the lattice search.
+     * Landmark tables are built for each day's zones and restaurants before planning starts.
+     * @param type The heuristic to use.
+     */
+    public static void setHeuristicType(HeuristicType type) {
+        heuristicType = type;
+    }
+
+    public static HeuristicType getHeuristicType() { return heuristicType; }
+
+    /**
+     * Returns the heuristic for the lattice search.
+     * The landmark heuristic falls back to the lattice distance until tables have been built for the given zones.
+     * @param noFlyZones Array of no-fly zones being planned against.
+     * @return The heuristic to use.
+     */
+    static Heuristic heuristicFor(NamedRegion[] noFlyZones) {
+        if (heuristicType == HeuristicType.LANDMARK) {
+            LandmarkHeuristic landmarks = landmarkHeuristic;
+            if (landmarks != null && landmarks.noFlyZones() == noFlyZones) return landmarks;
+            return latticeHeuristic;
+        }
+        return heuristicType == HeuristicType.LATTICE ? latticeHeuristic : euclideanHeuristic;
+    }
+
+    /**
+     * Builds landmark tables from Appleton Tower and each restaurant, only when the zones or restaurants change.
+     * @param noFlyZones Array of no-fly zones.
+     * @param restaurants Array of available restaurants.
+     */
+    static void prepareLandmarks(NamedRegion[] noFlyZones, Restaurant[] restaurants) {
+        LngLat[] positions = new LngLat[restaurants.length + 1];
+        positions[0] = APPLETON;
+        for (int i = 0; i < restaurants.length; i++) {
+            positions[i + 1] = restaurants[i].location();
+        }
+
+        LandmarkHeuristic landmarks = landmarkHeuristic;
+        if (landmarks == null || landmarks.noFlyZones() != noFlyZones || !Arrays.equals(landmarks.landmarks(), positions)) {
+            landmarkHeuristic = new LandmarkHeuristic(positions, noFlyZones);
+        }
+    }
+
+    private static long legBudgetMillis = 50;
+    private static long legBudgetExpansions = 0;
+
+    /**
+     * Sets the allowance each leg gets in the anytime search.
+     * @param millis Wall-clock allowance per leg in milliseconds, or 0 for no time limit.
+     * @param expansions Node expansion allowance per leg, or 0 for no expansion limit.
+     */
+    public static void setLegBudget(long millis, long expansions) {
+        if (millis < 0 || expansions < 0) {
+            throw new IllegalArgumentException("Leg budget must not be negative");
+        }
+        legBudgetMillis = millis;
+        legBudgetExpansions = expansions;
+    }
+
+    public static long getLegBudgetMillis() { return legBudgetMillis; }
+
+    public static long getLegBudgetExpansions() { return legBudgetExpansions; }
+
+    //Largest suboptimality bound of the anytime legs searched since the start of the current day
+    private static final DoubleAccumulator worstBound = new DoubleAccumulator(Math::max, 1.0);
+
+    private static int planningThreads = 1;
+
+    //Most moves of a multi-stop flight, the drone's battery allowance
+    public static final int DEFAULT_TOUR_MOVE_BUDGET = 2000;
+
+    private static int tourCapacity = 0;
+    private static int tourMoveBudget = DEFAULT_TOUR_MOVE_BUDGET;
+
+    /**
+     * Sets whether compatible orders are flown together in multi-stop flights planned by TourPlanner.
+     * @param capacity Most pizzas carried on one flight, or 0 to fly every order on its own.
+     * @param moveBudget Most moves a multi-stop flight may take.
+     */
+    public static void setTourPlanning(int capacity, int moveBudget) {
+        if (capacity != 0 && capacity < SystemConstants.MAX_PIZZAS_PER_ORDER) {
+            throw new IllegalArgumentException("Tour capacity must hold at least one full order");
+        }
+        if (moveBudget < 1) {
+            throw new IllegalArgumentException("Tour move budget must be positive");
+        }
+        tourCapacity = capacity;
+        tourMoveBudget = moveBudget;
+    }
+
+    public static int getTourCapacity() { return tourCapacity; }
+
+    public static int getTourMoveBudget() { return tourMoveBudget; }
+
+    private static int fleetSize = 1;
+    private static int batteryMoves = FleetScheduler.DEFAULT_BATTERY_MOVES;
+
+    /**
+     * Sets the number of drones the day's flights are shared between by FleetScheduler.
+     * A single drone flies every order back to back, as before. Drones are recharged at Appleton Tower between flights,
+     * so with any number of drones a flight longer than the battery limit is not flown and its orders stay undelivered.
+     * @param drones Number of drones, each writing its own flightpath and GeoJSON file when there is more than one.
+     * @param moveLimit Most moves a drone may fly on one battery charge, that is in one flight.
+     */
+    public static void setFleet(int drones, int moveLimit) {
+        if (drones < 1) {
+            throw new IllegalArgumentException("Fleet must have at least one drone");
+        }
+        if (moveLimit < 1) {
+            throw new IllegalArgumentException("Battery move limit must be positive");
+        }
+        fleetSize = drones;
+        batteryMoves = moveLimit;
+    }
+
+    public static int getFleetSize() { return fleetSize; }
+
+    public static int getBatteryMoves() { return batteryMoves; }
+
+    private static boolean binaryFlightpath = false;
+    private static boolean binaryFlightpathGzip = false;
+
+    /**
+     * Sets whether each flightpath file is also written in the compact BinaryFlightpath form.
+     * @param enabled true to write a binary flightpath next to the JSON one.
+     * @param gzip true to gzip-compress the binary file.
+     */
+    public static void setBinaryFlightpath(boolean enabled, boolean gzip) {
+        binaryFlightpath = enabled;
+        binaryFlightpathGzip = gzip;
+    }
+
+    public static boolean isBinaryFlightpath() { return binaryFlightpath; }
+
+    public static boolean isBinaryFlightpathGzip() { return binaryFlightpathGzip; }
+
+    private static OutputStage outputStage = new OutputStage(OutputStage.DEFAULT_THREADS, OutputStage.SyncPolicy.NONE, true);
+    private static boolean asyncOutput = false;
+
+    /**
+     * Sets the output stage a day's files are written through.
+     * The previous stage still writes the files already queued on it, then stops.
+     * @param stage Output stage to use.
+     */
+    public static void setOutputStage(OutputStage stage) {
+        OutputStage previous = outputStage;
+        outputStage = stage;
+        previous.shutdown();
+    }
+
+    public static OutputStage getOutputStage() { return outputStage; }
+
+    /**
+     * Sets whether getFullDayPath returns as soon as a day's files are queued instead of once they are written.
+     * Queued files are finished before the next day's are queued, or by awaitOutput.
+     * @param enabled true to write files while the next day is planned.
+     */
+    public static void setAsyncOutput(boolean enabled) {
+        asyncOutput = enabled;
+    }
+
+    public static boolean isAsyncOutput() { return asyncOutput; }
+
+    /**
+     * Waits for every output file queued so far.
+     * @throws IOException If a file could not be written.
+     */
+    public static void awaitOutput() throws IOException {
+        outputStage.awaitAll();
+    }
+
+    private static boolean pathShortening = false;
+
+    /**
+     * Sets whether each order path is shortened by PathShortener after planning.
+     * Multi-stop flights planned by TourPlanner are not shortened.
+     * @param enabled true to shorten order paths.
+     */
+    public static void setPathShortening(boolean enabled) {
+        pathShortening = enabled;
+    }
+
+    public static boolean isPathShortening() { return pathShortening; }
+
+    //Most recently built no-fly zone index, rebuilt when a different zone array is planned against
+    private static volatile NoFlyZoneIndex zoneIndex;
+    private static volatile CentralAreaIndex centralAreaIndex;
+    private static volatile VisibilityGraphPlanner visibilityPlanner;
+    //Directory the no-fly zone raster is cached in between runs, null to build it in memory every run
+    private static volatile Path rasterCacheDirectory;
+
+    /**
+     * Sets the directory the no-fly zone occupancy raster is cached in between runs.
+     * By default no cache is used and the raster is rebuilt in memory for each day.
+     * @param directory Cache directory, or null to disable the disk cache.
+     */
+    public static void setRasterCacheDirectory(Path directory) {
+        rasterCacheDirectory = directory;
+        zoneIndex = null;
+    }
+
+    public static Path getRasterCacheDirectory() { return rasterCacheDirectory; }
+
+    /**
+     * Sets the number of threads used to plan order paths within a day.
+     * Paths are always stitched in the original order sequence, so output does not depend on this.
+     * @param threads Number of planning threads, 1 for sequential planning.
+     */
+    public static void setPlanningThreads(int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Planning threads must be at least 1");
+        }
+        planningThreads = threads;
+    }
+
+    public static int getPlanningThreads() { return planningThreads; }
+
     /**
      * Generates the neighboring nodes for a given current node.
      * @param current Current node.
      * @param end Destination node.
      * @param noFlyZones Array of no-fly zones.
      * @param orderNo Order number for identification.
+     * @param buffer Reusable buffer receiving the legal moves.
      * @return List of neighbor nodes.
      */
-    private static List<Node> getNeighbors(Node current, Node end, NamedRegion[] noFlyZones, String orderNo) {
-        List<Node> neighbors = new ArrayList<>();
-        double[] angles = { 0, 22.5, 45, 67.5, 90, 112.5, 135, 157.5, 180, 202.5, 225, 247.5, 270, 292.5, 315, 337.5 };
-
-        for (double angle : angles) {
-            Node neighbor = new Node(lngLatHandler.nextPosition(current.lngLat, angle), angle, orderNo);
-            double tentativeG = current.startCost + SystemConstants.DRONE_MOVE_DISTANCE;
+    private static List<Node> getNeighbors(Node current, Node end, NamedRegion[] noFlyZones, String orderNo, NeighborBuffer buffer) {
+        buffer.expand(current.lng(), current.lat(), noFlyZones);
+        List<Node> neighbors = new ArrayList<>(buffer.size());
+        double tentativeG = current.startCost + SystemConstants.DRONE_MOVE_DISTANCE;
 
-            if (isValidPosition(neighbor, current, noFlyZones)) {
-                neighbor.startCost = tentativeG;
-                neighbor.endCost = lngLatHandler.distanceTo(neighbor.lngLat, end.lngLat);
-                neighbors.add(neighbor);
-            }
+        for (int i = 0; i < buffer.size(); i++) {
+            Node neighbor = new Node(new LngLat(buffer.lng(i), buffer.lat(i)), buffer.angle(i), orderNo);
+            neighbor.startCost = tentativeG;
+            neighbor.endCost = lngLatHandler.distanceTo(neighbor.lngLat, end.lngLat);
+            neighbors.add(neighbor);
         }
 
         return neighbors;
     }
 
     /**
-     * Validates if the given position is valid considering no-fly zones and the current position.
-     * @param position Position to validate.
-     * @param current Current node.
+     * Validates a move between two positions given by primitive coordinates.
+     * The destination must lie outside every no-fly zone and the move must not cross any zone edge.
+     * @param toLng Longitude of the destination.
+     * @param toLat Latitude of the destination.
+     * @param fromLng Longitude of the origin.
+     * @param fromLat Latitude of the origin.
      * @param noFlyZones Array of no-fly zones.
      * @return true if valid, false otherwise.
      */
-    private static boolean isValidPosition(Node position, Node current, NamedRegion[] noFlyZones) {
-        for (NamedRegion zone : noFlyZones) {
-            if (lngLatHandler.isInRegion(position.lngLat, zone)) return false;
-            if (PointInAreaHandler.doesLineIntersectPolygon(position.lngLat, current.lngLat, zone.vertices())) return false;
+    static boolean isValidMove(double toLng, double toLat, double fromLng, double fromLat, NamedRegion[] noFlyZones) {
+        return zoneIndexFor(noFlyZones).isValidMove(toLng, toLat, fromLng, fromLat);
+    }
+
+    /**
+     * Returns the spatial index for the given no-fly zones, building it only when the zone array changes.
+     * @param noFlyZones Array of no-fly zones.
+     * @return Spatial index over the zones.
+     */
+    static NoFlyZoneIndex zoneIndexFor(NamedRegion[] noFlyZones) {
+        NoFlyZoneIndex index = zoneIndex;
+        if (index == null || index.zones() != noFlyZones) {
+            index = new NoFlyZoneIndex(noFlyZones, rasterCacheDirectory);
+            zoneIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the raster of the given central area, building it only when the area changes.
+     * @param centralArea Central area of operation.
+     * @return Raster answering whether positions lie inside the area.
+     */
+    static CentralAreaIndex centralAreaIndexFor(NamedRegion centralArea) {
+        CentralAreaIndex index = centralAreaIndex;
+        if (index == null || index.area() != centralArea) {
+            index = new CentralAreaIndex(centralArea);
+            centralAreaIndex = index;
         }
-        return true;
+        return index;
+    }
+
+    /**
+     * Returns the visibility graph planner for the given no-fly zones, building it only when the zone array changes.
+     * @param noFlyZones Array of no-fly zones.
+     * @return Visibility graph planner over the zones.
+     */
+    static VisibilityGraphPlanner visibilityPlannerFor(NamedRegion[] noFlyZones) {
+        VisibilityGraphPlanner planner = visibilityPlanner;
+        if (planner == null || planner.noFlyZones() != noFlyZones) {
+            planner = new VisibilityGraphPlanner(noFlyZones);
+            visibilityPlanner = planner;
+        }
+        return planner;
     }
 
     /**
@@ -65,6 +415,7 @@ public class Flightpath {
      * @param order The order to find the restaurant for.
      * @param restaurants Array of available restaurants.
      * @return Location of the restaurant.
+     * @throws IllegalStateException If no restaurant serves the order's first pizza.
      */
     private static LngLat getOrderRestaurant(Order order, Restaurant[] restaurants) {
         for (Restaurant restaurant : restaurants) {
@@ -73,9 +424,7 @@ public class Flightpath {
             }
         }
 
-        LOGGER.log(Level.SEVERE, "Error: No restaurant found for order: " + order.getOrderNo());
-        System.exit(1);
-        return null;
+        throw new IllegalStateException("No restaurant found for order: " + order.getOrderNo());
     }
 
     /**
@@ -87,9 +436,132 @@ public class Flightpath {
      * @param endLat Latitude of end position.
      * @param noFlyZones Array of no-fly zones.
      * @param orderNo Order number for identification.
+     * @param legMetrics List the search effort of this leg is appended to.
+     * @return List of nodes forming the path.
+     */
+    private static List<Node> findPath(double startLng, double startLat, double endLng, double endLat, NamedRegion[] noFlyZones, String orderNo,
+                                       List<SearchMetrics> legMetrics) {
+        return findPath(startLng, startLat, endLng, endLat, noFlyZones, null, orderNo, legMetrics);
+    }
+
+    /**
+     * Finds a path from start to end position avoiding no-fly zones, optionally never leaving the central area once inside.
+     * Constrained legs need a search that tracks whether the central area has been entered: the lattice and anytime
+     * searches do, with their usual weight and budget. The visibility graph and bidirectional searches cannot, so their
+     * constrained legs fall back to the lattice search, and the route cache records them as lattice legs.
+     * @param startLng Longitude of start position.
+     * @param startLat Latitude of start position.
+     * @param endLng Longitude of end position.
+     * @param endLat Latitude of end position.
+     * @param noFlyZones Array of no-fly zones.
+     * @param centralArea Area the path may not leave once inside, or null for no constraint.
+     * @param orderNo Order number for identification.
+     * @param legMetrics List the search effort of this leg is appended to.
+     * @return List of nodes forming the path.
+     */
+    static List<Node> findPath(double startLng, double startLat, double endLng, double endLat, NamedRegion[] noFlyZones, NamedRegion centralArea,
+                                       String orderNo, List<SearchMetrics> legMetrics) {
+        SearchMetrics metrics = SearchMetrics.startLeg();
+        SearchMode mode = centralArea == null || searchMode.tracksCentralArea() ? searchMode : SearchMode.LATTICE;
+        if (mode != searchMode && !constraintFallbackLogged) {
+            constraintFallbackLogged = true;
+            LOGGER.log(Level.WARNING, searchMode + " search cannot keep a leg inside the central area, so those legs use the lattice search.");
+        }
+        Supplier<List<Node>> search = () -> searchPath(mode, startLng, startLat, endLng, endLat, noFlyZones, centralArea, orderNo);
+        try {
+            RouteAtlas atlas = activeAtlas;
+            RouteCache cache = mode.isRepeatable() ? routeCache : null;
+            if (cache == null && atlas == null) {
+                return search.get();
+            }
+
+            //Fingerprints are computed once per zone array and central area, alongside their indexes
+            long centralAreaFingerprint = centralArea == null ? 0 : centralAreaIndexFor(centralArea).fingerprint();
+            RouteCache.RouteKey key = RouteCache.key(startLng, startLat, endLng, endLat, zoneIndexFor(noFlyZones).fingerprint(), centralAreaFingerprint,
+                    mode, heuristicWeight, heuristicType, openListType);
+            if (atlas != null) {
+                List<Node> leg = atlas.lookup(key, orderNo);
+                if (leg != null) {
+                    metrics.cachedLegs = 1;
+                    return leg;
+                }
+            }
+            if (cache == null) {
+                return search.get();
+            }
+
+            boolean[] searched = new boolean[1];
+            List<Node> path = cache.getOrCompute(key, orderNo, () -> {
+                searched[0] = true;
+                return search.get();
+            });
+            if (!searched[0]) metrics.cachedLegs = 1;
+            return path;
+        } finally {
+            metrics.stopLeg();
+            legMetrics.add(metrics);
+        }
+    }
+
+    /**
+     * Runs the configured search algorithm without consulting the route cache.
+     * @param startLng Longitude of start position.
+     * @param startLat Latitude of start position.
+     * @param endLng Longitude of end position.
+     * @param endLat Latitude of end position.
+     * @param noFlyZones Array of no-fly zones.
+     * @param orderNo Order number for identification.
+     * @return List of nodes forming the path.
+     */
+    static List<Node> searchPath(double startLng, double startLat, double endLng, double endLat, NamedRegion[] noFlyZones, String orderNo) {
+        return searchPath(searchMode, startLng, startLat, endLng, endLat, noFlyZones, null, orderNo);
+    }
+
+    /**
+     * Runs the given search algorithm without consulting the route cache.
+     * @param mode Search algorithm; it must track the central area if one is given.
+     * @param startLng Longitude of start position.
+     * @param startLat Latitude of start position.
+     * @param endLng Longitude of end position.
+     * @param endLat Latitude of end position.
+     * @param noFlyZones Array of no-fly zones.
+     * @param centralArea Area the path may not leave once inside, or null for no constraint.
+     * @param orderNo Order number for identification.
      * @return List of nodes forming the path.
      */
-    private static List<Node> findPath(double startLng, double startLat, double endLng, double endLat, NamedRegion[] noFlyZones, String orderNo) {
+    private static List<Node> searchPath(SearchMode mode, double startLng, double startLat, double endLng, double endLat, NamedRegion[] noFlyZones,
+                                         NamedRegion centralArea, String orderNo) {
+        if (mode == SearchMode.LATTICE) {
+            return findPathLattice(startLng, startLat, endLng, endLat, noFlyZones, orderNo, heuristicWeight, Double.MAX_VALUE, null, centralArea);
+        }
+        if (mode == SearchMode.ANYTIME) {
+            double initialWeight = heuristicWeight > 1.0 ? heuristicWeight : AnytimeSearch.DEFAULT_INITIAL_WEIGHT;
+            AnytimeSearch.Result result = AnytimeSearch.findPath(startLng, startLat, endLng, endLat, noFlyZones, orderNo,
+                    initialWeight, new SearchBudget(legBudgetMillis, legBudgetExpansions), centralArea);
+            if (!result.path().isEmpty()) worstBound.accumulate(result.bound());
+            return result.path();
+        }
+        if (mode == SearchMode.BIDIRECTIONAL) {
+            return BidirectionalSearch.findPath(startLng, startLat, endLng, endLat, noFlyZones, orderNo);
+        }
+        if (mode == SearchMode.VISIBILITY_GRAPH) {
+            return visibilityPlannerFor(noFlyZones).findPath(startLng, startLat, endLng, endLat, orderNo);
+        }
+        return findPathClassic(startLng, startLat, endLng, endLat, noFlyZones, orderNo);
+    }
+
+    /**
+     * Finds a path from start to end position avoiding no-fly zones.
+     * Open and closed sets are keyed on full Node equality.
+     * @param startLng Longitude of start position.
+     * @param startLat Latitude of start position.
+     * @param endLng Longitude of end position.
+     * @param endLat Latitude of end position.
+     * @param noFlyZones Array of no-fly zones.
+     * @param orderNo Order number for identification.
+     * @return List of nodes forming the path.
+     */
+    private static List<Node> findPathClassic(double startLng, double startLat, double endLng, double endLat, NamedRegion[] noFlyZones, String orderNo) {
         //First and last nodes should hover (drop-off and collection respectively)
         Node start = new Node(new LngLat(startLng, startLat), 999, orderNo);
         Node end = new Node(new LngLat(endLng, endLat), 999, orderNo);
@@ -100,6 +572,8 @@ public class Flightpath {
         //Hashsets used to provide O(1) time lookup
         Set<Node> closedSet = new HashSet<>();
         Set<Node> openSetLookup = new HashSet<>();
+        NeighborBuffer buffer = new NeighborBuffer();
+        SearchMetrics metrics = SearchMetrics.current();
 
         //Set start node initial costs
         start.startCost = 0;
@@ -108,21 +582,26 @@ public class Flightpath {
         openSetLookup.add(start);
 
         while (!openSet.isEmpty()) {
+            if (metrics != null) metrics.recordOpenSize(openSet.size());
             Node current = openSet.poll();
             openSetLookup.remove(current);
 
-            //Lower value than the system constant to address a bug
-            if (lngLatHandler.distanceTo(current.lngLat, end.lngLat) < 0.00014999) {
+            if (lngLatHandler.distanceTo(current.lngLat, end.lngLat) < GOAL_TOLERANCE) {
                 while (current != null) {
                     path.add(current);
                     current = current.parent;
                 }
                 Collections.reverse(path);
+                if (metrics != null) metrics.closedSize += closedSet.size();
                 return path;
             }
 
             closedSet.add(current);
-            List<Node> neighbors = getNeighbors(current, end,  noFlyZones, orderNo);
+            List<Node> neighbors = getNeighbors(current, end,  noFlyZones, orderNo, buffer);
+            if (metrics != null) {
+                metrics.nodesExpanded++;
+                metrics.nodesGenerated += neighbors.size();
+            }
 
             for (Node neighbor : neighbors) {
                 if (closedSet.contains(neighbor)) continue;
@@ -141,36 +620,238 @@ public class Flightpath {
                 }
             }
         }
+        if (metrics != null) metrics.closedSize += closedSet.size();
+        return path;  // no path found
+    }
+
+    /**
+     * Packs the lattice cell containing a position into a single long key.
+     * Cells are measured from the search origin so keys stay small and exact.
+     * @param lngLat Position to key.
+     * @param origin Origin of the search.
+     * @return Packed lattice cell key.
+     */
+    static long latticeKey(LngLat lngLat, LngLat origin) {
+        return latticeKey(lngLat.lng(), lngLat.lat(), origin.lng(), origin.lat());
+    }
+
+    /**
+     * Packs the lattice cell containing a position given by primitive coordinates into a single long key.
+     * @param lng Longitude of the position.
+     * @param lat Latitude of the position.
+     * @param originLng Longitude of the search origin.
+     * @param originLat Latitude of the search origin.
+     * @return Packed lattice cell key.
+     */
+    static long latticeKey(double lng, double lat, double originLng, double originLat) {
+        long cellLng = Math.round((lng - originLng) / LATTICE_CELL);
+        long cellLat = Math.round((lat - originLat) / LATTICE_CELL);
+        return (cellLng << 32) | (cellLat & 0xffffffffL);
+    }
+
+    /**
+     * Extends a lattice cell key with whether the central area has been entered.
+     * Keys are left unchanged when the search is unconstrained.
+     * @param cellKey Packed lattice cell key.
+     * @param entered Whether the central area has been entered.
+     * @param centralArea Area constraining the search, or null for none.
+     * @return Packed search state key.
+     */
+    private static long stateKey(long cellKey, boolean entered, NamedRegion centralArea) {
+        if (centralArea == null) return cellKey;
+        //Cell offsets from the origin are far below 2^30, so no cell information is shifted out
+        return (cellKey << 1) | (entered ? 1 : 0);
+    }
+
+    /**
+     * Finds a path from start to end position avoiding no-fly zones.
+     * Visited and open states are keyed on lattice cells rather than Node equality,
+     * so revisiting a position under a different cost is recognised as a duplicate.
+     * Each cell has one id in the open list, so a cheaper route to an open cell is a decrease-key.
+     * @param startLng Longitude of start position.
+     * @param startLat Latitude of start position.
+     * @param endLng Longitude of end position.
+     * @param endLat Latitude of end position.
+     * @param noFlyZones Array of no-fly zones.
+     * @param orderNo Order number for identification.
+     * @return List of nodes forming the path.
+     */
+    static List<Node> findPathLattice(double startLng, double startLat, double endLng, double endLat, NamedRegion[] noFlyZones, String orderNo) {
+        return findPathLattice(startLng, startLat, endLng, endLat, noFlyZones, orderNo, 1.0, Double.MAX_VALUE, null);
+    }
+
+    /**
+     * Finds a path from start to end position with a weighted heuristic, optionally bounded in cost and effort.
+     * Nodes are ordered by g + weight * h, so the path is at most weight times the shortest lattice path.
+     * @param startLng Longitude of start position.
+     * @param startLat Latitude of start position.
+     * @param endLng Longitude of end position.
+     * @param endLat Latitude of end position.
+     * @param noFlyZones Array of no-fly zones.
+     * @param orderNo Order number for identification.
+     * @param weight Heuristic weight, at least 1.
+     * @param costLimit Only paths cheaper than this are searched for.
+     * @param budget Allowance for the search, or null for no limit.
+     * @return List of nodes forming the path, empty if none exists below the cost limit or the budget ran out.
+     */
+    static List<Node> findPathLattice(double startLng, double startLat, double endLng, double endLat, NamedRegion[] noFlyZones, String orderNo,
+                                      double weight, double costLimit, SearchBudget budget) {
+        return findPathLattice(startLng, startLat, endLng, endLat, noFlyZones, orderNo, weight, costLimit, budget, null);
+    }
+
+    /**
+     * Finds a path from start to end position that may not leave the central area once it has entered it.
+     * Each search state carries whether the central area has been entered, so the same cell can be visited
+     * once from outside and once after entering, and the path reaches the end in a single search.
+     * @param startLng Longitude of start position.
+     * @param startLat Latitude of start position.
+     * @param endLng Longitude of end position, inside the central area.
+     * @param endLat Latitude of end position, inside the central area.
+     * @param noFlyZones Array of no-fly zones.
+     * @param orderNo Order number for identification.
+     * @param weight Heuristic weight, at least 1.
+     * @param costLimit Only paths cheaper than this are searched for.
+     * @param budget Allowance for the search, or null for no limit.
+     * @param centralArea Area the path may not leave once inside, or null for no constraint.
+     * @return List of nodes forming the path, empty if none exists below the cost limit or the budget ran out.
+     */
+    static List<Node> findPathLattice(double startLng, double startLat, double endLng, double endLat, NamedRegion[] noFlyZones, String orderNo,
+                                      double weight, double costLimit, SearchBudget budget, NamedRegion centralArea) {
+        //First and last nodes should hover (drop-off and collection respectively)
+        Node start = new Node(new LngLat(startLng, startLat), 999, orderNo);
+        LngLat endLngLat = new LngLat(endLng, endLat);
+        List<Node> path = new ArrayList<>();
+
+        Heuristic heuristic = heuristicFor(noFlyZones);
+        OpenList openSet = openListType.create();
+        LongHashSet closedSet = new LongHashSet(1024);
+        //Best node reached in each open or closed cell, and the same nodes indexed by open list id
+        LongObjectHashMap<Node> cellNodes = new LongObjectHashMap<>(1024);
+        List<Node> nodesById = new ArrayList<>();
+        NeighborBuffer buffer = new NeighborBuffer();
+        SearchMetrics metrics = SearchMetrics.current();
+
+        start.startCost = 0;
+        start.endCost = heuristic.estimate(startLng, startLat, endLng, endLat);
+        start.id = 0;
+        nodesById.add(start);
+        //Entered flag of each node, indexed by open list id
+        BitSet enteredById = new BitSet();
+        CentralAreaIndex centralIndex = centralArea == null ? null : centralAreaIndexFor(centralArea);
+        boolean startEntered = centralIndex != null && centralIndex.contains(startLng, startLat);
+        enteredById.set(0, startEntered);
+        cellNodes.put(stateKey(latticeKey(startLng, startLat, startLng, startLat), startEntered, centralArea), start);
+        openSet.insertOrDecrease(start.id, start.startCost + weight * start.endCost);
+
+        while (!openSet.isEmpty()) {
+            if (budget != null && !budget.spend()) break;
+            if (metrics != null) metrics.recordOpenSize(openSet.size());
+            Node current = nodesById.get(openSet.poll());
+
+            if (lngLatHandler.distanceTo(current.lngLat, endLngLat) < GOAL_TOLERANCE) {
+                while (current != null) {
+                    path.add(current);
+                    current = current.parent;
+                }
+                Collections.reverse(path);
+                if (metrics != null) metrics.closedSize += closedSet.size();
+                return path;
+            }
+
+            boolean currentEntered = enteredById.get(current.id);
+            closedSet.add(stateKey(latticeKey(current.lng(), current.lat(), startLng, startLat), currentEntered, centralArea));
+            if (metrics != null) metrics.nodesExpanded++;
+            double tentativeG = current.startCost + SystemConstants.DRONE_MOVE_DISTANCE;
+
+            buffer.fill(current.lng(), current.lat());
+
+            for (int i = 0; i < buffer.size(); i++) {
+                double nextLng = buffer.lng(i);
+                double nextLat = buffer.lat(i);
+                boolean nextEntered = currentEntered;
+                if (centralIndex != null) {
+                    boolean inside = centralIndex.contains(nextLng, nextLat);
+                    //Once inside the central area the drone may not leave it again
+                    if (currentEntered && !inside) continue;
+                    nextEntered = inside;
+                }
+                long nextKey = stateKey(latticeKey(nextLng, nextLat, startLng, startLat), nextEntered, centralArea);
+                if (closedSet.contains(nextKey)) continue;
+                Node existing = cellNodes.get(nextKey);
+                if (existing != null && tentativeG >= existing.startCost) continue;
+                if (!isValidMove(nextLng, nextLat, current.lng(), current.lat(), noFlyZones)) continue;
+
+                //Only candidates entering the open set are materialised as nodes
+                LngLat next = new LngLat(nextLng, nextLat);
+                Node neighbor = new Node(next, buffer.angle(i), orderNo);
+                neighbor.parent = current;
+                neighbor.startCost = tentativeG;
+                neighbor.endCost = heuristic.estimate(nextLng, nextLat, endLng, endLat);
+                //The unweighted estimate never overstates, so this cell cannot lead below the limit
+                if (tentativeG + neighbor.endCost >= costLimit) continue;
+
+                //A cheaper route to an open cell takes over that cell's id
+                if (existing == null) {
+                    neighbor.id = nodesById.size();
+                    nodesById.add(neighbor);
+                } else {
+                    neighbor.id = existing.id;
+                    nodesById.set(neighbor.id, neighbor);
+                }
+                enteredById.set(neighbor.id, nextEntered);
+                cellNodes.put(nextKey, neighbor);
+                openSet.insertOrDecrease(neighbor.id, neighbor.startCost + weight * neighbor.endCost);
+                if (metrics != null) metrics.nodesGenerated++;
+            }
+        }
+        if (metrics != null) metrics.closedSize += closedSet.size();
         return path;  // no path found
     }
 
     /**
      * Generates the path for an order from the starting point to the restaurant and back.
-     * Combines sub-paths from the `findPath` function
+     * Combines sub-paths from the `findPath` function.
+     * Outside the classic search, the return from a restaurant outside the central area is one search that may not
+     * leave the central area once it has entered it. The classic search keeps the original route through the
+     * nearest point on the central area perimeter, which is also used if the constrained search finds no path.
      * @param noFlyZones Array of no-fly zones.
      * @param centralArea Central area of operation.
      * @param restaurantPos Position of the restaurant.
      * @param orderNo Order number for identification.
+     * @param legMetrics List the search effort of each leg is appended to.
      * @return List of nodes forming the path.
      * @throws IOException If an I/O error occurs.
      */
-    private static List<Node> getOrderPath(NamedRegion[] noFlyZones, NamedRegion centralArea, LngLat restaurantPos, String orderNo) throws IOException {
+    static List<Node> getOrderPath(NamedRegion[] noFlyZones, NamedRegion centralArea, LngLat restaurantPos, String orderNo,
+                                           List<SearchMetrics> legMetrics) throws IOException {
         //Find path to restaurant
-        List<Node> toRestaurantPath = findPath(APPLETON.lng(), APPLETON.lat(), restaurantPos.lng(), restaurantPos.lat(), noFlyZones, orderNo);
-
-        //Find the closest point on an edge of central area from drop-off point
-        LngLat enterCentralPoint = LngLatHandler.findNearestPointOnPerimeter(toRestaurantPath.get(toRestaurantPath.size()-1).lngLat, centralArea);
+        List<Node> toRestaurantPath = findPath(APPLETON.lng(), APPLETON.lat(), restaurantPos.lng(), restaurantPos.lat(), noFlyZones, orderNo, legMetrics);
+        Node dropOff = toRestaurantPath.get(toRestaurantPath.size() - 1);
 
         List<Node> path = new ArrayList<>(toRestaurantPath);
 
+        //Finds return path for restaurant outside of central area in a single constrained search
+        List<Node> constrainedReturnPath = List.of();
+        if (!lngLatHandler.isInRegion(restaurantPos, centralArea) && searchMode != SearchMode.CLASSIC) {
+            constrainedReturnPath = findPath(dropOff.lng(), dropOff.lat(), APPLETON.lng(), APPLETON.lat(), noFlyZones, centralArea, orderNo, legMetrics);
+            if (constrainedReturnPath.isEmpty()) {
+                LOGGER.log(Level.WARNING, "No constrained return path for order " + orderNo + ", returning through the nearest point on the central area.");
+            }
+        }
+
+        if (!constrainedReturnPath.isEmpty()) {
+            path.addAll(constrainedReturnPath);
+
         //Finds return path for restaurant outside of central area
-        if (!lngLatHandler.isInRegion(restaurantPos, centralArea)) {
+        } else if (!lngLatHandler.isInRegion(restaurantPos, centralArea)) {
+            //Find the closest point on an edge of central area from drop-off point
+            LngLat enterCentralPoint = LngLatHandler.findNearestPointOnPerimeter(dropOff.lngLat, centralArea);
 
             //Find path from drop-off point to the closest point on an edge of central area
-            List<Node> enterCentralAreaPath = findPath(toRestaurantPath.get(toRestaurantPath.size() - 1).lng(), toRestaurantPath.get(toRestaurantPath.size() - 1).lat(), enterCentralPoint.lng(), enterCentralPoint.lat(), noFlyZones, orderNo);
+            List<Node> enterCentralAreaPath = findPath(dropOff.lng(), dropOff.lat(), enterCentralPoint.lng(), enterCentralPoint.lat(), noFlyZones, orderNo, legMetrics);
 
             //Find path from point on the edge of central area to appleton
-            List<Node> centralReturnPath = findPath(enterCentralAreaPath.get(enterCentralAreaPath.size()-1).lng(), enterCentralAreaPath.get(enterCentralAreaPath.size()-1).lat(), APPLETON.lng(), APPLETON.lat(), noFlyZones, orderNo);
+            List<Node> centralReturnPath = findPath(enterCentralAreaPath.get(enterCentralAreaPath.size()-1).lng(), enterCentralAreaPath.get(enterCentralAreaPath.size()-1).lat(), APPLETON.lng(), APPLETON.lat(), noFlyZones, orderNo, legMetrics);
 
             //Removes extra hover node
             centralReturnPath.remove(0);
@@ -179,15 +860,105 @@ public class Flightpath {
 
         //Finds return path for restaurant inside of central area
         } else {
-            List<Node> directReturnPath = findPath(toRestaurantPath.get(toRestaurantPath.size() - 1).lng(), toRestaurantPath.get(toRestaurantPath.size() - 1).lat(), APPLETON.lng(), APPLETON.lat(), noFlyZones, orderNo);
+            List<Node> directReturnPath = findPath(dropOff.lng(), dropOff.lat(), APPLETON.lng(), APPLETON.lat(), noFlyZones, orderNo, legMetrics);
             path.addAll(directReturnPath);
         }
 
         return path;
     }
 
+    /**
+     * Plans the path for one order and shortens it when path shortening is enabled.
+     * @param noFlyZones Array of no-fly zones.
+     * @param centralArea Central area of operation.
+     * @param restaurantPos Position of the restaurant.
+     * @param orderNo Order number for identification.
+     * @param legMetrics List the search effort of each leg is appended to.
+     * @param movesSaved Moves saved by each order, indexed like the orders being planned.
+     * @param index Index of this order.
+     * @return List of nodes forming the path.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static List<Node> planOrder(NamedRegion[] noFlyZones, NamedRegion centralArea, LngLat restaurantPos, String orderNo,
+                                        List<SearchMetrics> legMetrics, int[] movesSaved, int index) throws IOException {
+        List<Node> path = getOrderPath(noFlyZones, centralArea, restaurantPos, orderNo, legMetrics);
+        if (!pathShortening) return path;
+
+        PathShortener.Result shortened = new PathShortener(noFlyZones, centralArea, restaurantPos, APPLETON).shorten(path);
+        movesSaved[index] = shortened.movesSaved();
+        return shortened.path();
+    }
+
+    private static void recordMovesSaved(List<SearchMetrics.OrderMetrics> orderMetrics, int[] movesSaved) {
+        for (int i = 0; i < movesSaved.length; i++) {
+            SearchMetrics.OrderMetrics order = orderMetrics.get(i);
+            orderMetrics.set(i, new SearchMetrics.OrderMetrics(order.orderNo(), order.legs(), movesSaved[i]));
+        }
+    }
+
+    /**
+     * Plans the path for each order, concurrently when more than one planning thread is configured.
+     * Paths are returned in the same sequence as the orders regardless of completion order.
+     * @param noFlyZones Array of no-fly zones.
+     * @param centralArea Central area of operation.
+     * @param restaurants Array of available restaurants.
+     * @param orders Orders to plan paths for.
+     * @param orderMetrics List the search effort of each order is appended to, in the same sequence as the orders.
+     * @param threads Number of planning threads.
+     * @return List of order paths, one per order.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static List<List<Node>> planOrderPaths(NamedRegion[] noFlyZones, NamedRegion centralArea, Restaurant[] restaurants, List<Order> orders,
+                                                   List<SearchMetrics.OrderMetrics> orderMetrics, int threads) throws IOException {
+        List<List<Node>> orderPaths = new ArrayList<>(orders.size());
+        //Each order's leg list is only written by the thread planning that order
+        List<List<SearchMetrics>> legMetrics = new ArrayList<>(orders.size());
+        for (Order order : orders) {
+            List<SearchMetrics> legs = new ArrayList<>();
+            legMetrics.add(legs);
+            orderMetrics.add(new SearchMetrics.OrderMetrics(order.getOrderNo(), legs));
+        }
+
+        //Moves saved by shortening each order's path, written only by the thread planning that order
+        int[] movesSaved = new int[orders.size()];
+
+        if (threads <= 1 || orders.size() <= 1) {
+            for (int i = 0; i < orders.size(); i++) {
+                Order order = orders.get(i);
+                orderPaths.add(planOrder(noFlyZones, centralArea, getOrderRestaurant(order, restaurants), order.getOrderNo(), legMetrics.get(i), movesSaved, i));
+            }
+            recordMovesSaved(orderMetrics, movesSaved);
+            return orderPaths;
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threads, orders.size()));
+        try {
+            List<Future<List<Node>>> futures = new ArrayList<>(orders.size());
+            for (int i = 0; i < orders.size(); i++) {
+                Order order = orders.get(i);
+                List<SearchMetrics> legs = legMetrics.get(i);
+                int index = i;
+                futures.add(executor.submit(() -> planOrder(noFlyZones, centralArea, getOrderRestaurant(order, restaurants), order.getOrderNo(), legs, movesSaved, index)));
+            }
+            for (Future<List<Node>> future : futures) {
+                orderPaths.add(future.get());
+            }
+            recordMovesSaved(orderMetrics, movesSaved);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while planning order paths", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IllegalStateException("Order path planning failed: " + e.getCause().getMessage(), e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return orderPaths;
+    }
+
     /**
      * Calculates the full day path for drone deliveries.
+     * With more than one drone, flights are shared out by FleetScheduler and the full path holds each drone's path in turn.
      * @param noFlyZones Array of no-fly zones.
      * @param centralArea Central area of operation.
      * @param restaurants Array of available restaurants.
@@ -204,11 +975,63 @@ public class Flightpath {
 
         String orderNo = "";
 
-        //Loop through orders to make a path for each
+        //Build the no-fly zone index once for the day, before any planning threads start
+        zoneIndexFor(noFlyZones);
+        if (heuristicType == HeuristicType.LANDMARK) {
+            prepareLandmarks(noFlyZones, restaurants);
+        }
+        worstBound.reset();
+        activeAtlas = null;
+        if (routeAtlas != null) {
+            if (routeAtlas.matches(noFlyZones, centralArea, restaurants, openListType)) {
+                activeAtlas = routeAtlas;
+            } else {
+                System.out.println("Route atlas was built from different restaurants, zones or open list, searching every leg");
+            }
+        }
+
+        //Orders still to be flown, planned together so legs can be computed in parallel
+        List<Order> ordersToDeliver = new ArrayList<>();
         for (Order order : dayOrders) {
             orderNo = order.getOrderNo();
             if (order.getOrderStatus() == OrderStatus.VALID_BUT_NOT_DELIVERED) {
-                List<Node> orderPath = getOrderPath(noFlyZones, centralArea, getOrderRestaurant(order, restaurants), orderNo);
+                ordersToDeliver.add(order);
+            }
+        }
+
+        List<SearchMetrics.OrderMetrics> orderMetrics = new ArrayList<>();
+        //Paths flown and the orders each one delivers
+        List<List<Node>> orderPaths = new ArrayList<>();
+        List<List<Order>> pathOrders = new ArrayList<>();
+        long planningStart = System.nanoTime();
+        if (tourCapacity > 0) {
+            List<LngLat> orderRestaurants = new ArrayList<>();
+            for (Order order : ordersToDeliver) {
+                orderRestaurants.add(getOrderRestaurant(order, restaurants));
+            }
+            TourPlanner tourPlanner = new TourPlanner(noFlyZones, centralArea, APPLETON, tourCapacity, tourMoveBudget);
+            for (TourPlanner.Flight flight : tourPlanner.plan(ordersToDeliver, orderRestaurants, orderMetrics)) {
+                orderPaths.add(flight.path());
+                pathOrders.add(flight.orders());
+            }
+        } else {
+            //Each drone's orders are planned alongside the others', with at least one thread per drone
+            orderPaths = planOrderPaths(noFlyZones, centralArea, restaurants, ordersToDeliver, orderMetrics, Math.max(planningThreads, fleetSize));
+            for (Order order : ordersToDeliver) {
+                pathOrders.add(List.of(order));
+            }
+        }
+        long planningNanos = System.nanoTime() - planningStart;
+
+        //The previous day's files may still be written asynchronously, finish them before queuing this day's
+        outputStage.awaitAll();
+        if (fleetSize > 1) {
+            fullPath = flyFleet(orderPaths, pathOrders, pathList, dateArg);
+        } else {
+            //Stitch paths together in the original order sequence, leaving out flights longer than one charge
+            FleetScheduler.Schedule schedule = new FleetScheduler(1, batteryMoves).assign(flightMoves(orderPaths));
+            for (int i : schedule.droneFlights().get(0)) {
+                List<Node> orderPath = orderPaths.get(i);
 
                 //Adds each path separately for debugging
                 pathList.add(orderPath);
@@ -216,23 +1039,147 @@ public class Flightpath {
                 //Adds each node from path to create complete path for all orders
                 fullPath.addAll(orderPath);
 
-                order.setOrderStatus(OrderStatus.DELIVERED);
+                for (Order order : pathOrders.get(i)) {
+                    order.setOrderStatus(OrderStatus.DELIVERED);
+                }
+            }
+            addClosingHover(fullPath, orderNo);
+            writeDronePath(fullPath, dateArg);
+            reportUnassigned(schedule);
+        }
+        if (tourCapacity > 0) {
+            System.out.println("Tour planning flew " + ordersToDeliver.size() + " orders in " + orderPaths.size() + " flights");
+        }
+
+        //Orders left undelivered by the battery limit are recorded with the metrics
+        List<String> undelivered = new ArrayList<>();
+        for (Order order : ordersToDeliver) {
+            if (order.getOrderStatus() == OrderStatus.VALID_BUT_NOT_DELIVERED) undelivered.add(order.getOrderNo());
+        }
+
+        //Write delivery and metrics data to output files
+        SearchMode mode = searchMode;
+        outputStage.submit(Path.of("deliveries-" + dateArg + ".json"), out -> jsonConverter.writeOrders(dayOrders, out));
+        outputStage.submit(Path.of("metrics-" + dateArg + ".json"), out -> jsonConverter.writeMetrics(orderMetrics, undelivered, planningNanos, dateArg, mode, out));
+        if (!asyncOutput) {
+            outputStage.awaitAll();
+        }
+        System.out.println("Complete day path number of moves: " + fullPath.size());
+        if (pathShortening && tourCapacity == 0) {
+            int totalSaved = 0;
+            for (SearchMetrics.OrderMetrics order : orderMetrics) {
+                System.out.println("Order " + order.orderNo() + " path shortened by " + order.movesSaved() + " moves");
+                totalSaved += order.movesSaved();
+            }
+            System.out.println("Path shortening saved " + totalSaved + " moves");
+        }
+        if (routeCache != null) {
+            System.out.println("Route cache: " + routeCache.getStats());
+        }
+        if (searchMode == SearchMode.ANYTIME) {
+            //Landmark estimates may exceed the true distance, so the weights no longer bound the path length
+            if (heuristicType == HeuristicType.LANDMARK) {
+                System.out.println("Anytime search suboptimality bound: not available with the landmark heuristic");
+            } else {
+                System.out.println("Anytime search suboptimality bound: " + worstBound.get());
             }
         }
 
-        //Add a hover node for the last delivery if path isn't empty
+        return (Pair.of(fullPath, pathList));
+    }
+
+    /**
+     * Queues the GeoJSON and flightpath files of one drone on the output stage, with the binary flightpath when enabled.
+     * @param path Complete path of a drone for the day.
+     * @param suffix Date, followed by the drone number when flying a fleet.
+     */
+    private static void writeDronePath(List<Node> path, String suffix) {
+        JsonConverter jsonConverter = new JsonConverter();
+        outputStage.submit(Path.of("drone-" + suffix + ".geojson"), out -> jsonConverter.writeGeoJson(path, out));
+        outputStage.submit(Path.of("flightpath-" + suffix + ".json"), out -> jsonConverter.writeFlightpath(path, out));
+        if (binaryFlightpath) {
+            boolean gzip = binaryFlightpathGzip;
+            outputStage.submit(Path.of("flightpath-" + suffix + BinaryFlightpath.EXTENSION), out -> BinaryFlightpath.write(path, out, gzip));
+        }
+    }
+
+    /**
+     * Adds a hover node for the last delivery if the path isn't empty.
+     * @param fullPath Complete path of a drone for the day.
+     * @param orderNo Order number to tag the hover with.
+     */
+    private static void addClosingHover(List<Node> fullPath, String orderNo) {
         if (fullPath.size() > 1) {
             Node lastNode = new Node(fullPath.get(fullPath.size() - 1).lngLat, 999, orderNo);
             lastNode.parent = fullPath.get(fullPath.size() - 1);
             fullPath.add(lastNode);
         }
+    }
 
-        //Write delivery and flightpath data to output files
-        jsonConverter.convertNodesToGeoJson(fullPath, "drone-" + dateArg);
-        jsonConverter.convertFlightpathToJson(fullPath, "flightpath-" + dateArg);
-        jsonConverter.convertOrdersToJson(dayOrders, "deliveries-" + dateArg);
-        System.out.println("Complete day path number of moves: " + fullPath.size());
+    /**
+     * Shares the day's flights between the drones of the fleet and queues a flightpath and GeoJSON file per drone,
+     * numbered from 1, on the output stage.
+     * Orders on flights longer than one battery charge stay undelivered, and are listed in the metrics file.
+     * @param orderPaths Paths of the day's flights.
+     * @param pathOrders Orders delivered by each flight.
+     * @param pathList List the paths actually flown are appended to.
+     * @param dateArg Date the orders were planned for.
+     * @return Every drone's complete path, one after the other.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static List<Node> flyFleet(List<List<Node>> orderPaths, List<List<Order>> pathOrders, List<List<Node>> pathList, String dateArg) throws IOException {
+        FleetScheduler.Schedule schedule = new FleetScheduler(fleetSize, batteryMoves).assign(flightMoves(orderPaths));
 
-        return (Pair.of(fullPath, pathList));
+        List<List<Node>> dronePaths = new ArrayList<>(fleetSize);
+        for (List<Integer> flights : schedule.droneFlights()) {
+            List<Node> dronePath = new ArrayList<>();
+            String lastOrderNo = "";
+            for (int flight : flights) {
+                pathList.add(orderPaths.get(flight));
+                dronePath.addAll(orderPaths.get(flight));
+                for (Order order : pathOrders.get(flight)) {
+                    order.setOrderStatus(OrderStatus.DELIVERED);
+                    lastOrderNo = order.getOrderNo();
+                }
+            }
+            addClosingHover(dronePath, lastOrderNo);
+            dronePaths.add(dronePath);
+        }
+
+        for (int d = 0; d < fleetSize; d++) {
+            writeDronePath(dronePaths.get(d), dateArg + "-" + (d + 1));
+        }
+
+        List<Node> fullPath = new ArrayList<>();
+        for (int d = 0; d < fleetSize; d++) {
+            System.out.println("Drone " + (d + 1) + " flew " + schedule.droneFlights().get(d).size() + " flights in " + schedule.droneMoves()[d] + " moves");
+            fullPath.addAll(dronePaths.get(d));
+        }
+        System.out.println("Fleet makespan: " + schedule.makespan() + " moves");
+        reportUnassigned(schedule);
+        return fullPath;
+    }
+
+    /**
+     * Counts the moves of each flight, as scheduled by FleetScheduler.
+     * @param orderPaths Paths of the day's flights.
+     * @return Number of moves of each flight.
+     */
+    private static int[] flightMoves(List<List<Node>> orderPaths) {
+        int[] flightMoves = new int[orderPaths.size()];
+        for (int i = 0; i < flightMoves.length; i++) {
+            flightMoves[i] = orderPaths.get(i).size();
+        }
+        return flightMoves;
+    }
+
+    /**
+     * Reports the flights left out of a schedule for being longer than one battery charge.
+     * @param schedule Schedule of the day's flights.
+     */
+    private static void reportUnassigned(FleetScheduler.Schedule schedule) {
+        if (!schedule.unassigned().isEmpty()) {
+            System.out.println(schedule.unassigned().size() + " flights did not fit within the battery limit of " + batteryMoves + " moves per flight");
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,19 @@
+package org.example;
+
+/**
+ * Estimate of the remaining flight distance used to order the lattice search.
+ * Implementations must be safe to call from several planning threads at once.
+ */
+public interface Heuristic {
+
+    /**
+     * Estimates the flight distance between two positions.
+     *
+     * @param fromLng Longitude of the current position.
+     * @param fromLat Latitude of the current position.
+     * @param toLng   Longitude of the goal.
+     * @param toLat   Latitude of the goal.
+     * @return Estimated distance in degrees.
+     */
+    double estimate(double fromLng, double fromLat, double toLng, double toLat);
+}
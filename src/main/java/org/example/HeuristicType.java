@@ -0,0 +1,16 @@
+package org.example;
+
+/**
+ * Selects the heuristic used by the lattice search.
+ */
+public enum HeuristicType {
+    /** Straight-line distance, as used by the classic search. */
+    EUCLIDEAN,
+    /** Shortest distance using only the 16 compass headings, ignoring no-fly zones. */
+    LATTICE,
+    /**
+     * Landmark (ALT) bounds from precomputed grid distances around the no-fly zones, never below LATTICE.
+     * Not guaranteed admissible, so no suboptimality bound is reported with it.
+     */
+    LANDMARK
+}
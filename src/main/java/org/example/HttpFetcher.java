@@ -0,0 +1,432 @@
+package org.example;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Fetches files from the REST server over one shared HttpClient, so connections are kept alive and reused.
+ * Several files are requested at the same time. The ETag and Last-Modified validators of each downloaded file are
+ * kept in a cache directory, and a file that is already on disk is revalidated with a conditional request, so an
+ * unchanged file only costs a 304 response. Connection failures, timeouts and server errors are retried with
+ * exponential backoff up to a fixed number of attempts.
+ * Responses can also be parsed straight from the network with fetchParsed, without going through a file first.
+ */
+public class HttpFetcher {
+
+    private static final Logger LOGGER = Logger.getLogger(HttpFetcher.class.getName());
+
+    public static final int DEFAULT_ATTEMPTS = 4;
+    public static final Duration DEFAULT_BACKOFF = Duration.ofMillis(250);
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(30);
+    //Longest wait between two attempts, however many have failed
+    public static final Duration MAX_BACKOFF = Duration.ofSeconds(5);
+
+    //Directory, relative to the download directory, holding the validators of each downloaded file
+    public static final String CACHE_DIRECTORY = ".fetch-cache";
+
+    private static final String ETAG = "ETag";
+    private static final String LAST_MODIFIED = "Last-Modified";
+
+    /**
+     * How a file was brought up to date.
+     */
+    public enum Result {
+        //The server sent a new copy
+        DOWNLOADED,
+        //The server confirmed the copy on disk is current
+        NOT_MODIFIED
+    }
+
+    /**
+     * Turns a response body into model objects.
+     *
+     * @param <T> Type of the parsed result.
+     */
+    @FunctionalInterface
+    public interface Parser<T> {
+        /**
+         * Parses a response body.
+         *
+         * @param in Stream of the body as it arrives from the server.
+         * @return The parsed result.
+         * @throws IOException If the body cannot be read or parsed.
+         */
+        T parse(InputStream in) throws IOException;
+    }
+
+    //Numbers temporary files so concurrent downloads to the same directory never collide
+    private static final AtomicLong tempCounter = new AtomicLong();
+
+    //Runs the client and the parsers, which block while they wait for the rest of a body
+    private final ExecutorService executor;
+    private final HttpClient client;
+    private final Path directory;
+    private final int attempts;
+    private final Duration backoff;
+    private final Duration timeout;
+
+    /**
+     * Constructs a fetcher that saves files in the working directory with the default retry settings.
+     */
+    public HttpFetcher() {
+        this(Path.of(""), DEFAULT_ATTEMPTS, DEFAULT_BACKOFF, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Constructs a fetcher.
+     *
+     * @param directory Directory the files are saved in.
+     * @param attempts  Number of times a request is sent before giving up.
+     * @param backoff   Wait before the first retry, doubled for each further retry up to MAX_BACKOFF.
+     * @param timeout   Longest time to wait for a connection, and for each response.
+     */
+    public HttpFetcher(Path directory, int attempts, Duration backoff, Duration timeout) {
+        if (attempts < 1) {
+            throw new IllegalArgumentException("Fetch attempts must be at least 1");
+        }
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "http-fetch");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.client = HttpClient.newBuilder()
+                .executor(executor)
+                .connectTimeout(timeout)
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        this.directory = directory;
+        this.attempts = attempts;
+        this.backoff = backoff;
+        this.timeout = timeout;
+    }
+
+    /**
+     * Fetches several resources from the same server at the same time and waits for all of them.
+     * Each file is saved under the last path segment of its resource, so "orders/2023-11-15" is saved as "2023-11-15".
+     *
+     * @param baseUrl   Base address of the server.
+     * @param resources Paths of the resources relative to the base address.
+     * @return How each file was brought up to date, in the order of resources.
+     * @throws IOException If any of them could not be fetched, the first failure in the order of resources.
+     */
+    public List<Result> fetchAll(String baseUrl, String... resources) throws IOException {
+        String base = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+        List<CompletableFuture<Result>> futures = new ArrayList<>();
+        for (String resource : resources) {
+            String fileName = resource.substring(resource.lastIndexOf('/') + 1);
+            futures.add(fetch(URI.create(base + resource), fileName));
+        }
+
+        awaitAll(futures);
+        List<Result> results = new ArrayList<>();
+        for (CompletableFuture<Result> future : futures) {
+            results.add(future.join());
+        }
+        return results;
+    }
+
+    /**
+     * Waits for every fetch in a list.
+     *
+     * @param futures Fetches started by fetch or fetchParsed.
+     * @throws IOException If any of them failed, the first failure in list order.
+     */
+    public static void awaitAll(List<? extends CompletableFuture<?>> futures) throws IOException {
+        IOException failure = null;
+        for (CompletableFuture<?> future : futures) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while fetching files", e);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException("Fetching file failed", e.getCause());
+                }
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * Starts fetching one resource.
+     *
+     * @param uri      Address of the resource.
+     * @param fileName Name of the file in the download directory.
+     * @return Future completing once the file on disk is up to date.
+     */
+    public CompletableFuture<Result> fetch(URI uri, String fileName) {
+        Path file = directory.resolve(fileName);
+        Path metadata = metadataFile(fileName);
+        Path temp = tempFile(fileName);
+
+        //Only a full response is written out; the body of any other response is discarded
+        HttpResponse.BodyHandler<Path> handler = info -> info.statusCode() == 200
+                ? HttpResponse.BodySubscribers.ofFile(temp)
+                : HttpResponse.BodySubscribers.replacing(null);
+
+        return send(request(uri, file, metadata), handler, 1).thenApply(response -> {
+            try {
+                if (response.statusCode() == 304) {
+                    System.out.println("File is unchanged: " + file);
+                    return Result.NOT_MODIFIED;
+                }
+                checkStatus(response);
+                moveIntoPlace(temp, file);
+                saveValidators(response, metadata);
+                System.out.println("File was downloaded: " + file);
+                return Result.DOWNLOADED;
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }).whenComplete((result, error) -> deleteTemp(temp));
+    }
+
+    /**
+     * Starts fetching one resource and parses the response body as it arrives, without writing it to a file first.
+     * If a file name is given, the raw body is also saved under it as fetch would, and an unchanged resource is
+     * revalidated and parsed from the saved copy instead.
+     *
+     * @param uri      Address of the resource.
+     * @param fileName Name of the file in the download directory to save the body in, or null to keep it in memory only.
+     * @param parser   Parses the body.
+     * @param <T>      Type of the parsed result.
+     * @return Future completing with the parsed result.
+     */
+    public <T> CompletableFuture<T> fetchParsed(URI uri, String fileName, Parser<T> parser) {
+        Path file = fileName == null ? null : directory.resolve(fileName);
+        Path metadata = fileName == null ? null : metadataFile(fileName);
+        Path temp = fileName == null ? null : tempFile(fileName);
+
+        HttpResponse.BodyHandler<InputStream> handler = info -> info.statusCode() == 200
+                ? HttpResponse.BodySubscribers.ofInputStream()
+                : HttpResponse.BodySubscribers.replacing(null);
+
+        return send(request(uri, file, metadata), handler, 1).thenApplyAsync(response -> {
+            try {
+                if (response.statusCode() == 304) {
+                    try (InputStream in = Files.newInputStream(file)) {
+                        return parser.parse(in);
+                    }
+                }
+                checkStatus(response);
+                if (file == null) {
+                    try (InputStream in = response.body()) {
+                        return parser.parse(in);
+                    }
+                }
+
+                T parsed;
+                try (InputStream body = response.body(); OutputStream copy = Files.newOutputStream(temp)) {
+                    TeeInputStream in = new TeeInputStream(body, copy);
+                    parsed = parser.parse(in);
+                    //Save whatever follows the parsed value too, so the file is the exact payload
+                    in.transferTo(OutputStream.nullOutputStream());
+                }
+                moveIntoPlace(temp, file);
+                saveValidators(response, metadata);
+                return parsed;
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            }
+        }, executor).whenComplete((result, error) -> {
+            if (temp != null) deleteTemp(temp);
+        });
+    }
+
+    /**
+     * Builds the request for a resource, conditional on the saved copy if there is one.
+     *
+     * @param uri      Address of the resource.
+     * @param file     Saved copy of the resource, or null if it is not saved.
+     * @param metadata File holding the validators of the saved copy.
+     * @return The request.
+     */
+    private HttpRequest request(URI uri, Path file, Path metadata) {
+        //Validators only count while the file they describe is still there
+        Properties validators = file != null && Files.exists(file) ? readValidators(metadata) : new Properties();
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(timeout).GET();
+        if (validators.containsKey(ETAG)) builder.header("If-None-Match", validators.getProperty(ETAG));
+        if (validators.containsKey(LAST_MODIFIED)) builder.header("If-Modified-Since", validators.getProperty(LAST_MODIFIED));
+        return builder.build();
+    }
+
+    private Path metadataFile(String fileName) {
+        return directory.resolve(CACHE_DIRECTORY).resolve(fileName + ".properties");
+    }
+
+    private Path tempFile(String fileName) {
+        return directory.resolve(fileName + "." + ProcessHandle.current().pid() + "." + tempCounter.incrementAndGet() + ".tmp");
+    }
+
+    private static void deleteTemp(Path temp) {
+        try {
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            //Left for the next run to overwrite
+        }
+    }
+
+    /**
+     * Sends a request, retrying failed attempts after a backoff delay.
+     *
+     * @param request Request to send.
+     * @param handler Handler for the response body.
+     * @param attempt Number of this attempt, starting at 1.
+     * @param <B>     Type of the response body.
+     * @return Future completing with the first response that is not worth retrying.
+     */
+    private <B> CompletableFuture<HttpResponse<B>> send(HttpRequest request, HttpResponse.BodyHandler<B> handler, int attempt) {
+        return client.sendAsync(request, handler).handle((response, error) -> {
+            if (error == null && !retryable(response.statusCode())) {
+                return CompletableFuture.completedFuture(response);
+            }
+            String reason = error == null ? "HTTP " + response.statusCode() : unwrap(error).toString();
+            if (attempt >= attempts) {
+                IOException failure = new IOException("Fetching " + request.uri() + " failed after " + attempt + " attempts: " + reason);
+                if (error != null) failure.initCause(unwrap(error));
+                return CompletableFuture.<HttpResponse<B>>failedFuture(failure);
+            }
+
+            long delay = backoffMillis(attempt);
+            LOGGER.log(Level.WARNING, "Fetching " + request.uri() + " failed (" + reason + "), retrying in " + delay + " ms");
+            return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS))
+                    .thenCompose(ignored -> send(request, handler, attempt + 1));
+        }).thenCompose(future -> future);
+    }
+
+    //Rate limiting, request timeouts and server-side errors may pass; anything else will fail again the same way
+    private static boolean retryable(int status) {
+        return status == 408 || status == 429 || status >= 500;
+    }
+
+    //Doubles the wait for every failed attempt up to MAX_BACKOFF, and picks a random point in its upper half so
+    //clients that failed together do not all retry together
+    private long backoffMillis(int attempt) {
+        long wait = Math.min(MAX_BACKOFF.toMillis(), backoff.toMillis() << Math.min(attempt - 1, 20));
+        return wait / 2 + ThreadLocalRandom.current().nextLong(wait / 2 + 1);
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    //Anything but a full or not-modified response is a failure that retrying did not fix
+    private static void checkStatus(HttpResponse<?> response) throws IOException {
+        if (response.statusCode() != 200) {
+            throw new IOException("Fetching " + response.uri() + " failed: HTTP " + response.statusCode());
+        }
+    }
+
+    private static void moveIntoPlace(Path temp, Path file) throws IOException {
+        try {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Records the validators of a file just put in place, so the next fetch can be conditional.
+     * Called after the file is in place, so stale validators never describe a newer file.
+     *
+     * @param response Response the file was saved from.
+     * @param metadata File holding the validators.
+     * @throws IOException If the validators cannot be written.
+     */
+    private static void saveValidators(HttpResponse<?> response, Path metadata) throws IOException {
+        Properties validators = new Properties();
+        response.headers().firstValue(ETAG).ifPresent(value -> validators.setProperty(ETAG, value));
+        response.headers().firstValue(LAST_MODIFIED).ifPresent(value -> validators.setProperty(LAST_MODIFIED, value));
+        if (validators.isEmpty()) {
+            Files.deleteIfExists(metadata);
+        } else {
+            Files.createDirectories(metadata.getParent());
+            try (OutputStream out = Files.newOutputStream(metadata)) {
+                validators.store(out, null);
+            }
+        }
+    }
+
+    //A missing or unreadable cache entry just means the file is fetched in full
+    private static Properties readValidators(Path metadata) {
+        Properties validators = new Properties();
+        if (Files.exists(metadata)) {
+            try (InputStream in = Files.newInputStream(metadata)) {
+                validators.load(in);
+            } catch (IOException e) {
+                validators.clear();
+            }
+        }
+        return validators;
+    }
+
+    /**
+     * Copies every byte read from a stream to a second stream.
+     */
+    private static final class TeeInputStream extends FilterInputStream {
+
+        private final OutputStream copy;
+
+        private TeeInputStream(InputStream in, OutputStream copy) {
+            super(in);
+            this.copy = copy;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int b = in.read();
+            if (b >= 0) copy.write(b);
+            return b;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            int count = in.read(bytes, offset, length);
+            if (count > 0) copy.write(bytes, offset, count);
+            return count;
+        }
+
+        //Skipped bytes still have to reach the copy
+        @Override
+        public long skip(long n) throws IOException {
+            byte[] discard = new byte[(int) Math.min(n, 8192)];
+            int count = read(discard, 0, discard.length);
+            return Math.max(count, 0);
+        }
+
+        @Override
+        public boolean markSupported() {
+            return false;
+        }
+
+        //Parsers close their input when done; the body stays open until the rest of it has been copied
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Indexed d-ary min-heap over integer ids.
+ * The position of every id is tracked, so decrease-key is a sift-up rather than a linear search.
+ */
+public class IndexedDaryHeap implements OpenList {
+
+    private final int arity;
+    private int[] heap = new int[64];
+    private int size;
+    //Per-id heap position (-1 when not queued) and f-score
+    private int[] position = new int[64];
+    private double[] fScore = new double[64];
+
+    /**
+     * Constructs an empty heap.
+     *
+     * @param arity Number of children per heap node, at least 2.
+     */
+    public IndexedDaryHeap(int arity) {
+        if (arity < 2) {
+            throw new IllegalArgumentException("Heap arity must be at least 2");
+        }
+        this.arity = arity;
+        Arrays.fill(position, -1);
+    }
+
+    @Override
+    public void insertOrDecrease(int id, double f) {
+        ensureId(id);
+        int index = position[id];
+        if (index >= 0) {
+            if (f < fScore[id]) {
+                fScore[id] = f;
+                siftUp(index);
+            }
+            return;
+        }
+
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        fScore[id] = f;
+        heap[size] = id;
+        position[id] = size;
+        siftUp(size++);
+    }
+
+    @Override
+    public int poll() {
+        if (size == 0) {
+            throw new IllegalStateException("Open list is empty");
+        }
+        int top = heap[0];
+        position[top] = -1;
+        if (--size > 0) {
+            heap[0] = heap[size];
+            position[heap[0]] = 0;
+            siftDown(0);
+        }
+        return top;
+    }
+
+    @Override
+    public double peekF() {
+        if (size == 0) {
+            throw new IllegalStateException("Open list is empty");
+        }
+        return fScore[heap[0]];
+    }
+
+    @Override
+    public boolean contains(int id) {
+        return id < position.length && position[id] >= 0;
+    }
+
+    @Override
+    public int size() { return this.size; }
+
+    private void ensureId(int id) {
+        if (id >= position.length) {
+            int oldLength = position.length;
+            int newLength = Math.max(id + 1, oldLength * 2);
+            position = Arrays.copyOf(position, newLength);
+            fScore = Arrays.copyOf(fScore, newLength);
+            Arrays.fill(position, oldLength, newLength, -1);
+        }
+    }
+
+    private void siftUp(int index) {
+        int id = heap[index];
+        double f = fScore[id];
+        while (index > 0) {
+            int parent = (index - 1) / arity;
+            if (fScore[heap[parent]] <= f) break;
+            heap[index] = heap[parent];
+            position[heap[index]] = index;
+            index = parent;
+        }
+        heap[index] = id;
+        position[id] = index;
+    }
+
+    private void siftDown(int index) {
+        int id = heap[index];
+        double f = fScore[id];
+        while (true) {
+            int firstChild = index * arity + 1;
+            if (firstChild >= size) break;
+
+            int best = firstChild;
+            int lastChild = Math.min(firstChild + arity, size);
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                if (fScore[heap[child]] < fScore[heap[best]]) best = child;
+            }
+            if (fScore[heap[best]] >= f) break;
+
+            heap[index] = heap[best];
+            position[heap[index]] = index;
+            index = best;
+        }
+        heap[index] = id;
+        position[id] = index;
+    }
+}
@@ -1,152 +1,287 @@
 package org.example;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.StreamWriteFeature;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-import uk.ac.ed.inf.ilp.data.LngLat;
 import uk.ac.ed.inf.ilp.data.Order;
 
-import java.io.BufferedWriter;
-import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.time.LocalDate;
 import java.util.*;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+/**
+ * JsonConverter class for writing the output files of a day.
+ * Paths and deliveries are written record by record through a JsonGenerator, so memory use does not grow with path length.
+ * The shared JsonFactory is fully configured during class initialisation and never reconfigured,
+ * so it is safe to use from concurrent drone threads.
+ * Planning writes through the write* methods via OutputStage. The file-based convert* methods are kept only for tests,
+ * benchmarks and the BinaryFlightpath conversion tool.
+ */
 public class JsonConverter {
 
     private static final Logger LOGGER = Logger.getLogger(JsonConverter.class.getName());
 
+    //Coordinates make up most of the output, so doubles go through Jackson's faster shortest-form writer
+    private static final JsonFactory jsonFactory = JsonFactory.builder()
+            .enable(StreamWriteFeature.USE_FAST_DOUBLE_WRITER)
+            .build();
+
+    //Starts each flightpath record on its own line, as the file has always been laid out
+    private static final MinimalPrettyPrinter recordPerLine = new MinimalPrettyPrinter() {
+        @Override
+        public void writeArrayValueSeparator(JsonGenerator g) throws IOException {
+            g.writeRaw(",\n");
+        }
+
+        @Override
+        public void writeEndArray(JsonGenerator g, int nrOfValues) throws IOException {
+            g.writeRaw(nrOfValues > 0 ? "\n]" : "]");
+        }
+    };
+
+    //Decimal places coordinates are rounded to, or -1 to write them exactly
+    private static volatile int coordinatePrecision = -1;
+
+    /**
+     * Sets the number of decimal places longitudes and latitudes are written with.
+     * Rounded coordinates no longer replay to exact move lengths, so full precision is the default.
+     * @param decimals Decimal places from 0 to 15, or -1 to write coordinates exactly.
+     */
+    public static void setCoordinatePrecision(int decimals) {
+        if (decimals < -1 || decimals > 15) {
+            throw new IllegalArgumentException("Coordinate precision must be between 0 and 15 decimal places, or -1");
+        }
+        coordinatePrecision = decimals;
+    }
+
+    public static int getCoordinatePrecision() { return coordinatePrecision; }
+
+    /**
+     * Rounds a coordinate to the configured precision.
+     * @param value Longitude or latitude.
+     * @return The value as written to output files.
+     */
+    static double coordinate(double value) {
+        int decimals = coordinatePrecision;
+        if (decimals < 0) return value;
+        double scale = Math.pow(10, decimals);
+        return Math.round(value * scale) / scale;
+    }
+
+    private static JsonGenerator createGenerator(OutputStream out) throws IOException {
+        return jsonFactory.createGenerator(out, JsonEncoding.UTF8);
+    }
+
     /**
      * Converts a list of Nodes to a GeoJSON file.
+     * Kept for tests and benchmarks; planning writes through writeGeoJson.
      * @param nodes The list of Node objects.
      * @param fileName The name of the file to save.
      * @throws IOException If an I/O error occurs.
      */
     public void convertNodesToGeoJson(List<Node> nodes, String fileName) throws IOException {
-        Map<String, Object> geoJson = new HashMap<>();
-        geoJson.put("type", "FeatureCollection");
-
-        List<double[]> coordinates = new ArrayList<>();
-        for (Node node : nodes) {
-            coordinates.add(new double[]{node.lng(), node.lat()});
+        String outputPath = fileName + ".geojson";
+        try (OutputStream out = Files.newOutputStream(Paths.get(outputPath))) {
+            writeGeoJson(nodes, out);
         }
+        System.out.println("File was written: " + outputPath);
+    }
 
-        Map<String, Object> feature = new HashMap<>();
-        feature.put("type", "Feature");
-
-        Map<String, Object> geometry = new HashMap<>();
-        geometry.put("type", "LineString");
-        geometry.put("coordinates", coordinates);
-
-        // Adding an empty properties map for the feature
-        Map<String, Object> properties = new HashMap<>();
-        feature.put("properties", properties);
-
-        feature.put("geometry", geometry);
+    /**
+     * Writes a list of Nodes as a GeoJSON LineString feature.
+     * @param nodes The list of Node objects.
+     * @param out Stream to write to, closed when done.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void writeGeoJson(List<Node> nodes, OutputStream out) throws IOException {
+        try (JsonGenerator generator = createGenerator(out)) {
+            generator.writeStartObject();
+            generator.writeStringField("type", "FeatureCollection");
+            generator.writeArrayFieldStart("features");
 
-        List<Map<String, Object>> features = new ArrayList<>();
-        features.add(feature);
-        geoJson.put("features", features);
+            generator.writeStartObject();
+            generator.writeStringField("type", "Feature");
+            //Empty properties map for the feature
+            generator.writeObjectFieldStart("properties");
+            generator.writeEndObject();
 
-        File file = new File(fileName + ".geojson");
-        ObjectMapper objectMapper = new ObjectMapper();
-        objectMapper.enable(SerializationFeature.INDENT_OUTPUT);
-        objectMapper.writeValue(file, geoJson);
-        System.out.println("File was written: " + fileName + ".geojson");
-    }
+            generator.writeObjectFieldStart("geometry");
+            generator.writeStringField("type", "LineString");
+            generator.writeArrayFieldStart("coordinates");
+            for (Node node : nodes) {
+                generator.writeStartArray();
+                generator.writeNumber(coordinate(node.lng()));
+                generator.writeNumber(coordinate(node.lat()));
+                generator.writeEndArray();
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
 
-    // Nested class for Data Transfer Object
-    static class OrderDTO {
-        private String orderNo;
-        private String orderStatus;
-        private String orderValidationCode;
-        private int costInPence;
-
-        public OrderDTO(Order order) {
-            this.orderNo = order.getOrderNo();
-            this.orderStatus = String.valueOf(order.getOrderStatus());
-            this.orderValidationCode = String.valueOf(order.getOrderValidationCode());
-            this.costInPence = order.getPriceTotalInPence();
+            generator.writeEndObject();
+            generator.writeEndArray();
+            generator.writeEndObject();
         }
-
-        public String getOrderNo() { return this.orderNo; }
-        public String getOrderStatus() { return this.orderStatus; }
-        public String getOrderValidationCode() { return this.orderValidationCode; }
-        public int getCostInPence() { return this.costInPence; }
     }
 
     /**
      * Converts orders to a JSON file.
+     * Kept for tests and benchmarks; planning writes through writeOrders.
      * @param orders Array of Order objects.
      * @param fileName The name of the deliveries file.
      */
     public void convertOrdersToJson(Order[] orders, String fileName) {
-        ObjectMapper mapper = new ObjectMapper();
-        try {
-            OrderDTO[] orderDTOs = new OrderDTO[orders.length];
-            for (int i = 0; i < orders.length; i++) {
-                orderDTOs[i] = new OrderDTO(orders[i]);
-            }
-            String orderString = mapper.writeValueAsString(orderDTOs);
-            Files.write(Paths.get(fileName + ".json"), orderString.getBytes());
-            System.out.println("File was written: " + fileName + ".json");
+        String outputPath = fileName + ".json";
+        try (OutputStream out = Files.newOutputStream(Paths.get(outputPath))) {
+            writeOrders(orders, out);
         } catch (IOException e) {
             LOGGER.log(Level.SEVERE, e.toString(), e);
             System.exit(1);
         }
+        System.out.println("File was written: " + outputPath);
+    }
+
+    /**
+     * Writes the delivery outcome of each order.
+     * @param orders Array of Order objects.
+     * @param out Stream to write to, closed when done.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void writeOrders(Order[] orders, OutputStream out) throws IOException {
+        try (JsonGenerator generator = createGenerator(out)) {
+            generator.writeStartArray();
+            for (Order order : orders) {
+                generator.writeStartObject();
+                generator.writeStringField("orderNo", order.getOrderNo());
+                generator.writeStringField("orderStatus", String.valueOf(order.getOrderStatus()));
+                generator.writeStringField("orderValidationCode", String.valueOf(order.getOrderValidationCode()));
+                generator.writeNumberField("costInPence", order.getPriceTotalInPence());
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        }
     }
 
     /**
      * Converts a flight path to a JSON file.
-     * @param flightpath List of Node objects representing the flight path.
+     * Kept for tests, benchmarks and BinaryFlightpath's conversion tool; planning writes through writeFlightpath.
+     * Nodes are only visited once and in order, so the path may be streamed, as BinaryFlightpath does.
+     * @param flightpath Node objects representing the flight path.
      * @param fileName The file name to save the JSON data.
      */
-    public void convertFlightpathToJson(List<Node> flightpath, String fileName) {
-        // Initialize ObjectMapper
-        ObjectMapper mapper = new ObjectMapper();
-        // Define the output file path
+    public void convertFlightpathToJson(Iterable<Node> flightpath, String fileName) {
         String outputPath = fileName + ".json";
+        try (OutputStream out = Files.newOutputStream(Paths.get(outputPath))) {
+            writeFlightpath(flightpath, out);
+        } catch (IOException | UncheckedIOException e) {
+            LOGGER.log(Level.SEVERE, e.toString(), e);
+            System.exit(1);
+        }
+        System.out.println("File was written: " + outputPath);
+    }
 
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(outputPath))) {
-            // Start of JSON array
-            writer.write("[");
-            for (int i = 1; i < flightpath.size(); i++) {
-                Node parent = flightpath.get(i - 1);
-                Node current = flightpath.get(i);
-
-                // Create a map to hold the attributes
-                Map<String, Object> record = new HashMap<>();
-                if (!Objects.equals(current.orderNo, parent.orderNo)) {
-                    record.put("orderNo", parent.orderNo);
-                } else {
-                    record.put("orderNo", current.orderNo);
-                }
-                record.put("fromLongitude", parent.lng());
-                record.put("fromLatitude", parent.lat());
-                record.put("angle", current.angle);
-                record.put("toLongitude", current.lng());
-                record.put("toLatitude", current.lat());
-
-                String json = mapper.writeValueAsString(record);
-                writer.write(json);
-                // If this is not the last item, add a comma
-                if (i < flightpath.size() - 1) {
-                    writer.write(",");
+    /**
+     * Writes one record per move of a flight path.
+     * @param flightpath Node objects representing the flight path.
+     * @param out Stream to write to, closed when done.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void writeFlightpath(Iterable<Node> flightpath, OutputStream out) throws IOException {
+        try (JsonGenerator generator = createGenerator(out)) {
+            generator.setPrettyPrinter(recordPerLine);
+            generator.writeStartArray();
+            Node parent = null;
+            for (Node current : flightpath) {
+                if (parent != null) {
+                    generator.writeStartObject();
+                    //A move changing order belongs to the order being finished
+                    generator.writeStringField("orderNo", Objects.equals(current.orderNo, parent.orderNo) ? current.orderNo : parent.orderNo);
+                    generator.writeNumberField("fromLongitude", coordinate(parent.lng()));
+                    generator.writeNumberField("fromLatitude", coordinate(parent.lat()));
+                    generator.writeNumberField("angle", current.angle);
+                    generator.writeNumberField("toLatitude", coordinate(current.lat()));
+                    generator.writeNumberField("toLongitude", coordinate(current.lng()));
+                    generator.writeEndObject();
                 }
-                //newline for readability
-                writer.newLine();
+                parent = current;
             }
-            writer.write("]");
-            System.out.println("File was written: " + outputPath);
-        } catch (IOException e) {
-            LOGGER.log(Level.SEVERE, e.toString(), e);
-            System.exit(1);
+            generator.writeEndArray();
         }
     }
+
+    /**
+     * Writes search effort metrics for a day.
+     * @param orderMetrics Metrics of each planned order, in delivery order.
+     * @param undelivered Numbers of the valid orders that were planned but could not be flown.
+     * @param planningNanos Elapsed time spent planning all orders, in nanoseconds.
+     * @param date Date the orders were planned for.
+     * @param searchMode Search algorithm used for the day.
+     * @param out Stream to write to, closed when done.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void writeMetrics(List<SearchMetrics.OrderMetrics> orderMetrics, List<String> undelivered, long planningNanos, String date, SearchMode searchMode,
+                             OutputStream out) throws IOException {
+        SearchMetrics dayTotal = new SearchMetrics();
+        int dayMovesSaved = 0;
+        List<Map<String, Object>> orders = new ArrayList<>();
+        for (SearchMetrics.OrderMetrics order : orderMetrics) {
+            List<Map<String, Object>> legs = new ArrayList<>();
+            for (SearchMetrics leg : order.legs()) {
+                Map<String, Object> legRecord = metricsRecord(leg);
+                legRecord.put("cached", leg.getCachedLegs() > 0);
+                legs.add(legRecord);
+            }
+
+            SearchMetrics orderTotal = order.total();
+            dayTotal.add(orderTotal);
+
+            Map<String, Object> orderRecord = new LinkedHashMap<>();
+            orderRecord.put("orderNo", order.orderNo());
+            orderRecord.put("total", totalRecord(orderTotal));
+            orderRecord.put("movesSaved", order.movesSaved());
+            orderRecord.put("legs", legs);
+            dayMovesSaved += order.movesSaved();
+            orders.add(orderRecord);
+        }
+
+        Map<String, Object> day = new LinkedHashMap<>();
+        day.put("date", date);
+        day.put("searchMode", String.valueOf(searchMode));
+        day.put("planningWallTimeMs", planningNanos / 1e6);
+        day.put("total", totalRecord(dayTotal));
+        day.put("movesSaved", dayMovesSaved);
+        day.put("undeliveredOrders", undelivered);
+        day.put("orders", orders);
+
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.enable(SerializationFeature.INDENT_OUTPUT);
+        mapper.writeValue(out, day);
+    }
+
+    private static Map<String, Object> metricsRecord(SearchMetrics metrics) {
+        Map<String, Object> record = new LinkedHashMap<>();
+        record.put("nodesExpanded", metrics.getNodesExpanded());
+        record.put("nodesGenerated", metrics.getNodesGenerated());
+        record.put("peakOpenSize", metrics.getPeakOpenSize());
+        record.put("closedSize", metrics.getClosedSize());
+        record.put("validityChecks", metrics.getValidityChecks());
+        record.put("polygonEdgeTests", metrics.getPolygonEdgeTests());
+        record.put("wallTimeMs", metrics.getWallTimeMs());
+        return record;
+    }
+
+    private static Map<String, Object> totalRecord(SearchMetrics metrics) {
+        Map<String, Object> record = metricsRecord(metrics);
+        record.put("legs", metrics.getLegs());
+        record.put("cachedLegs", metrics.getCachedLegs());
+        return record;
+    }
 }
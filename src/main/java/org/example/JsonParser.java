@@ -1,5 +1,6 @@
 package org.example;
 
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import uk.ac.ed.inf.ilp.data.NamedRegion;
@@ -7,13 +8,24 @@ import uk.ac.ed.inf.ilp.data.Order;
 import uk.ac.ed.inf.ilp.data.Restaurant;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
 import java.util.logging.Logger;
 
 /**
  * JsonParser class for parsing various JSON files.
+ * Every file can also be parsed from a stream, such as a response body, without being written to disk first.
+ * The shared ObjectMapper is fully configured during class initialisation and never
+ * reconfigured, so it is safe to use from concurrent planning threads.
  */
 public class JsonParser {
     private static final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
@@ -35,6 +47,16 @@ public class JsonParser {
         return objectMapper.readValue(Files.readString(path), Restaurant[].class);
     }
 
+    /**
+     * Parses a JSON stream to Restaurant array.
+     * @param in Stream holding the JSON array, closed when done.
+     * @return Array of Restaurant objects.
+     * @throws IOException If the stream cannot be read or parsed.
+     */
+    public Restaurant[] parseRestaurant(InputStream in) throws IOException {
+        return objectMapper.readValue(in, Restaurant[].class);
+    }
+
     /**
      * Parses JSON file to Order array.
      * @param fileString The path to the JSON file.
@@ -42,13 +64,112 @@ public class JsonParser {
      * @throws IOException If file cannot be read.
      */
     public Order[] parseOrders(String fileString) throws IOException {
+        List<Order> orders = new ArrayList<>();
+        streamOrders(fileString, orders::add);
+        return orders.toArray(new Order[0]);
+    }
+
+    /**
+     * Parses a JSON stream to Order array, reading it one order at a time.
+     * @param in Stream holding the JSON array, closed when done.
+     * @return Array of Order objects.
+     * @throws IOException If the stream cannot be read or does not hold an array of orders.
+     */
+    public Order[] parseOrders(InputStream in) throws IOException {
+        List<Order> orders = new ArrayList<>();
+        streamOrders(in, orders::add);
+        return orders.toArray(new Order[0]);
+    }
+
+    /**
+     * Memory-maps an orders file and passes each order to a consumer as soon as it has been read.
+     * Only the order being read is held in memory, never the file text or the whole array.
+     * @param fileString The path to the JSON file.
+     * @param consumer Receives the orders in file order.
+     * @return Number of orders read.
+     * @throws IOException If file cannot be read or does not hold an array of orders.
+     */
+    public int streamOrders(String fileString, Consumer<Order> consumer) throws IOException {
         Path path = Paths.get(fileString);
         if (!Files.exists(path)) {
             System.out.println("Order(s) file does not exist");
-            return new Order[0];
+            return 0;
+        }
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            //A mapping is limited to 2 GB, larger files are streamed through the channel instead
+            if (channel.size() <= Integer.MAX_VALUE) {
+                return streamOrders(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), consumer);
+            }
+            return streamOrders(Channels.newInputStream(channel), consumer);
+        }
+    }
+
+    /**
+     * Reads a JSON array of orders held in a buffer, such as a mapped file or a received payload, and passes each
+     * order to a consumer. The bytes are read in place without copying the buffer onto the heap.
+     * @param buffer Buffer holding the JSON array between its position and limit.
+     * @param consumer Receives the orders in buffer order.
+     * @return Number of orders read.
+     * @throws IOException If the buffer does not hold an array of orders.
+     */
+    public int streamOrders(ByteBuffer buffer, Consumer<Order> consumer) throws IOException {
+        return streamOrders(new ByteBufferInputStream(buffer.duplicate()), consumer);
+    }
+
+    /**
+     * Reads a JSON array of orders token by token and passes each order to a consumer.
+     * @param in Stream holding the JSON array, closed when done.
+     * @param consumer Receives the orders in stream order.
+     * @return Number of orders read.
+     * @throws IOException If the stream cannot be read or does not hold an array of orders.
+     */
+    public int streamOrders(InputStream in, Consumer<Order> consumer) throws IOException {
+        int count = 0;
+        try (com.fasterxml.jackson.core.JsonParser parser = objectMapper.getFactory().createParser(in)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw new IOException("Expected an array of orders");
+            }
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                consumer.accept(objectMapper.readValue(parser, Order.class));
+                count++;
+            }
+            if (parser.currentToken() != JsonToken.END_ARRAY) {
+                throw new IOException("Expected an order object but found " + parser.currentToken());
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Reads bytes from a buffer, such as a memory-mapped file, without copying it onto the heap first.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        private ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (length == 0) return 0;
+            if (!buffer.hasRemaining()) return -1;
+            int chunk = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, chunk);
+            return chunk;
         }
 
-        return objectMapper.readValue(Files.readString(path), Order[].class);
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
     }
 
     /**
@@ -67,6 +188,16 @@ public class JsonParser {
         return objectMapper.readValue(Files.readString(path), NamedRegion.class);
     }
 
+    /**
+     * Parses a JSON stream to a NamedRegion object representing the central area.
+     * @param in Stream holding the JSON object, closed when done.
+     * @return NamedRegion object.
+     * @throws IOException If the stream cannot be read or parsed.
+     */
+    public NamedRegion parseCentralArea(InputStream in) throws IOException {
+        return objectMapper.readValue(in, NamedRegion.class);
+    }
+
     /**
      * Parses JSON file to NamedRegion array representing no-fly zones.
      * @param fileString The path to the JSON file.
@@ -82,4 +213,14 @@ public class JsonParser {
 
         return objectMapper.readValue(Files.readString(path), NamedRegion[].class);
     }
+
+    /**
+     * Parses a JSON stream to NamedRegion array representing no-fly zones.
+     * @param in Stream holding the JSON array, closed when done.
+     * @return Array of NamedRegion objects.
+     * @throws IOException If the stream cannot be read or parsed.
+     */
+    public NamedRegion[] parseNoFlyZones(InputStream in) throws IOException {
+        return objectMapper.readValue(in, NamedRegion[].class);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,167 @@
+package org.example;
+
+import uk.ac.ed.inf.ilp.constant.SystemConstants;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Landmark (ALT) heuristic over the legal move lattice.
+ * Flight distances from each landmark are computed once by a Dijkstra search over a grid of one move per cell
+ * that respects the no-fly zones, then the triangle inequality |d(L, goal) - d(L, n)| bounds the distance from n
+ * to the goal. Each landmark term is reduced by a slack covering the snapping of positions to grid points,
+ * and the result is never below the lattice distance.
+ * The grid distances are only approximations of lattice flight distances: near zone edges a grid detour can
+ * differ from the flown one by more than the slack, so the estimate is not guaranteed to be admissible.
+ */
+public class LandmarkHeuristic implements Heuristic {
+
+    private static final double GRID_CELL = SystemConstants.DRONE_MOVE_DISTANCE;
+    //Allowance for positions being snapped to grid points at both ends of a bound
+    private static final double SLACK = SystemConstants.DRONE_MOVE_DISTANCE * 2;
+    //Area searched around the landmarks and zones, so detours around zones are covered
+    private static final double MARGIN = 0.002;
+    //Grid steps reaching the 16 cells nearest each compass heading
+    private static final int[][] STENCIL = {
+            {1, 0}, {2, 1}, {1, 1}, {1, 2}, {0, 1}, {-1, 2}, {-1, 1}, {-2, 1},
+            {-1, 0}, {-2, -1}, {-1, -1}, {-1, -2}, {0, -1}, {1, -2}, {1, -1}, {2, -1}};
+
+    private final LngLat[] landmarks;
+    private final NamedRegion[] noFlyZones;
+    private final double gridMinLng;
+    private final double gridMinLat;
+    private final int columns;
+    private final int rows;
+    //Distance from each landmark to each grid point, NaN where unreachable
+    private final double[][] distances;
+
+    /**
+     * Precomputes flight distances from each landmark.
+     *
+     * @param landmarks  Positions to measure from, typically Appleton Tower and each restaurant.
+     * @param noFlyZones Array of no-fly zones.
+     */
+    public LandmarkHeuristic(LngLat[] landmarks, NamedRegion[] noFlyZones) {
+        this.landmarks = landmarks;
+        this.noFlyZones = noFlyZones;
+
+        double minLng = Double.MAX_VALUE, minLat = Double.MAX_VALUE;
+        double maxLng = -Double.MAX_VALUE, maxLat = -Double.MAX_VALUE;
+        List<LngLat> extent = new ArrayList<>(List.of(landmarks));
+        for (NamedRegion zone : noFlyZones) {
+            extent.addAll(List.of(zone.vertices()));
+        }
+        for (LngLat point : extent) {
+            minLng = Math.min(minLng, point.lng());
+            minLat = Math.min(minLat, point.lat());
+            maxLng = Math.max(maxLng, point.lng());
+            maxLat = Math.max(maxLat, point.lat());
+        }
+
+        gridMinLng = minLng - MARGIN;
+        gridMinLat = minLat - MARGIN;
+        columns = (int) Math.ceil((maxLng + MARGIN - gridMinLng) / GRID_CELL) + 1;
+        rows = (int) Math.ceil((maxLat + MARGIN - gridMinLat) / GRID_CELL) + 1;
+
+        NoFlyZoneIndex zoneIndex = Flightpath.zoneIndexFor(noFlyZones);
+        boolean[] blocked = new boolean[columns * rows];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                blocked[r * columns + c] = zoneIndex.isInAnyZone(lngOf(c), latOf(r));
+            }
+        }
+
+        distances = new double[landmarks.length][];
+        for (int i = 0; i < landmarks.length; i++) {
+            distances[i] = distancesFrom(landmarks[i], blocked, zoneIndex);
+        }
+    }
+
+    public LngLat[] landmarks() { return this.landmarks; }
+
+    public NamedRegion[] noFlyZones() { return this.noFlyZones; }
+
+    private double lngOf(int column) { return gridMinLng + column * GRID_CELL; }
+
+    private double latOf(int row) { return gridMinLat + row * GRID_CELL; }
+
+    /**
+     * Returns the grid point nearest a position.
+     *
+     * @return Index of the grid point, or -1 if the position is outside the grid.
+     */
+    private int gridIndex(double lng, double lat) {
+        long c = Math.round((lng - gridMinLng) / GRID_CELL);
+        long r = Math.round((lat - gridMinLat) / GRID_CELL);
+        if (c < 0 || r < 0 || c >= columns || r >= rows) return -1;
+        return (int) (r * columns + c);
+    }
+
+    /**
+     * Runs Dijkstra over the grid from the grid point nearest a landmark.
+     * Each step costs the lattice distance of its displacement and must not cross a zone.
+     *
+     * @return Shortest distance to each grid point, NaN where unreachable.
+     */
+    private double[] distancesFrom(LngLat landmark, boolean[] blocked, NoFlyZoneIndex zoneIndex) {
+        double[] distance = new double[columns * rows];
+        Arrays.fill(distance, Double.NaN);
+        int root = gridIndex(landmark.lng(), landmark.lat());
+        if (root < 0) return distance;
+
+        boolean[] settled = new boolean[columns * rows];
+        OpenList openSet = new IndexedDaryHeap(4);
+        distance[root] = 0;
+        openSet.insertOrDecrease(root, 0);
+
+        while (!openSet.isEmpty()) {
+            int current = openSet.poll();
+            settled[current] = true;
+            int c = current % columns, r = current / columns;
+
+            for (int[] step : STENCIL) {
+                int nextC = c + step[0], nextR = r + step[1];
+                if (nextC < 0 || nextR < 0 || nextC >= columns || nextR >= rows) continue;
+                int next = nextR * columns + nextC;
+                if (settled[next] || blocked[next]) continue;
+
+                double tentative = distance[current] + GRID_CELL * LatticeDistanceHeuristic.distance(step[0], step[1]);
+                if (tentative >= distance[next]) continue;
+                if (!zoneIndex.isValidSegment(lngOf(nextC), latOf(nextR), lngOf(c), latOf(r))) continue;
+
+                distance[next] = tentative;
+                openSet.insertOrDecrease(next, tentative);
+            }
+        }
+        return distance;
+    }
+
+    /**
+     * Looks up the precomputed distance from a landmark to the grid point nearest a position.
+     *
+     * @param landmark Index of the landmark.
+     * @param lng      Longitude of the position.
+     * @param lat      Latitude of the position.
+     * @return The distance, or NaN if the position is outside the grid or unreachable.
+     */
+    double distanceFromLandmark(int landmark, double lng, double lat) {
+        int index = gridIndex(lng, lat);
+        return index < 0 ? Double.NaN : distances[landmark][index];
+    }
+
+    @Override
+    public double estimate(double fromLng, double fromLat, double toLng, double toLat) {
+        double best = LatticeDistanceHeuristic.distance(toLng - fromLng, toLat - fromLat) - Flightpath.GOAL_TOLERANCE;
+        for (int i = 0; i < landmarks.length; i++) {
+            double toGoal = distanceFromLandmark(i, toLng, toLat);
+            double toCurrent = distanceFromLandmark(i, fromLng, fromLat);
+            //Comparisons with NaN are false, so unknown cells never raise the estimate
+            double bound = Math.abs(toGoal - toCurrent) - SLACK - Flightpath.GOAL_TOLERANCE;
+            if (bound > best) best = bound;
+        }
+        return Math.max(0, best);
+    }
+}
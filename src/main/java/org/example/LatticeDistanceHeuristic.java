@@ -0,0 +1,36 @@
+package org.example;
+
+/**
+ * Closed-form shortest distance between two positions when only the 16 compass headings may be flown.
+ * The displacement is split between the two headings either side of its bearing, which is the cheapest
+ * way to cover it with those headings, so the estimate is never below the straight-line distance
+ * and never above the length of a real lattice path.
+ * As the search stops within Flightpath.GOAL_TOLERANCE of the goal, the estimate is reduced by that tolerance.
+ */
+public class LatticeDistanceHeuristic implements Heuristic {
+
+    private static final double SECTOR = Math.toRadians(LngLatHandler.DIRECTION_STEP);
+    private static final double SIN_SECTOR = Math.sin(SECTOR);
+
+    @Override
+    public double estimate(double fromLng, double fromLat, double toLng, double toLat) {
+        return Math.max(0, distance(toLng - fromLng, toLat - fromLat) - Flightpath.GOAL_TOLERANCE);
+    }
+
+    /**
+     * Computes the lattice distance of a displacement.
+     *
+     * @param dLng Longitude displacement.
+     * @param dLat Latitude displacement.
+     * @return Length of the cheapest combination of the two bracketing headings.
+     */
+    public static double distance(double dLng, double dLat) {
+        double length = Math.hypot(dLng, dLat);
+        if (length == 0) return 0;
+
+        double bearing = Math.atan2(Math.abs(dLat), Math.abs(dLng));
+        //By symmetry only the angle into the sector between two adjacent headings matters
+        double offset = bearing % SECTOR;
+        return length * (Math.sin(SECTOR - offset) + Math.sin(offset)) / SIN_SECTOR;
+    }
+}
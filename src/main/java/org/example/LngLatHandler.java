@@ -12,11 +12,28 @@ import static org.example.PointInAreaHandler.isPointInsidePolygon;
 
 /**
  * Provides utilities for handling geographical points represented as LngLat.
+ * Instances hold no state, so a single handler can be shared across threads.
  */
 public class LngLatHandler implements LngLatHandling {
 
     private static final Logger LOGGER = Logger.getLogger(LngLatHandler.class.getName());
 
+    //Move offsets for the 16 compass directions, indexed by angle / 22.5
+    static final int DIRECTIONS = 16;
+    static final double DIRECTION_STEP = 22.5;
+    static final double[] DIRECTION_ANGLES = new double[DIRECTIONS];
+    static final double[] DIRECTION_LNG = new double[DIRECTIONS];
+    static final double[] DIRECTION_LAT = new double[DIRECTIONS];
+
+    static {
+        for (int direction = 0; direction < DIRECTIONS; direction++) {
+            double angle = direction * DIRECTION_STEP;
+            DIRECTION_ANGLES[direction] = angle;
+            DIRECTION_LNG[direction] = SystemConstants.DRONE_MOVE_DISTANCE * Math.cos(Math.toRadians(angle));
+            DIRECTION_LAT[direction] = SystemConstants.DRONE_MOVE_DISTANCE * Math.sin(Math.toRadians(angle));
+        }
+    }
+
     public LngLatHandler() {
         // Default constructor for LngLatHandler
     }
@@ -111,6 +128,32 @@ public class LngLatHandler implements LngLatHandling {
         return isPointInsidePolygon(position, region.vertices());
     }
 
+    /**
+     * Determine if a point given by primitive coordinates lies within a defined region.
+     *
+     * @param lng    Longitude of the point to check.
+     * @param lat    Latitude of the point to check.
+     * @param region The region to check against.
+     * @return true if the point is inside the region, false otherwise.
+     */
+    public boolean isInRegion(double lng, double lat, NamedRegion region) {
+        return isPointInsidePolygon(lng, lat, region.vertices());
+    }
+
+    /**
+     * Find the index of a compass direction in the precomputed offset tables.
+     *
+     * @param angle The direction in degrees.
+     * @return The direction index, or -1 if the angle is not a multiple of 22.5 degrees in [0, 360).
+     */
+    static int directionIndex(double angle) {
+        double index = angle / DIRECTION_STEP;
+        if (index < 0 || index >= DIRECTIONS || index != Math.floor(index)) {
+            return -1;
+        }
+        return (int) index;
+    }
+
     /**
      * Calculate the next position of a point when moved in a certain direction by a fixed distance.
      *
@@ -124,6 +167,11 @@ public class LngLatHandler implements LngLatHandling {
             return startPosition;
         }
 
+        int direction = directionIndex(angle);
+        if (direction >= 0) {
+            return new LngLat(startPosition.lng() + DIRECTION_LNG[direction], startPosition.lat() + DIRECTION_LAT[direction]);
+        }
+
         double sine = Math.sin(Math.toRadians(angle));
         double cosine = Math.cos(Math.toRadians(angle));
 
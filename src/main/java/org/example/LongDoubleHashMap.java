@@ -0,0 +1,124 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash map from primitive long keys to primitive double values.
+ * Used by the pathfinding algorithm to store the best known cost of each lattice cell.
+ */
+public class LongDoubleHashMap {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final double LOAD_FACTOR = 0.5;
+
+    private long[] keys;
+    private double[] values;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    /**
+     * Constructs an empty map with room for the given number of entries before resizing.
+     *
+     * @param expectedSize Expected number of entries.
+     */
+    public LongDoubleHashMap(int expectedSize) {
+        allocate(LongHashSet.tableSizeFor(expectedSize));
+    }
+
+    public LongDoubleHashMap() {
+        this(64);
+    }
+
+    /**
+     * Associates a value with a key, replacing any previous value.
+     *
+     * @param key   The key. Must not be Long.MIN_VALUE.
+     * @param value The value to store.
+     */
+    public void put(long key, double value) {
+        checkKey(key);
+        int slot = findSlot(key);
+        if (keys[slot] == key) {
+            values[slot] = value;
+            return;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    /**
+     * Retrieves the value for a key.
+     *
+     * @param key          The key to look up.
+     * @param defaultValue Value returned when the key is absent.
+     * @return The stored value, or defaultValue if the key is absent.
+     */
+    public double get(long key, double defaultValue) {
+        checkKey(key);
+        int slot = findSlot(key);
+        return keys[slot] == key ? values[slot] : defaultValue;
+    }
+
+    /**
+     * Checks whether a key is present in the map.
+     *
+     * @param key The key to look up.
+     * @return true if the key is present, false otherwise.
+     */
+    public boolean containsKey(long key) {
+        checkKey(key);
+        return keys[findSlot(key)] == key;
+    }
+
+    public int size() { return this.size; }
+
+    public boolean isEmpty() { return this.size == 0; }
+
+    /**
+     * Removes all entries while keeping the allocated tables.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    private int findSlot(long key) {
+        int slot = LongHashSet.mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        double[] oldValues = values;
+        allocate(newCapacity);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                int slot = findSlot(oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        values = new double[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static void checkKey(long key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Long.MIN_VALUE is reserved as the empty marker");
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.example;
+
+import java.util.Arrays;
+
+/**
+ * Open-addressing hash set of primitive long keys.
+ * Used by the pathfinding algorithm to track visited lattice cells without boxing.
+ */
+public class LongHashSet {
+
+    private static final long EMPTY = Long.MIN_VALUE;
+    private static final double LOAD_FACTOR = 0.5;
+
+    private long[] keys;
+    private int mask;
+    private int size;
+    private int resizeThreshold;
+
+    /**
+     * Constructs an empty set with room for the given number of keys before resizing.
+     *
+     * @param expectedSize Expected number of keys.
+     */
+    public LongHashSet(int expectedSize) {
+        allocate(tableSizeFor(expectedSize));
+    }
+
+    public LongHashSet() {
+        this(64);
+    }
+
+    /**
+     * Adds a key to the set.
+     *
+     * @param key The key to add. Must not be Long.MIN_VALUE.
+     * @return true if the key was not already present, false otherwise.
+     */
+    public boolean add(long key) {
+        checkKey(key);
+        int slot = findSlot(key);
+        if (keys[slot] == key) return false;
+
+        keys[slot] = key;
+        if (++size > resizeThreshold) {
+            rehash(keys.length << 1);
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a key is present in the set.
+     *
+     * @param key The key to look up.
+     * @return true if the key is present, false otherwise.
+     */
+    public boolean contains(long key) {
+        checkKey(key);
+        return keys[findSlot(key)] == key;
+    }
+
+    public int size() { return this.size; }
+
+    public boolean isEmpty() { return this.size == 0; }
+
+    /**
+     * Removes all keys while keeping the allocated table.
+     */
+    public void clear() {
+        Arrays.fill(keys, EMPTY);
+        size = 0;
+    }
+
+    /**
+     * Finds the slot holding the key, or the empty slot where it would be inserted.
+     *
+     * @param key The key to look up.
+     * @return Index into the key table.
+     */
+    private int findSlot(long key) {
+        int slot = mix(key) & mask;
+        while (keys[slot] != EMPTY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    private void rehash(int newCapacity) {
+        long[] oldKeys = keys;
+        allocate(newCapacity);
+        for (long key : oldKeys) {
+            if (key != EMPTY) {
+                keys[findSlot(key)] = key;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        Arrays.fill(keys, EMPTY);
+        mask = capacity - 1;
+        resizeThreshold = (int) (capacity * LOAD_FACTOR);
+    }
+
+    private static void checkKey(long key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("Long.MIN_VALUE is reserved as the empty marker");
+        }
+    }
+
+    /**
+     * Returns the smallest power of two table size that holds the expected keys under the load factor.
+     *
+     * @param expectedSize Expected number of keys.
+     * @return Table capacity.
+     */
+    static int tableSizeFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity * LOAD_FACTOR < expectedSize) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /**
+     * Spreads the bits of a key so that neighbouring lattice cells land in distant slots.
+     *
+     * @param key The key to hash.
+     * @return Hash value.
+     */
+    static int mix(long key) {
+        key ^= (key >>> 33);
+        key *= 0xff51afd7ed558ccdL;
+        key ^= (key >>> 33);
+        key *= 0xc4ceb9fe1a85ec53L;
+        key ^= (key >>> 33);
+        return (int) key;
+    }
+}
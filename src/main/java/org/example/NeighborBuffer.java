@@ -0,0 +1,60 @@
+package org.example;
+
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+/**
+ * Reusable primitive storage for the legal moves out of a single position.
+ * One buffer is owned by each search, so expanding a node allocates nothing.
+ */
+public class NeighborBuffer {
+
+    final double[] lng = new double[LngLatHandler.DIRECTIONS];
+    final double[] lat = new double[LngLatHandler.DIRECTIONS];
+    final int[] direction = new int[LngLatHandler.DIRECTIONS];
+    int size;
+
+    /**
+     * Fills the buffer with the positions reached by all 16 compass moves, legal or not.
+     * Lets a search discard already-visited candidates before paying for the legality check.
+     *
+     * @param fromLng Longitude of the position being expanded.
+     * @param fromLat Latitude of the position being expanded.
+     */
+    public void fill(double fromLng, double fromLat) {
+        for (int d = 0; d < LngLatHandler.DIRECTIONS; d++) {
+            lng[d] = fromLng + LngLatHandler.DIRECTION_LNG[d];
+            lat[d] = fromLat + LngLatHandler.DIRECTION_LAT[d];
+            direction[d] = d;
+        }
+        size = LngLatHandler.DIRECTIONS;
+    }
+
+    /**
+     * Fills the buffer with the positions reached by each legal compass move, in increasing angle order.
+     *
+     * @param fromLng    Longitude of the position being expanded.
+     * @param fromLat    Latitude of the position being expanded.
+     * @param noFlyZones Array of no-fly zones the moves must avoid.
+     */
+    public void expand(double fromLng, double fromLat, NamedRegion[] noFlyZones) {
+        size = 0;
+        for (int d = 0; d < LngLatHandler.DIRECTIONS; d++) {
+            double toLng = fromLng + LngLatHandler.DIRECTION_LNG[d];
+            double toLat = fromLat + LngLatHandler.DIRECTION_LAT[d];
+            if (Flightpath.isValidMove(toLng, toLat, fromLng, fromLat, noFlyZones)) {
+                lng[size] = toLng;
+                lat[size] = toLat;
+                direction[size] = d;
+                size++;
+            }
+        }
+    }
+
+    public int size() { return this.size; }
+
+    public double lng(int index) { return this.lng[index]; }
+
+    public double lat(int index) { return this.lat[index]; }
+
+    public double angle(int index) { return LngLatHandler.DIRECTION_ANGLES[direction[index]]; }
+}
@@ -0,0 +1,246 @@
+package org.example;
+
+import uk.ac.ed.inf.ilp.constant.SystemConstants;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Uniform grid over the bounding boxes of the no-fly zones.
+ * Each cell lists the zones whose bounding box, padded by one drone move, overlaps the cell,
+ * so a single move only needs exact tests against the zones listed for its destination cell.
+ * An occupancy raster answers moves that stay clear of every zone edge without any exact test.
+ */
+public class NoFlyZoneIndex {
+
+    private static final double DEFAULT_CELL_SIZE = 0.0005;
+    private static final int MAX_CELLS_PER_AXIS = 256;
+    //Padding covers the whole move segment when looking up by destination only
+    private static final double PAD = SystemConstants.DRONE_MOVE_DISTANCE * 1.01;
+    private static final int[] NO_ZONES = new int[0];
+
+    private static final LngLatHandler lngLatHandler = new LngLatHandler();
+
+    private final NamedRegion[] zones;
+    private final long fingerprint;
+    private final double[] minLng;
+    private final double[] maxLng;
+    private final double[] minLat;
+    private final double[] maxLat;
+
+    private final double gridMinLng;
+    private final double gridMinLat;
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final int[][] cells;
+    private final OccupancyRaster raster;
+
+    /**
+     * Builds the index over the given zones, building the occupancy raster in memory.
+     *
+     * @param zones Array of no-fly zones.
+     */
+    public NoFlyZoneIndex(NamedRegion[] zones) {
+        this(zones, null);
+    }
+
+    /**
+     * Builds the index over the given zones, reusing the occupancy raster cached in the given directory.
+     *
+     * @param zones Array of no-fly zones.
+     * @param rasterCache Directory the occupancy raster is cached in, or null to build it in memory only.
+     */
+    public NoFlyZoneIndex(NamedRegion[] zones, Path rasterCache) {
+        this.zones = zones;
+        this.fingerprint = RouteCache.fingerprint(zones);
+        this.raster = OccupancyRaster.loadOrBuild(zones, rasterCache);
+        int count = zones.length;
+        minLng = new double[count];
+        maxLng = new double[count];
+        minLat = new double[count];
+        maxLat = new double[count];
+
+        double allMinLng = Double.MAX_VALUE, allMinLat = Double.MAX_VALUE;
+        double allMaxLng = -Double.MAX_VALUE, allMaxLat = -Double.MAX_VALUE;
+        for (int z = 0; z < count; z++) {
+            minLng[z] = Double.MAX_VALUE;
+            minLat[z] = Double.MAX_VALUE;
+            maxLng[z] = -Double.MAX_VALUE;
+            maxLat[z] = -Double.MAX_VALUE;
+            for (LngLat vertex : zones[z].vertices()) {
+                minLng[z] = Math.min(minLng[z], vertex.lng());
+                maxLng[z] = Math.max(maxLng[z], vertex.lng());
+                minLat[z] = Math.min(minLat[z], vertex.lat());
+                maxLat[z] = Math.max(maxLat[z], vertex.lat());
+            }
+            allMinLng = Math.min(allMinLng, minLng[z] - PAD);
+            allMinLat = Math.min(allMinLat, minLat[z] - PAD);
+            allMaxLng = Math.max(allMaxLng, maxLng[z] + PAD);
+            allMaxLat = Math.max(allMaxLat, maxLat[z] + PAD);
+        }
+
+        if (count == 0) {
+            gridMinLng = gridMinLat = 0;
+            cellSize = DEFAULT_CELL_SIZE;
+            columns = rows = 0;
+            cells = new int[0][];
+            return;
+        }
+
+        double extent = Math.max(allMaxLng - allMinLng, allMaxLat - allMinLat);
+        cellSize = Math.max(DEFAULT_CELL_SIZE, extent / MAX_CELLS_PER_AXIS);
+        gridMinLng = allMinLng;
+        gridMinLat = allMinLat;
+        columns = (int) Math.floor((allMaxLng - allMinLng) / cellSize) + 1;
+        rows = (int) Math.floor((allMaxLat - allMinLat) / cellSize) + 1;
+
+        List<List<Integer>> cellZones = new ArrayList<>(columns * rows);
+        for (int i = 0; i < columns * rows; i++) {
+            cellZones.add(new ArrayList<>());
+        }
+        for (int z = 0; z < count; z++) {
+            int fromColumn = column(minLng[z] - PAD), toColumn = column(maxLng[z] + PAD);
+            int fromRow = row(minLat[z] - PAD), toRow = row(maxLat[z] + PAD);
+            for (int c = fromColumn; c <= toColumn; c++) {
+                for (int r = fromRow; r <= toRow; r++) {
+                    cellZones.get(r * columns + c).add(z);
+                }
+            }
+        }
+
+        cells = new int[columns * rows][];
+        for (int i = 0; i < cells.length; i++) {
+            List<Integer> list = cellZones.get(i);
+            cells[i] = list.isEmpty() ? NO_ZONES : list.stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    public NamedRegion[] zones() { return this.zones; }
+
+    /**
+     * @return Fingerprint of the zone geometry, as computed by RouteCache.fingerprint.
+     */
+    public long fingerprint() { return this.fingerprint; }
+
+    public OccupancyRaster raster() { return this.raster; }
+
+    private int column(double lng) {
+        return Math.min(columns - 1, Math.max(0, (int) Math.floor((lng - gridMinLng) / cellSize)));
+    }
+
+    private int row(double lat) {
+        return Math.min(rows - 1, Math.max(0, (int) Math.floor((lat - gridMinLat) / cellSize)));
+    }
+
+    /**
+     * Returns the indices of zones that may affect a move ending at the given position.
+     *
+     * @param lng Longitude of the move destination.
+     * @param lat Latitude of the move destination.
+     * @return Indices into zones(), possibly empty.
+     */
+    private int[] candidates(double lng, double lat) {
+        if (columns == 0 || lng < gridMinLng || lat < gridMinLat) return NO_ZONES;
+        int c = (int) Math.floor((lng - gridMinLng) / cellSize);
+        int r = (int) Math.floor((lat - gridMinLat) / cellSize);
+        if (c >= columns || r >= rows) return NO_ZONES;
+        return cells[r * columns + c];
+    }
+
+    /**
+     * Checks whether the bounding box of segment a-b overlaps the bounding box of a zone.
+     */
+    private boolean overlapsZone(int z, double aLng, double aLat, double bLng, double bLat) {
+        return Math.max(aLng, bLng) >= minLng[z] && Math.min(aLng, bLng) <= maxLng[z] &&
+                Math.max(aLat, bLat) >= minLat[z] && Math.min(aLat, bLat) <= maxLat[z];
+    }
+
+    /**
+     * Exact legality test of a move against a single zone.
+     * Edges examined are counted against the active leg metrics, as an upper bound when a test exits early.
+     */
+    private boolean isBlockedBy(int z, double toLng, double toLat, double fromLng, double fromLat, SearchMetrics metrics) {
+        LngLat[] vertices = zones[z].vertices();
+        if (lngLatHandler.isInRegion(toLng, toLat, zones[z])) {
+            if (metrics != null) metrics.polygonEdgeTests += vertices.length;
+            return true;
+        }
+        if (metrics != null) metrics.polygonEdgeTests += 2L * vertices.length;
+        return PointInAreaHandler.doesLineIntersectPolygon(toLng, toLat, fromLng, fromLat, vertices);
+    }
+
+    /**
+     * Validates a move: the destination must lie outside every zone and the move must not cross a zone edge.
+     * Moves whose bounding box covers only free raster cells are valid and moves ending in a blocked cell are not.
+     * Other moves no longer than one drone move only test the zones listed for the destination cell;
+     * longer segments fall back to a bounding-box scan of every zone.
+     *
+     * @param toLng   Longitude of the destination.
+     * @param toLat   Latitude of the destination.
+     * @param fromLng Longitude of the origin.
+     * @param fromLat Latitude of the origin.
+     * @return true if valid, false otherwise.
+     */
+    public boolean isValidMove(double toLng, double toLat, double fromLng, double fromLat) {
+        if (Math.abs(toLng - fromLng) > PAD || Math.abs(toLat - fromLat) > PAD) {
+            return isValidSegment(toLng, toLat, fromLng, fromLat);
+        }
+
+        SearchMetrics metrics = SearchMetrics.current();
+        if (metrics != null) metrics.validityChecks++;
+        int destination = raster.state(toLng, toLat);
+        if (destination == OccupancyRaster.BLOCKED) return false;
+        if (destination == OccupancyRaster.FREE &&
+                raster.isFree(Math.min(toLng, fromLng), Math.min(toLat, fromLat), Math.max(toLng, fromLng), Math.max(toLat, fromLat))) {
+            return true;
+        }
+
+        for (int z : candidates(toLng, toLat)) {
+            if (overlapsZone(z, toLng, toLat, fromLng, fromLat) && isBlockedBy(z, toLng, toLat, fromLng, fromLat, metrics)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Validates a segment of any length, testing only zones whose bounding box overlaps the segment.
+     *
+     * @param toLng   Longitude of the segment end.
+     * @param toLat   Latitude of the segment end.
+     * @param fromLng Longitude of the segment start.
+     * @param fromLat Latitude of the segment start.
+     * @return true if valid, false otherwise.
+     */
+    public boolean isValidSegment(double toLng, double toLat, double fromLng, double fromLat) {
+        SearchMetrics metrics = SearchMetrics.current();
+        if (metrics != null) metrics.validityChecks++;
+        for (int z = 0; z < zones.length; z++) {
+            if (overlapsZone(z, toLng, toLat, fromLng, fromLat) && isBlockedBy(z, toLng, toLat, fromLng, fromLat, metrics)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks whether a position lies inside any zone, using exact tests only in boundary raster cells.
+     *
+     * @param lng Longitude of the position.
+     * @param lat Latitude of the position.
+     * @return true if the position is inside or on the edge of a zone.
+     */
+    public boolean isInAnyZone(double lng, double lat) {
+        int state = raster.state(lng, lat);
+        if (state != OccupancyRaster.BOUNDARY) return state == OccupancyRaster.BLOCKED;
+
+        for (int z : candidates(lng, lat)) {
+            if (lngLatHandler.isInRegion(lng, lat, zones[z])) return true;
+        }
+        return false;
+    }
+}
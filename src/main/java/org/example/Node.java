@@ -15,6 +15,8 @@ public class Node implements Comparable<Node> {
     double startCost;
     double endCost;
     public Node parent;
+    //Dense id of the search state, used by OpenList implementations
+    int id;
 
     /**
      * Constructs a Node with geographical coordinates, angle, and order number.
@@ -0,0 +1,297 @@
+package org.example;
+
+import uk.ac.ed.inf.ilp.constant.SystemConstants;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Two-bit occupancy raster of a set of polygons.
+ * Each cell is FREE (no polygon edge within it and outside every polygon), BLOCKED (no edge within it and
+ * inside a polygon) or BOUNDARY (an edge passes through or very close to it). Only BOUNDARY cells need the
+ * exact polygon tests. Rasters can be saved to and loaded from disk, keyed by a hash of the geometry.
+ */
+public class OccupancyRaster {
+
+    public static final int FREE = 0;
+    public static final int BLOCKED = 1;
+    public static final int BOUNDARY = 2;
+
+    //Same resolution as the lattice search cells
+    public static final double DEFAULT_CELL_SIZE = SystemConstants.DRONE_MOVE_DISTANCE / 4;
+    private static final int MAX_CELLS_PER_AXIS = 2048;
+    private static final int CELLS_PER_WORD = 32;
+    //Cells kept around the polygons so positions just outside still resolve to a cell
+    private static final int BORDER_CELLS = 2;
+
+    private static final int FILE_MAGIC = 0x4f43524d;
+    private static final int FILE_VERSION = 1;
+
+    private static final Logger LOGGER = Logger.getLogger(OccupancyRaster.class.getName());
+    private static final LngLatHandler lngLatHandler = new LngLatHandler();
+
+    private final long geometryHash;
+    private final double minLng;
+    private final double minLat;
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final long[] words;
+
+    private OccupancyRaster(long geometryHash, double minLng, double minLat, double cellSize, int columns, int rows, long[] words) {
+        this.geometryHash = geometryHash;
+        this.minLng = minLng;
+        this.minLat = minLat;
+        this.cellSize = cellSize;
+        this.columns = columns;
+        this.rows = rows;
+        this.words = words;
+    }
+
+    /**
+     * Rasterises polygons at the given resolution, coarsened if the area would need too many cells.
+     *
+     * @param regions  Polygons to rasterise.
+     * @param cellSize Requested cell size in degrees.
+     * @return The raster.
+     */
+    public static OccupancyRaster build(NamedRegion[] regions, double cellSize) {
+        double lowLng = Double.MAX_VALUE, lowLat = Double.MAX_VALUE;
+        double highLng = -Double.MAX_VALUE, highLat = -Double.MAX_VALUE;
+        for (NamedRegion region : regions) {
+            for (LngLat vertex : region.vertices()) {
+                lowLng = Math.min(lowLng, vertex.lng());
+                lowLat = Math.min(lowLat, vertex.lat());
+                highLng = Math.max(highLng, vertex.lng());
+                highLat = Math.max(highLat, vertex.lat());
+            }
+        }
+        long hash = hashOf(regions, cellSize);
+        if (lowLng > highLng) {
+            return new OccupancyRaster(hash, 0, 0, cellSize, 0, 0, new long[0]);
+        }
+
+        double extent = Math.max(highLng - lowLng, highLat - lowLat);
+        double size = Math.max(cellSize, extent / (MAX_CELLS_PER_AXIS - 2 * BORDER_CELLS));
+        double originLng = lowLng - BORDER_CELLS * size;
+        double originLat = lowLat - BORDER_CELLS * size;
+        int columns = (int) Math.floor((highLng - originLng) / size) + BORDER_CELLS + 1;
+        int rows = (int) Math.floor((highLat - originLat) / size) + BORDER_CELLS + 1;
+
+        OccupancyRaster raster = new OccupancyRaster(hash, originLng, originLat, size, columns, rows,
+                new long[(columns * rows + CELLS_PER_WORD - 1) / CELLS_PER_WORD]);
+        for (NamedRegion region : regions) {
+            raster.markBoundary(region.vertices());
+        }
+        raster.fillInterior(regions);
+        return raster;
+    }
+
+    /**
+     * Loads the raster for the polygons from the cache directory, building and saving it if absent or stale.
+     * A raster that cannot be read or written is rebuilt in memory rather than failing.
+     *
+     * @param regions        Polygons to rasterise.
+     * @param cacheDirectory Directory holding cached rasters, or null to always build.
+     * @return The raster.
+     */
+    public static OccupancyRaster loadOrBuild(NamedRegion[] regions, Path cacheDirectory) {
+        if (cacheDirectory == null) {
+            return build(regions, DEFAULT_CELL_SIZE);
+        }
+
+        long hash = hashOf(regions, DEFAULT_CELL_SIZE);
+        Path file = cacheDirectory.resolve("occupancy-" + Long.toHexString(hash) + ".bin");
+        if (Files.exists(file)) {
+            try {
+                OccupancyRaster cached = readFrom(file);
+                if (cached.geometryHash == hash) return cached;
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Ignoring unreadable occupancy raster " + file + ": " + e.getMessage());
+            }
+        }
+
+        OccupancyRaster raster = build(regions, DEFAULT_CELL_SIZE);
+        try {
+            Files.createDirectories(cacheDirectory);
+            raster.writeTo(file);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Could not cache occupancy raster " + file + ": " + e.getMessage());
+        }
+        return raster;
+    }
+
+    /**
+     * Hash of the polygon geometry and resolution identifying a cached raster.
+     */
+    static long hashOf(NamedRegion[] regions, double cellSize) {
+        long hash = RouteCache.fingerprint(regions);
+        hash = 31 * hash + Double.doubleToLongBits(cellSize);
+        return 31 * hash + FILE_VERSION;
+    }
+
+    public double cellSize() { return this.cellSize; }
+
+    private int get(int index) {
+        return (int) (words[index / CELLS_PER_WORD] >>> ((index % CELLS_PER_WORD) * 2)) & 3;
+    }
+
+    private void set(int index, int state) {
+        int shift = (index % CELLS_PER_WORD) * 2;
+        words[index / CELLS_PER_WORD] = (words[index / CELLS_PER_WORD] & ~(3L << shift)) | ((long) state << shift);
+    }
+
+    /**
+     * Marks every cell an edge of the polygon passes through or nearly touches as BOUNDARY.
+     * Cells are widened by more than the collinearity tolerance of the exact tests, so any cell
+     * where an exact test could report contact is a boundary cell.
+     */
+    private void markBoundary(LngLat[] polygon) {
+        for (int i = 0; i < polygon.length; i++) {
+            LngLat a = polygon[i];
+            LngLat b = polygon[(i + 1) % polygon.length];
+            double length = Math.hypot(b.lng() - a.lng(), b.lat() - a.lat());
+            double margin = Math.min(cellSize, Math.max(1e-9, 2e-10 / Math.max(length, 1e-12)));
+
+            int fromColumn = clampColumn(Math.min(a.lng(), b.lng()) - margin), toColumn = clampColumn(Math.max(a.lng(), b.lng()) + margin);
+            int fromRow = clampRow(Math.min(a.lat(), b.lat()) - margin), toRow = clampRow(Math.max(a.lat(), b.lat()) + margin);
+            for (int r = fromRow; r <= toRow; r++) {
+                for (int c = fromColumn; c <= toColumn; c++) {
+                    double cellLng = minLng + c * cellSize - margin;
+                    double cellLat = minLat + r * cellSize - margin;
+                    if (PointInAreaHandler.doesLineTouchBox(a.lng(), a.lat(), b.lng(), b.lat(), cellLng, cellLat,
+                            cellLng + cellSize + 2 * margin, cellLat + cellSize + 2 * margin)) {
+                        set(r * columns + c, BOUNDARY);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Classifies every non-boundary cell by testing its centre, which decides the whole cell since no edge crosses it.
+     */
+    private void fillInterior(NamedRegion[] regions) {
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < columns; c++) {
+                int index = r * columns + c;
+                if (get(index) == BOUNDARY) continue;
+                double centreLng = minLng + (c + 0.5) * cellSize;
+                double centreLat = minLat + (r + 0.5) * cellSize;
+                for (NamedRegion region : regions) {
+                    if (lngLatHandler.isInRegion(centreLng, centreLat, region)) {
+                        set(index, BLOCKED);
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    private int clampColumn(double lng) {
+        return Math.min(columns - 1, Math.max(0, (int) Math.floor((lng - minLng) / cellSize)));
+    }
+
+    private int clampRow(double lat) {
+        return Math.min(rows - 1, Math.max(0, (int) Math.floor((lat - minLat) / cellSize)));
+    }
+
+    /**
+     * Returns the state of the cell containing a position. Positions outside the raster are FREE.
+     *
+     * @param lng Longitude of the position.
+     * @param lat Latitude of the position.
+     * @return FREE, BLOCKED or BOUNDARY.
+     */
+    public int state(double lng, double lat) {
+        double column = Math.floor((lng - minLng) / cellSize);
+        double row = Math.floor((lat - minLat) / cellSize);
+        if (column < 0 || row < 0 || column >= columns || row >= rows) return FREE;
+        return get((int) row * columns + (int) column);
+    }
+
+    /**
+     * Checks whether every cell overlapping a box is FREE, so nothing inside the box can touch a polygon.
+     *
+     * @param lowLng  Smallest longitude of the box.
+     * @param lowLat  Smallest latitude of the box.
+     * @param highLng Largest longitude of the box.
+     * @param highLat Largest latitude of the box.
+     * @return true if the whole box is free.
+     */
+    public boolean isFree(double lowLng, double lowLat, double highLng, double highLat) {
+        if (columns == 0 || highLng < minLng || highLat < minLat ||
+                lowLng >= minLng + columns * cellSize || lowLat >= minLat + rows * cellSize) {
+            return true;
+        }
+        int toColumn = clampColumn(highLng), toRow = clampRow(highLat);
+        for (int r = clampRow(lowLat); r <= toRow; r++) {
+            for (int c = clampColumn(lowLng); c <= toColumn; c++) {
+                if (get(r * columns + c) != FREE) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Writes the raster to a file, replacing any previous file only once the new one is complete.
+     *
+     * @param file Destination file.
+     * @throws IOException If the file cannot be written.
+     */
+    public void writeTo(Path file) throws IOException {
+        Path temp = Files.createTempFile(file.toAbsolutePath().getParent(), "occupancy", ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeLong(geometryHash);
+            out.writeDouble(minLng);
+            out.writeDouble(minLat);
+            out.writeDouble(cellSize);
+            out.writeInt(columns);
+            out.writeInt(rows);
+            for (long word : words) {
+                out.writeLong(word);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Reads a raster written by writeTo.
+     *
+     * @param file Source file.
+     * @return The raster.
+     * @throws IOException If the file cannot be read or is not a raster of this version.
+     */
+    public static OccupancyRaster readFrom(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_MAGIC || in.readInt() != FILE_VERSION) {
+                throw new IOException("Not an occupancy raster of version " + FILE_VERSION);
+            }
+            long hash = in.readLong();
+            double minLng = in.readDouble();
+            double minLat = in.readDouble();
+            double cellSize = in.readDouble();
+            int columns = in.readInt();
+            int rows = in.readInt();
+            if (columns < 0 || rows < 0 || (long) columns * rows > (long) MAX_CELLS_PER_AXIS * MAX_CELLS_PER_AXIS) {
+                throw new IOException("Invalid raster dimensions " + columns + "x" + rows);
+            }
+            long[] words = new long[(columns * rows + CELLS_PER_WORD - 1) / CELLS_PER_WORD];
+            for (int i = 0; i < words.length; i++) {
+                words[i] = in.readLong();
+            }
+            return new OccupancyRaster(hash, minLng, minLat, cellSize, columns, rows, words);
+        }
+    }
+}
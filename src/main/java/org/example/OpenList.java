@@ -0,0 +1,39 @@
+package org.example;
+
+/**
+ * Priority queue of search states identified by dense integer ids, ordered by f-score.
+ * Unlike java.util.PriorityQueue, lowering the f-score of a queued id does not require a linear removal.
+ */
+public interface OpenList {
+
+    /**
+     * Queues an id with the given f-score, or lowers its f-score if it is already queued.
+     * A higher f-score for an already queued id is ignored.
+     *
+     * @param id Dense non-negative id of the search state.
+     * @param f  f-score of the state.
+     */
+    void insertOrDecrease(int id, double f);
+
+    /**
+     * Removes and returns the queued id with the smallest f-score.
+     *
+     * @return The id with the smallest f-score.
+     * @throws IllegalStateException If the list is empty.
+     */
+    int poll();
+
+    /**
+     * Returns the smallest queued f-score without removing it.
+     *
+     * @return The smallest f-score.
+     * @throws IllegalStateException If the list is empty.
+     */
+    double peekF();
+
+    boolean contains(int id);
+
+    int size();
+
+    default boolean isEmpty() { return size() == 0; }
+}
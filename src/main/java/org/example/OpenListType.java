@@ -0,0 +1,23 @@
+package org.example;
+
+/**
+ * Selects the open list implementation used by the lattice search.
+ */
+public enum OpenListType {
+    /** Indexed 4-ary heap with O(log n) insert, decrease-key and poll. */
+    D_ARY_HEAP,
+    /** Coarse f-score buckets sized to a fraction of the uniform move cost, with an exact minimum within a bucket. */
+    BUCKET_QUEUE;
+
+    /**
+     * Creates an empty open list of this type.
+     *
+     * @return A new open list.
+     */
+    public OpenList create() {
+        if (this == BUCKET_QUEUE) {
+            return new BucketQueue(BucketQueue.DEFAULT_BUCKET_WIDTH);
+        }
+        return new IndexedDaryHeap(4);
+    }
+}
@@ -9,6 +9,8 @@ import uk.ac.ed.inf.ilp.data.Pizza;
 import uk.ac.ed.inf.ilp.data.Restaurant;
 import uk.ac.ed.inf.ilp.interfaces.OrderValidation;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
@@ -151,4 +153,38 @@ public class OrderValidator implements OrderValidation {
 
         return validatedOrders.toArray(new Order[0]);
     }
-}
\ No newline at end of file
+
+    /**
+     * Validates the orders of a day as they are streamed from the orders file, without holding the file in memory.
+     *
+     * @param ordersFile The orders file to read.
+     * @param restaurants The defined restaurants to validate against.
+     * @return An array of validated orders.
+     * @throws IOException If the orders file cannot be read.
+     */
+    public static Order[] validateDailyOrders(String ordersFile, Restaurant[] restaurants) throws IOException {
+        ArrayList<Order> validatedOrders = new ArrayList<>();
+
+        OrderValidator orderValidator = new OrderValidator();
+        new JsonParser().streamOrders(ordersFile, order -> validatedOrders.add(orderValidator.validateOrder(order, restaurants)));
+
+        return validatedOrders.toArray(new Order[0]);
+    }
+
+    /**
+     * Validates the orders of a day as they are read from a stream, such as a response body.
+     *
+     * @param in Stream holding the JSON array of orders, closed when done.
+     * @param restaurants The defined restaurants to validate against.
+     * @return An array of validated orders.
+     * @throws IOException If the stream cannot be read or does not hold an array of orders.
+     */
+    public static Order[] validateDailyOrders(InputStream in, Restaurant[] restaurants) throws IOException {
+        ArrayList<Order> validatedOrders = new ArrayList<>();
+
+        OrderValidator orderValidator = new OrderValidator();
+        new JsonParser().streamOrders(in, order -> validatedOrders.add(orderValidator.validateOrder(order, restaurants)));
+
+        return validatedOrders.toArray(new Order[0]);
+    }
+}
@@ -0,0 +1,241 @@
+package org.example;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Writes output files concurrently on background threads.
+ * Each file is written through a FileChannel with a large direct buffer, optionally to a temporary file in the same
+ * directory that is renamed over the destination once complete, so readers never see a partly written file.
+ * How far each file is forced to disk before it counts as written is set by the sync policy.
+ */
+public class OutputStage {
+
+    //Files written at the same time: the GeoJSON, JSON and binary flightpaths, deliveries and metrics of a day
+    public static final int DEFAULT_THREADS = 4;
+
+    //Size of the direct buffer each writer thread fills before handing bytes to the channel
+    public static final int BUFFER_BYTES = 1 << 20;
+
+    /**
+     * How far a written file is forced to storage before it counts as written.
+     */
+    public enum SyncPolicy {
+        //Leave flushing to the operating system
+        NONE,
+        //Force the file contents before renaming it into place
+        DATA,
+        //Force the file contents and metadata, then the directory entry of the rename
+        FULL
+    }
+
+    /**
+     * Serialises one file.
+     */
+    @FunctionalInterface
+    public interface Writer {
+        /**
+         * Writes the file contents.
+         *
+         * @param out Stream to write to; closing it only flushes.
+         * @throws IOException If the contents cannot be written.
+         */
+        void write(OutputStream out) throws IOException;
+    }
+
+    //Numbers temporary files so concurrent writes to the same directory never collide
+    private static final AtomicLong tempCounter = new AtomicLong();
+
+    private static final ThreadLocal<ByteBuffer> buffers = ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_BYTES));
+
+    private final ExecutorService executor;
+    private final SyncPolicy syncPolicy;
+    private final boolean atomicRename;
+    private final List<Future<Path>> pending = new ArrayList<>();
+
+    /**
+     * Constructs an output stage.
+     *
+     * @param threads      Number of files written at the same time.
+     * @param syncPolicy   How far files are forced to storage.
+     * @param atomicRename true to write each file to a temporary file and rename it into place.
+     */
+    public OutputStage(int threads, SyncPolicy syncPolicy, boolean atomicRename) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("Output threads must be at least 1");
+        }
+        this.executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "output-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.syncPolicy = syncPolicy;
+        this.atomicRename = atomicRename;
+    }
+
+    public SyncPolicy syncPolicy() { return this.syncPolicy; }
+
+    public boolean atomicRename() { return this.atomicRename; }
+
+    /**
+     * Queues a file to be written.
+     *
+     * @param file   Destination file.
+     * @param writer Serialises the contents; it runs on a writer thread, so it must only read data that no longer changes.
+     * @return Future completing with the file once it is in place.
+     */
+    public synchronized Future<Path> submit(Path file, Writer writer) {
+        Future<Path> future = executor.submit(() -> {
+            writeFile(file, writer);
+            System.out.println("File was written: " + file);
+            return file;
+        });
+        pending.add(future);
+        return future;
+    }
+
+    /**
+     * Waits for every file queued so far.
+     *
+     * @throws IOException If any of them could not be written, the first failure in submission order.
+     */
+    public void awaitAll() throws IOException {
+        List<Future<Path>> waiting;
+        synchronized (this) {
+            waiting = new ArrayList<>(pending);
+            pending.clear();
+        }
+
+        IOException failure = null;
+        for (Future<Path> future : waiting) {
+            try {
+                future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while writing output files", e);
+            } catch (ExecutionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException("Writing output file failed", e.getCause());
+                }
+            }
+        }
+        if (failure != null) throw failure;
+    }
+
+    /**
+     * Writes a file on the calling thread.
+     *
+     * @param file   Destination file.
+     * @param writer Serialises the contents.
+     * @throws IOException If the file cannot be written.
+     */
+    void writeFile(Path file, Writer writer) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Path target = atomicRename ? directory.resolve(file.getFileName() + "." + ProcessHandle.current().pid() + "." + tempCounter.incrementAndGet() + ".tmp") : file;
+        try {
+            try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                ChannelOutputStream out = new ChannelOutputStream(channel, buffers.get());
+                writer.write(out);
+                out.flush();
+                if (syncPolicy != SyncPolicy.NONE) {
+                    channel.force(syncPolicy == SyncPolicy.FULL);
+                }
+            }
+            if (atomicRename) {
+                try {
+                    Files.move(target, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } catch (AtomicMoveNotSupportedException e) {
+                    Files.move(target, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            if (atomicRename) Files.deleteIfExists(target);
+            throw e;
+        }
+
+        if (syncPolicy == SyncPolicy.FULL && atomicRename) {
+            syncDirectory(directory);
+        }
+    }
+
+    //Makes the rename durable; not every platform can open a directory for this, in which case it is skipped
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            //Directory sync is not supported here
+        }
+    }
+
+    /**
+     * Stops the writer threads once queued files are written.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Buffers bytes in a direct buffer and writes them to a channel when it fills.
+     * Closing only flushes, so the stage keeps control of forcing and closing the channel.
+     */
+    private static final class ChannelOutputStream extends OutputStream {
+
+        private final FileChannel channel;
+        private final ByteBuffer buffer;
+
+        private ChannelOutputStream(FileChannel channel, ByteBuffer buffer) {
+            this.channel = channel;
+            this.buffer = buffer;
+            buffer.clear();
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!buffer.hasRemaining()) drain();
+            buffer.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (!buffer.hasRemaining()) drain();
+                int chunk = Math.min(length, buffer.remaining());
+                buffer.put(bytes, offset, chunk);
+                offset += chunk;
+                length -= chunk;
+            }
+        }
+
+        @Override
+        public void flush() throws IOException {
+            drain();
+        }
+
+        @Override
+        public void close() throws IOException {
+            flush();
+        }
+
+        private void drain() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
@@ -0,0 +1,272 @@
+package org.example;
+
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Post-processing pass that removes moves from a planned order path.
+ * The tail of each leg is replaced by the straightest run of compass moves from the point that saves the most moves,
+ * then shorter windows are cut by steering straight to a later position and flying the rest of the path from there.
+ * Every rewritten path is replayed and checked move by move, so it stays clear of no-fly zones, still collects within
+ * tolerance of the restaurant, still ends within tolerance of Appleton Tower, and never leaves the central area on
+ * the way back once it has entered it.
+ */
+public class PathShortener {
+
+    //Direction code of a hover in the move sequence
+    private static final int HOVER = -1;
+    //Most moves a single shortcut may replace
+    private static final int MAX_WINDOW = 16;
+
+    private static final LngLatHandler lngLatHandler = new LngLatHandler();
+
+    private final NamedRegion[] noFlyZones;
+    private final CentralAreaIndex centralArea;
+    private final LngLat restaurant;
+    private final LngLat home;
+
+    /**
+     * Shortened path of an order.
+     *
+     * @param path       The path, the original one if nothing could be saved.
+     * @param movesSaved Number of moves removed.
+     */
+    public record Result(List<Node> path, int movesSaved) { }
+
+    /**
+     * Constructs a shortener for the round trip to one restaurant.
+     *
+     * @param noFlyZones  Array of no-fly zones.
+     * @param centralArea Central area the drone may not leave on the way back once inside.
+     * @param restaurant  Position the pizzas are collected from.
+     * @param home        Position the drone starts from and returns to.
+     */
+    public PathShortener(NamedRegion[] noFlyZones, NamedRegion centralArea, LngLat restaurant, LngLat home) {
+        this.noFlyZones = noFlyZones;
+        this.centralArea = Flightpath.centralAreaIndexFor(centralArea);
+        this.restaurant = restaurant;
+        this.home = home;
+    }
+
+    /**
+     * Shortens an order path made of a hover at the start, the flight to the restaurant, a hover to collect,
+     * and the flight back.
+     *
+     * @param orderPath Path as returned by Flightpath.getOrderPath.
+     * @return The shortened path and the number of moves saved.
+     */
+    public Result shorten(List<Node> orderPath) {
+        int[] codes = encode(orderPath);
+        if (codes == null) return new Result(orderPath, 0);
+
+        int collection = 1;
+        while (collection < codes.length && codes[collection] != HOVER) collection++;
+        LngLat start = orderPath.get(0).lngLat;
+        if (collection == codes.length || !isValid(start, codes, collection)) return new Result(orderPath, 0);
+
+        int[] best = codes;
+        best = shortenLeg(start, best, 0, collection, restaurant, collection);
+        collection = indexOfCollection(best);
+        best = shortenLeg(start, best, collection, best.length, home, collection);
+        best = shortcutWindows(start, best);
+
+        if (best == codes) return new Result(orderPath, 0);
+        return new Result(decode(start, best, orderPath.get(0).orderNo), codes.length - best.length);
+    }
+
+    /**
+     * Tries replacing the moves of one leg after each of its positions with a straight run to the leg's target.
+     *
+     * @param start      Start position of the order path.
+     * @param codes      Current move sequence.
+     * @param from       Index of the first position of the leg.
+     * @param to         Index one past the last move of the leg.
+     * @param target     Position the leg must end within tolerance of.
+     * @param collection Index of the collection hover in the current sequence.
+     * @return The shortest valid sequence found, or codes itself if none is shorter.
+     */
+    private int[] shortenLeg(LngLat start, int[] codes, int from, int to, LngLat target, int collection) {
+        double[] lng = new double[codes.length];
+        double[] lat = new double[codes.length];
+        replay(start, codes, lng, lat);
+
+        int[] best = codes;
+        for (int i = from; i < to - 1; i++) {
+            int budget = best.length - codes.length + (to - i) - 2;
+            int[] straight = straightRun(lng[i], lat[i], target, budget);
+            if (straight == null) continue;
+
+            int[] candidate = new int[i + 1 + straight.length + codes.length - to];
+            System.arraycopy(codes, 0, candidate, 0, i + 1);
+            System.arraycopy(straight, 0, candidate, i + 1, straight.length);
+            System.arraycopy(codes, to, candidate, i + 1 + straight.length, codes.length - to);
+
+            int candidateCollection = to <= collection ? collection - (to - i - 1) + straight.length : collection;
+            if (candidate.length < best.length && isValid(start, candidate, candidateCollection)) {
+                best = candidate;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Replaces windows of moves within a leg by a straight run ending next to the window's last position.
+     * The rest of the path is flown unchanged from where the run ends, so it is shifted by less than one move.
+     *
+     * @param start Start position of the order path.
+     * @param codes Current move sequence.
+     * @return The shortened sequence, or codes itself if no window could be cut.
+     */
+    private int[] shortcutWindows(LngLat start, int[] codes) {
+        double[] lng = new double[codes.length];
+        double[] lat = new double[codes.length];
+        replay(start, codes, lng, lat);
+        int collection = indexOfCollection(codes);
+
+        for (int i = 0; i < codes.length - 2; i++) {
+            //Windows never span the collection hover
+            int last = Math.min(i < collection ? collection - 1 : codes.length - 1, i + MAX_WINDOW);
+            for (int j = last; j >= i + 2; j--) {
+                int[] straight = straightRun(lng[i], lat[i], new LngLat(lng[j], lat[j]), j - i - 1);
+                if (straight == null) continue;
+
+                int[] candidate = new int[i + 1 + straight.length + codes.length - j - 1];
+                System.arraycopy(codes, 0, candidate, 0, i + 1);
+                System.arraycopy(straight, 0, candidate, i + 1, straight.length);
+                System.arraycopy(codes, j + 1, candidate, i + 1 + straight.length, codes.length - j - 1);
+
+                int candidateCollection = i < collection ? collection - (j - i) + straight.length : collection;
+                if (isValid(start, candidate, candidateCollection)) {
+                    codes = candidate;
+                    collection = candidateCollection;
+                    lng = new double[codes.length];
+                    lat = new double[codes.length];
+                    replay(start, codes, lng, lat);
+                    break;
+                }
+            }
+        }
+        return codes;
+    }
+
+    /**
+     * Steers from a position towards a target, taking the heading closest to the bearing on every move.
+     *
+     * @param lng      Longitude of the position.
+     * @param lat      Latitude of the position.
+     * @param target   Target position.
+     * @param maxMoves Most moves the run may take.
+     * @return Direction codes of the run, or null if it is not legal or takes more than maxMoves.
+     */
+    private int[] straightRun(double lng, double lat, LngLat target, int maxMoves) {
+        int[] moves = new int[Math.max(maxMoves, 0)];
+        int count = 0;
+        while (lngLatHandler.distanceTo(new LngLat(lng, lat), target) >= Flightpath.GOAL_TOLERANCE) {
+            if (count >= maxMoves) return null;
+
+            double bearing = Math.toDegrees(Math.atan2(target.lat() - lat, target.lng() - lng));
+            int direction = (int) Math.round((bearing < 0 ? bearing + 360 : bearing) / LngLatHandler.DIRECTION_STEP) % LngLatHandler.DIRECTIONS;
+            double nextLng = lng + LngLatHandler.DIRECTION_LNG[direction];
+            double nextLat = lat + LngLatHandler.DIRECTION_LAT[direction];
+            if (!Flightpath.isValidMove(nextLng, nextLat, lng, lat, noFlyZones)) return null;
+
+            moves[count++] = direction;
+            lng = nextLng;
+            lat = nextLat;
+        }
+        return Arrays.copyOf(moves, count);
+    }
+
+    /**
+     * Replays a move sequence and checks every rule an order path must satisfy.
+     *
+     * @param start      Start position.
+     * @param codes      Move sequence.
+     * @param collection Index of the collection hover.
+     * @return true if the path is legal.
+     */
+    private boolean isValid(LngLat start, int[] codes, int collection) {
+        double lng = start.lng(), lat = start.lat();
+        boolean entered = false;
+        for (int i = 1; i < codes.length; i++) {
+            if (codes[i] != HOVER) {
+                double nextLng = lng + LngLatHandler.DIRECTION_LNG[codes[i]];
+                double nextLat = lat + LngLatHandler.DIRECTION_LAT[codes[i]];
+                if (!Flightpath.isValidMove(nextLng, nextLat, lng, lat, noFlyZones)) return false;
+                lng = nextLng;
+                lat = nextLat;
+            } else if (i != collection) {
+                return false;
+            }
+
+            if (i == collection && lngLatHandler.distanceTo(new LngLat(lng, lat), restaurant) >= Flightpath.GOAL_TOLERANCE) return false;
+            if (i > collection) {
+                boolean inside = centralArea.contains(lng, lat);
+                if (entered && !inside) return false;
+                entered |= inside;
+            }
+        }
+        return lngLatHandler.distanceTo(new LngLat(lng, lat), home) < Flightpath.GOAL_TOLERANCE;
+    }
+
+    private static int indexOfCollection(int[] codes) {
+        int collection = 1;
+        while (codes[collection] != HOVER) collection++;
+        return collection;
+    }
+
+    private static void replay(LngLat start, int[] codes, double[] lng, double[] lat) {
+        lng[0] = start.lng();
+        lat[0] = start.lat();
+        for (int i = 1; i < codes.length; i++) {
+            lng[i] = lng[i - 1] + (codes[i] == HOVER ? 0 : LngLatHandler.DIRECTION_LNG[codes[i]]);
+            lat[i] = lat[i - 1] + (codes[i] == HOVER ? 0 : LngLatHandler.DIRECTION_LAT[codes[i]]);
+        }
+    }
+
+    /**
+     * Converts a path into one direction code per node, the first node always being a hover.
+     *
+     * @param path Path to encode.
+     * @return Direction codes, or null if replaying them would not reproduce the path exactly.
+     */
+    private static int[] encode(List<Node> path) {
+        if (path.size() < 2 || path.get(0).angle != 999) return null;
+
+        int[] codes = new int[path.size()];
+        codes[0] = HOVER;
+        double lng = path.get(0).lng(), lat = path.get(0).lat();
+        for (int i = 1; i < path.size(); i++) {
+            Node node = path.get(i);
+            if (node.angle == 999) {
+                codes[i] = HOVER;
+            } else {
+                codes[i] = LngLatHandler.directionIndex(node.angle);
+                if (codes[i] < 0) return null;
+                lng += LngLatHandler.DIRECTION_LNG[codes[i]];
+                lat += LngLatHandler.DIRECTION_LAT[codes[i]];
+            }
+            if (lng != node.lng() || lat != node.lat()) return null;
+        }
+        return codes;
+    }
+
+    private static List<Node> decode(LngLat start, int[] codes, String orderNo) {
+        List<Node> path = new ArrayList<>(codes.length);
+        Node current = new Node(start, 999, orderNo);
+        path.add(current);
+        for (int i = 1; i < codes.length; i++) {
+            LngLat position = codes[i] == HOVER ? current.lngLat
+                    : new LngLat(current.lng() + LngLatHandler.DIRECTION_LNG[codes[i]], current.lat() + LngLatHandler.DIRECTION_LAT[codes[i]]);
+            Node next = new Node(position, codes[i] == HOVER ? 999 : LngLatHandler.DIRECTION_ANGLES[codes[i]], orderNo);
+            next.parent = current;
+            path.add(next);
+            current = next;
+        }
+        return path;
+    }
+}
@@ -14,14 +14,17 @@ public class PointInAreaHandler {
     /**
      * Check if point q lies on segment pr.
      *
-     * @param p Start point of segment
-     * @param q Point to check
-     * @param r End point of segment
+     * @param pLng Longitude of the start point of segment
+     * @param pLat Latitude of the start point of segment
+     * @param qLng Longitude of the point to check
+     * @param qLat Latitude of the point to check
+     * @param rLng Longitude of the end point of segment
+     * @param rLat Latitude of the end point of segment
      * @return true if point lies on segment, false otherwise
      */
-    private static boolean onSegment(LngLat p, LngLat q, LngLat r) {
-        return q.lng() <= Math.max(p.lng(), r.lng()) && q.lng() >= Math.min(p.lng(), r.lng()) &&
-                q.lat() <= Math.max(p.lat(), r.lat()) && q.lat() >= Math.min(p.lat(), r.lat());
+    private static boolean onSegment(double pLng, double pLat, double qLng, double qLat, double rLng, double rLat) {
+        return qLng <= Math.max(pLng, rLng) && qLng >= Math.min(pLng, rLng) &&
+                qLat <= Math.max(pLat, rLat) && qLat >= Math.min(pLat, rLat);
     }
 
     /**
@@ -30,14 +33,17 @@ public class PointInAreaHandler {
      * If it is clockwise, returns 1.
      * If it is counterclockwise, returns 2.
      *
-     * @param p First point
-     * @param q Second point
-     * @param r Third point
+     * @param pLng Longitude of the first point
+     * @param pLat Latitude of the first point
+     * @param qLng Longitude of the second point
+     * @param qLat Latitude of the second point
+     * @param rLng Longitude of the third point
+     * @param rLat Latitude of the third point
      * @return orientation of the points (p, q, r)
      */
-    private static int orientation(LngLat p, LngLat q, LngLat r) {
+    private static int orientation(double pLng, double pLat, double qLng, double qLat, double rLng, double rLat) {
         double epsilon = 1e-10;  // Adjust the epsilon value as needed
-        double val = (q.lat() - p.lat()) * (r.lng() - q.lng()) - (q.lng() - p.lng()) * (r.lat() - q.lat());
+        double val = (qLat - pLat) * (rLng - qLng) - (qLng - pLng) * (rLat - qLat);
 
         if (Math.abs(val) < epsilon) return 0;  // Collinear
         return (val > 0) ? 1 : 2;  // Clockwise or counterclockwise
@@ -52,19 +58,34 @@ public class PointInAreaHandler {
      * @return true if the point lies inside the polygon, false otherwise
      */
     public static boolean isPointInsidePolygon(LngLat point, LngLat[] polygon) {
+        return isPointInsidePolygon(point.lng(), point.lat(), polygon);
+    }
+
+    /**
+     * Checks if a point given by primitive coordinates lies inside a given polygon.
+     * Allocation-free variant of isPointInsidePolygon(LngLat, LngLat[]) for the search hot path.
+     *
+     * @param lng     Longitude of the point to check
+     * @param lat     Latitude of the point to check
+     * @param polygon An array representing the vertices of the polygon
+     * @return true if the point lies inside the polygon, false otherwise
+     */
+    public static boolean isPointInsidePolygon(double lng, double lat, LngLat[] polygon) {
         int i, j;
         boolean result = false;
 
         for (i = 0, j = polygon.length - 1; i < polygon.length; j = i++) {
+            LngLat vi = polygon[i];
+            LngLat vj = polygon[j];
             // Check if point is on a vertex or on a side of the polygon
-            if ((point.lng() == polygon[i].lng() && point.lat() == polygon[i].lat()) ||
-                    (orientation(polygon[i], point, polygon[j]) == 0 && onSegment(polygon[i], point, polygon[j]))) {
+            if ((lng == vi.lng() && lat == vi.lat()) ||
+                    (orientation(vi.lng(), vi.lat(), lng, lat, vj.lng(), vj.lat()) == 0 && onSegment(vi.lng(), vi.lat(), lng, lat, vj.lng(), vj.lat()))) {
                 return true;
             }
 
             // Check if the ray intersects with an edge of the polygon
-            if ((polygon[i].lat() > point.lat()) != (polygon[j].lat() > point.lat()) &&
-                    (point.lng() < (polygon[j].lng() - polygon[i].lng()) * (point.lat() - polygon[i].lat()) / (polygon[j].lat()-polygon[i].lat()) + polygon[i].lng())) {
+            if ((vi.lat() > lat) != (vj.lat() > lat) &&
+                    (lng < (vj.lng() - vi.lng()) * (lat - vi.lat()) / (vj.lat()-vi.lat()) + vi.lng())) {
                 result = !result;
             }
         }
@@ -75,18 +96,23 @@ public class PointInAreaHandler {
     /**
      * Determine if two line segments intersect.
      *
-     * @param p1 Start point of first line segment
-     * @param q1 End point of first line segment
-     * @param p2 Start point of second line segment
-     * @param q2 End point of second line segment
+     * @param p1Lng Longitude of the start point of first line segment
+     * @param p1Lat Latitude of the start point of first line segment
+     * @param q1Lng Longitude of the end point of first line segment
+     * @param q1Lat Latitude of the end point of first line segment
+     * @param p2Lng Longitude of the start point of second line segment
+     * @param p2Lat Latitude of the start point of second line segment
+     * @param q2Lng Longitude of the end point of second line segment
+     * @param q2Lat Latitude of the end point of second line segment
      * @return true if the line segments intersect, false otherwise
      */
-    private static boolean doLinesIntersect(LngLat p1, LngLat q1, LngLat p2, LngLat q2) {
+    private static boolean doLinesIntersect(double p1Lng, double p1Lat, double q1Lng, double q1Lat,
+                                            double p2Lng, double p2Lat, double q2Lng, double q2Lat) {
         // Find the four orientations needed for the general and special cases
-        int o1 = orientation(p1, q1, p2);
-        int o2 = orientation(p1, q1, q2);
-        int o3 = orientation(p2, q2, p1);
-        int o4 = orientation(p2, q2, q1);
+        int o1 = orientation(p1Lng, p1Lat, q1Lng, q1Lat, p2Lng, p2Lat);
+        int o2 = orientation(p1Lng, p1Lat, q1Lng, q1Lat, q2Lng, q2Lat);
+        int o3 = orientation(p2Lng, p2Lat, q2Lng, q2Lat, p1Lng, p1Lat);
+        int o4 = orientation(p2Lng, p2Lat, q2Lng, q2Lat, q1Lng, q1Lat);
 
         // General case
         if (o1 != o2 && o3 != o4) {
@@ -95,13 +121,13 @@ public class PointInAreaHandler {
 
         // Special Cases
         // p1, q1 and p2 are colinear and p2 lies on segment p1q1
-        if (o1 == 0 && onSegment(p1, p2, q1)) return true;
+        if (o1 == 0 && onSegment(p1Lng, p1Lat, p2Lng, p2Lat, q1Lng, q1Lat)) return true;
         // p1, q1 and q2 are colinear and q2 lies on segment p1q1
-        if (o2 == 0 && onSegment(p1, q2, q1)) return true;
+        if (o2 == 0 && onSegment(p1Lng, p1Lat, q2Lng, q2Lat, q1Lng, q1Lat)) return true;
         // p2, q2 and p1 are colinear and p1 lies on segment p2q2
-        if (o3 == 0 && onSegment(p2, p1, q2)) return true;
+        if (o3 == 0 && onSegment(p2Lng, p2Lat, p1Lng, p1Lat, q2Lng, q2Lat)) return true;
         // p2, q2 and q1 are colinear and q1 lies on segment p2q2
-        if (o4 == 0 && onSegment(p2, q1, q2)) return true;
+        if (o4 == 0 && onSegment(p2Lng, p2Lat, q1Lng, q1Lat, q2Lng, q2Lat)) return true;
 
         return false; // Doesn't fall in any of the above cases
     }
@@ -115,13 +141,52 @@ public class PointInAreaHandler {
      * @return true if the line intersects any edge of the polygon, false otherwise.
      */
     public static boolean doesLineIntersectPolygon(LngLat point, LngLat current, LngLat[] polygon) {
+        return doesLineIntersectPolygon(point.lng(), point.lat(), current.lng(), current.lat(), polygon);
+    }
+
+    /**
+     * Checks if a line given by primitive coordinates intersects with any edge of a polygon.
+     * Allocation-free variant of doesLineIntersectPolygon(LngLat, LngLat, LngLat[]) for the search hot path.
+     *
+     * @param pointLng   Longitude of the start of the line.
+     * @param pointLat   Latitude of the start of the line.
+     * @param currentLng Longitude of the end of the line.
+     * @param currentLat Latitude of the end of the line.
+     * @param polygon    An array representing the vertices of the polygon.
+     * @return true if the line intersects any edge of the polygon, false otherwise.
+     */
+    public static boolean doesLineIntersectPolygon(double pointLng, double pointLat, double currentLng, double currentLat, LngLat[] polygon) {
         // Check if the line intersects with any of the edges of the polygon
         for (int i = 0; i < polygon.length; i++) {
+            LngLat vertex = polygon[i];
             LngLat nextPoint = polygon[(i + 1) % polygon.length];
-            if (doLinesIntersect(point, current, polygon[i], nextPoint)) {
+            if (doLinesIntersect(pointLng, pointLat, currentLng, currentLat, vertex.lng(), vertex.lat(), nextPoint.lng(), nextPoint.lat())) {
                 return true;
             }
         }
         return false;
     }
-}
\ No newline at end of file
+
+    /**
+     * Checks if a line touches an axis-aligned box, either by ending inside it or by crossing one of its edges.
+     *
+     * @param pointLng   Longitude of the start of the line.
+     * @param pointLat   Latitude of the start of the line.
+     * @param currentLng Longitude of the end of the line.
+     * @param currentLat Latitude of the end of the line.
+     * @param minLng     Western edge of the box.
+     * @param minLat     Southern edge of the box.
+     * @param maxLng     Eastern edge of the box.
+     * @param maxLat     Northern edge of the box.
+     * @return true if any part of the line lies in the box, false otherwise.
+     */
+    public static boolean doesLineTouchBox(double pointLng, double pointLat, double currentLng, double currentLat,
+                                           double minLng, double minLat, double maxLng, double maxLat) {
+        if (pointLng >= minLng && pointLng <= maxLng && pointLat >= minLat && pointLat <= maxLat) return true;
+        if (currentLng >= minLng && currentLng <= maxLng && currentLat >= minLat && currentLat <= maxLat) return true;
+        return doLinesIntersect(pointLng, pointLat, currentLng, currentLat, minLng, minLat, maxLng, minLat) ||
+                doLinesIntersect(pointLng, pointLat, currentLng, currentLat, maxLng, minLat, maxLng, maxLat) ||
+                doLinesIntersect(pointLng, pointLat, currentLng, currentLat, maxLng, maxLat, minLng, maxLat) ||
+                doLinesIntersect(pointLng, pointLat, currentLng, currentLat, minLng, maxLat, minLng, minLat);
+    }
+}
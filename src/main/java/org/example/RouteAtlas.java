@@ -0,0 +1,269 @@
+package org.example;
+
+import uk.ac.ed.inf.ilp.constant.SystemConstants;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+import uk.ac.ed.inf.ilp.data.Restaurant;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Precomputed legs between Appleton Tower and every restaurant, stored in a memory-mapped file.
+ * Each leg is a start point and one compass direction code per move, so replaying it gives exactly
+ * the positions the live search produced. The header holds a hash of the restaurants, no-fly zones
+ * and central area and of the open list the legs were searched with, and an atlas built from other inputs is not used.
+ */
+public class RouteAtlas {
+
+    private static final int FILE_MAGIC = 0x5241544c;
+    private static final int FILE_VERSION = 2;
+    //Start, end, zone and central area fingerprints, mode, heuristic, open list, weight and move count
+    private static final int LEG_HEADER_BYTES = 6 * Long.BYTES + 3 + Double.BYTES + Integer.BYTES;
+
+    private final long inputsHash;
+    private final MappedByteBuffer buffer;
+    //Offset of each leg's move count in the mapped file
+    private final Map<RouteCache.RouteKey, Integer> legOffsets;
+
+    private RouteAtlas(long inputsHash, MappedByteBuffer buffer, Map<RouteCache.RouteKey, Integer> legOffsets) {
+        this.inputsHash = inputsHash;
+        this.buffer = buffer;
+        this.legOffsets = legOffsets;
+    }
+
+    public long inputsHash() { return this.inputsHash; }
+
+    public int size() { return this.legOffsets.size(); }
+
+    /**
+     * Hash of the inputs an atlas is built from.
+     *
+     * @param noFlyZones  Array of no-fly zones.
+     * @param centralArea Central area of operation.
+     * @param restaurants Array of available restaurants.
+     * @param openList    Open list the legs are searched with, which decides between equally short paths.
+     * @return 64-bit hash of every zone, the central area, each restaurant name and location and the open list.
+     */
+    public static long hashOf(NamedRegion[] noFlyZones, NamedRegion centralArea, Restaurant[] restaurants, OpenListType openList) {
+        long hash = RouteCache.fingerprint(noFlyZones);
+        hash = 31 * hash + RouteCache.fingerprint(new NamedRegion[]{centralArea});
+        for (Restaurant restaurant : restaurants) {
+            hash = 31 * hash + restaurant.name().hashCode();
+            hash = 31 * hash + Double.doubleToLongBits(restaurant.location().lng());
+            hash = 31 * hash + Double.doubleToLongBits(restaurant.location().lat());
+        }
+        hash = 31 * hash + openList.ordinal();
+        return 31 * hash + FILE_VERSION;
+    }
+
+    /**
+     * Checks whether the atlas was built from the given inputs.
+     *
+     * @param noFlyZones  Array of no-fly zones.
+     * @param centralArea Central area of operation.
+     * @param restaurants Array of available restaurants.
+     * @param openList    Open list legs are searched with.
+     * @return true if the atlas can serve legs for these inputs.
+     */
+    public boolean matches(NamedRegion[] noFlyZones, NamedRegion centralArea, Restaurant[] restaurants, OpenListType openList) {
+        return inputsHash == hashOf(noFlyZones, centralArea, restaurants, openList);
+    }
+
+    /**
+     * Plans the round trip to every restaurant with the current Flightpath settings and writes each leg searched to a file.
+     * Legs found by the anytime search are never recorded, as they depend on the wall clock.
+     *
+     * @param file        Destination file.
+     * @param noFlyZones  Array of no-fly zones.
+     * @param centralArea Central area of operation.
+     * @param restaurants Array of available restaurants.
+     * @return Number of legs written.
+     * @throws IOException If the file cannot be written.
+     */
+    public static int build(Path file, NamedRegion[] noFlyZones, NamedRegion centralArea, Restaurant[] restaurants) throws IOException {
+        //Every leg searched while planning lands in an unbounded cache, which becomes the atlas
+        RouteCache previousCache = Flightpath.getRouteCache();
+        RouteAtlas previousAtlas = Flightpath.getRouteAtlas();
+        RouteCache recorder = new RouteCache(Integer.MAX_VALUE, Long.MAX_VALUE);
+        Flightpath.setRouteCache(recorder);
+        Flightpath.setRouteAtlas(null);
+        try {
+            Flightpath.zoneIndexFor(noFlyZones);
+            if (Flightpath.getHeuristicType() == HeuristicType.LANDMARK) {
+                Flightpath.prepareLandmarks(noFlyZones, restaurants);
+            }
+            for (Restaurant restaurant : restaurants) {
+                Flightpath.getOrderPath(noFlyZones, centralArea, restaurant.location(), "", new ArrayList<>());
+            }
+        } finally {
+            Flightpath.setRouteCache(previousCache);
+            Flightpath.setRouteAtlas(previousAtlas);
+        }
+
+        return write(file, hashOf(noFlyZones, centralArea, restaurants, Flightpath.getOpenListType()), recorder.snapshot());
+    }
+
+    /**
+     * Writes legs to an atlas file, replacing it atomically.
+     * Legs that cannot be replayed exactly from direction codes are left out and stay live searches.
+     *
+     * @param file       Destination file.
+     * @param inputsHash Hash of the inputs the legs were planned from.
+     * @param legs       Legs to write, by cache key.
+     * @return Number of legs written.
+     * @throws IOException If the file cannot be written.
+     */
+    static int write(Path file, long inputsHash, Map<RouteCache.RouteKey, List<Node>> legs) throws IOException {
+        List<Map.Entry<RouteCache.RouteKey, byte[]>> encoded = new ArrayList<>();
+        for (Map.Entry<RouteCache.RouteKey, List<Node>> entry : legs.entrySet()) {
+            byte[] moves = encode(entry.getValue());
+            if (moves != null) encoded.add(Map.entry(entry.getKey(), moves));
+        }
+
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, "atlas", ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(FILE_MAGIC);
+            out.writeInt(FILE_VERSION);
+            out.writeLong(inputsHash);
+            out.writeInt(encoded.size());
+            for (Map.Entry<RouteCache.RouteKey, byte[]> entry : encoded) {
+                RouteCache.RouteKey key = entry.getKey();
+                out.writeLong(key.startLngBits());
+                out.writeLong(key.startLatBits());
+                out.writeLong(key.endLngBits());
+                out.writeLong(key.endLatBits());
+                out.writeLong(key.zonesFingerprint());
+                out.writeLong(key.centralAreaFingerprint());
+                out.writeByte(key.mode().ordinal());
+                out.writeByte(key.heuristic().ordinal());
+                out.writeByte(key.openList().ordinal());
+                out.writeDouble(key.heuristicWeight());
+                out.writeInt(entry.getValue().length);
+                out.write(entry.getValue());
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return encoded.size();
+    }
+
+    /**
+     * Converts a leg into one direction code per move after the initial hover.
+     *
+     * @param leg Leg to encode.
+     * @return Direction codes, or null if replaying them would not reproduce the leg exactly.
+     */
+    private static byte[] encode(List<Node> leg) {
+        if (leg.isEmpty() || leg.get(0).angle != 999) return null;
+
+        byte[] moves = new byte[leg.size() - 1];
+        double lng = leg.get(0).lng(), lat = leg.get(0).lat();
+        for (int i = 1; i < leg.size(); i++) {
+            Node node = leg.get(i);
+            int direction = LngLatHandler.directionIndex(node.angle);
+            if (direction < 0) return null;
+            lng += LngLatHandler.DIRECTION_LNG[direction];
+            lat += LngLatHandler.DIRECTION_LAT[direction];
+            if (lng != node.lng() || lat != node.lat()) return null;
+            moves[i - 1] = (byte) direction;
+        }
+        return moves;
+    }
+
+    /**
+     * Memory-maps an atlas file and indexes its legs.
+     *
+     * @param file Atlas file written by build.
+     * @return The atlas.
+     * @throws IOException If the file cannot be read or is not an atlas of this version.
+     */
+    public static RouteAtlas open(Path file) throws IOException {
+        MappedByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try {
+            if (buffer.getInt() != FILE_MAGIC || buffer.getInt() != FILE_VERSION) {
+                throw new IOException("Not a route atlas of version " + FILE_VERSION);
+            }
+            long inputsHash = buffer.getLong();
+            int count = buffer.getInt();
+            if (count < 0) throw new IOException("Invalid route atlas leg count " + count);
+
+            SearchMode[] modes = SearchMode.values();
+            HeuristicType[] heuristics = HeuristicType.values();
+            OpenListType[] openLists = OpenListType.values();
+            Map<RouteCache.RouteKey, Integer> legOffsets = new HashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                if (buffer.remaining() < LEG_HEADER_BYTES) throw new IOException("Truncated route atlas");
+                long startLngBits = buffer.getLong(), startLatBits = buffer.getLong();
+                long endLngBits = buffer.getLong(), endLatBits = buffer.getLong();
+                long zonesFingerprint = buffer.getLong(), centralAreaFingerprint = buffer.getLong();
+                int mode = buffer.get(), heuristic = buffer.get(), openList = buffer.get();
+                double weight = buffer.getDouble();
+                int offset = buffer.position();
+                int moves = buffer.getInt();
+                if (mode < 0 || mode >= modes.length || heuristic < 0 || heuristic >= heuristics.length
+                        || openList < 0 || openList >= openLists.length || moves < 0 || moves > buffer.remaining()) {
+                    throw new IOException("Corrupt route atlas leg " + i);
+                }
+                for (int m = 0; m < moves; m++) {
+                    int direction = buffer.get();
+                    if (direction < 0 || direction >= LngLatHandler.DIRECTIONS) throw new IOException("Corrupt route atlas leg " + i);
+                }
+
+                legOffsets.put(new RouteCache.RouteKey(startLngBits, startLatBits, endLngBits, endLatBits, zonesFingerprint,
+                        centralAreaFingerprint, modes[mode], weight, heuristics[heuristic], openLists[openList]), offset);
+            }
+            return new RouteAtlas(inputsHash, buffer, legOffsets);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("Truncated route atlas", e);
+        }
+    }
+
+    /**
+     * Replays the leg stored for a search, if any.
+     * Reads use absolute positions, so concurrent lookups are safe.
+     *
+     * @param key     Key of the search.
+     * @param orderNo Order number to tag the nodes with.
+     * @return The leg, starting with a hover at the start position, or null if the atlas does not hold it.
+     */
+    public List<Node> lookup(RouteCache.RouteKey key, String orderNo) {
+        Integer offset = legOffsets.get(key);
+        if (offset == null) return null;
+
+        int moves = buffer.getInt(offset);
+        List<Node> leg = new ArrayList<>(moves + 1);
+        Node current = new Node(new LngLat(Double.longBitsToDouble(key.startLngBits()), Double.longBitsToDouble(key.startLatBits())), 999, orderNo);
+        leg.add(current);
+        for (int i = 0; i < moves; i++) {
+            int direction = buffer.get(offset + Integer.BYTES + i);
+            Node next = new Node(new LngLat(current.lng() + LngLatHandler.DIRECTION_LNG[direction], current.lat() + LngLatHandler.DIRECTION_LAT[direction]),
+                    LngLatHandler.DIRECTION_ANGLES[direction], orderNo);
+            next.parent = current;
+            next.startCost = current.startCost + SystemConstants.DRONE_MOVE_DISTANCE;
+            leg.add(next);
+            current = next;
+        }
+        return leg;
+    }
+}
@@ -0,0 +1,244 @@
+package org.example;
+
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded, thread-safe memo of sub-paths computed by Flightpath.
+ * Entries are evicted least recently used first once either the entry or node limit is exceeded.
+ */
+public class RouteCache {
+
+    public static final int DEFAULT_MAX_ENTRIES = 1024;
+    public static final long DEFAULT_MAX_NODES = 1_000_000;
+
+    private final int maxEntries;
+    private final long maxNodes;
+    private final LinkedHashMap<RouteKey, List<Node>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long cachedNodes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    /**
+     * Identifies a sub-path search.
+     * The start is kept exact rather than snapped to a lattice cell so that a cached
+     * leg always replays the same positions the search would have produced.
+     * The open list is part of the key as its tie-breaking decides between equally short paths.
+     */
+    public record RouteKey(long startLngBits, long startLatBits, long endLngBits, long endLatBits, long zonesFingerprint, long centralAreaFingerprint, SearchMode mode, double heuristicWeight, HeuristicType heuristic,
+                           OpenListType openList) { }
+
+    /**
+     * Snapshot of cache counters.
+     */
+    public record Stats(long hits, long misses, long evictions, int size) {
+        @Override
+        public String toString() {
+            return "hits=" + hits + ", misses=" + misses + ", evictions=" + evictions + ", size=" + size;
+        }
+    }
+
+    /**
+     * Constructs an empty cache.
+     *
+     * @param maxEntries Maximum number of cached legs.
+     * @param maxNodes   Maximum total number of nodes held across all cached legs.
+     */
+    public RouteCache(int maxEntries, long maxNodes) {
+        if (maxEntries <= 0 || maxNodes <= 0) {
+            throw new IllegalArgumentException("Route cache limits must be positive");
+        }
+        this.maxEntries = maxEntries;
+        this.maxNodes = maxNodes;
+    }
+
+    /**
+     * Builds the cache key for a sub-path search.
+     *
+     * @param startLng   Longitude of start position.
+     * @param startLat   Latitude of start position.
+     * @param endLng     Longitude of end position.
+     * @param endLat     Latitude of end position.
+     * @param noFlyZones Array of no-fly zones the path must avoid.
+     * @param mode       Search algorithm producing the path.
+     * @return The cache key.
+     */
+    public static RouteKey key(double startLng, double startLat, double endLng, double endLat, NamedRegion[] noFlyZones, SearchMode mode) {
+        return key(startLng, startLat, endLng, endLat, noFlyZones, mode, 1.0, HeuristicType.EUCLIDEAN, OpenListType.D_ARY_HEAP);
+    }
+
+    /**
+     * Builds the cache key for a sub-path search using a chosen and possibly weighted heuristic.
+     *
+     * @param startLng        Longitude of start position.
+     * @param startLat        Latitude of start position.
+     * @param endLng          Longitude of end position.
+     * @param endLat          Latitude of end position.
+     * @param noFlyZones      Array of no-fly zones the path must avoid.
+     * @param mode            Search algorithm producing the path.
+     * @param heuristicWeight Heuristic weight the search runs with.
+     * @param heuristic       Heuristic the search runs with.
+     * @param openList        Open list the search runs with.
+     * @return The cache key.
+     */
+    public static RouteKey key(double startLng, double startLat, double endLng, double endLat, NamedRegion[] noFlyZones, SearchMode mode,
+                               double heuristicWeight, HeuristicType heuristic, OpenListType openList) {
+        return key(startLng, startLat, endLng, endLat, noFlyZones, null, mode, heuristicWeight, heuristic, openList);
+    }
+
+    /**
+     * Builds the cache key for a sub-path search that may not leave the central area once inside.
+     *
+     * @param startLng        Longitude of start position.
+     * @param startLat        Latitude of start position.
+     * @param endLng          Longitude of end position.
+     * @param endLat          Latitude of end position.
+     * @param noFlyZones      Array of no-fly zones the path must avoid.
+     * @param centralArea     Area the path may not leave once inside, or null for no constraint.
+     * @param mode            Search algorithm producing the path.
+     * @param heuristicWeight Heuristic weight the search runs with.
+     * @param heuristic       Heuristic the search runs with.
+     * @param openList        Open list the search runs with.
+     * @return The cache key.
+     */
+    public static RouteKey key(double startLng, double startLat, double endLng, double endLat, NamedRegion[] noFlyZones, NamedRegion centralArea,
+                               SearchMode mode, double heuristicWeight, HeuristicType heuristic, OpenListType openList) {
+        long centralAreaFingerprint = centralArea == null ? 0 : fingerprint(new NamedRegion[]{centralArea});
+        return key(startLng, startLat, endLng, endLat, fingerprint(noFlyZones), centralAreaFingerprint, mode, heuristicWeight, heuristic, openList);
+    }
+
+    /**
+     * Builds the cache key for a sub-path search from fingerprints computed in advance.
+     *
+     * @param startLng               Longitude of start position.
+     * @param startLat               Latitude of start position.
+     * @param endLng                 Longitude of end position.
+     * @param endLat                 Latitude of end position.
+     * @param zonesFingerprint       Fingerprint of the no-fly zones the path must avoid.
+     * @param centralAreaFingerprint Fingerprint of the central area the path may not leave once inside, or 0 for no constraint.
+     * @param mode                   Search algorithm producing the path.
+     * @param heuristicWeight        Heuristic weight the search runs with.
+     * @param heuristic              Heuristic the search runs with.
+     * @param openList               Open list the search runs with.
+     * @return The cache key.
+     */
+    public static RouteKey key(double startLng, double startLat, double endLng, double endLat, long zonesFingerprint, long centralAreaFingerprint,
+                               SearchMode mode, double heuristicWeight, HeuristicType heuristic, OpenListType openList) {
+        return new RouteKey(Double.doubleToLongBits(startLng), Double.doubleToLongBits(startLat),
+                Double.doubleToLongBits(endLng), Double.doubleToLongBits(endLat), zonesFingerprint, centralAreaFingerprint, mode, heuristicWeight, heuristic, openList);
+    }
+
+    /**
+     * Computes a fingerprint of the no-fly zone geometry, so a changed zone list never reuses stale legs.
+     *
+     * @param noFlyZones Array of no-fly zones.
+     * @return 64-bit fingerprint of every zone name and vertex.
+     */
+    public static long fingerprint(NamedRegion[] noFlyZones) {
+        long hash = 1125899906842597L;
+        for (NamedRegion zone : noFlyZones) {
+            hash = 31 * hash + zone.name().hashCode();
+            for (LngLat vertex : zone.vertices()) {
+                hash = 31 * hash + Double.doubleToLongBits(vertex.lng());
+                hash = 31 * hash + Double.doubleToLongBits(vertex.lat());
+            }
+        }
+        return hash;
+    }
+
+    /**
+     * Returns a copy of the cached leg for the key, computing and storing it on a miss.
+     * The search runs outside the lock, so concurrent misses on the same key may both search.
+     *
+     * @param key     The cache key.
+     * @param orderNo Order number to tag the returned nodes with.
+     * @param search  Computes the leg on a miss.
+     * @return A fresh copy of the leg owned by the caller.
+     */
+    public List<Node> getOrCompute(RouteKey key, String orderNo, Supplier<List<Node>> search) {
+        List<Node> cached;
+        synchronized (this) {
+            cached = entries.get(key);
+        }
+        if (cached != null) {
+            hits.incrementAndGet();
+            return copyLeg(cached, orderNo);
+        }
+
+        misses.incrementAndGet();
+        List<Node> computed = search.get();
+        //Empty results mean no path was found, which is not worth remembering
+        if (!computed.isEmpty()) {
+            put(key, copyLeg(computed, orderNo));
+        }
+        return computed;
+    }
+
+    private synchronized void put(RouteKey key, List<Node> leg) {
+        List<Node> previous = entries.put(key, leg);
+        if (previous != null) {
+            cachedNodes -= previous.size();
+        }
+        cachedNodes += leg.size();
+
+        Iterator<Map.Entry<RouteKey, List<Node>>> eldest = entries.entrySet().iterator();
+        while ((entries.size() > maxEntries || cachedNodes > maxNodes) && eldest.hasNext()) {
+            cachedNodes -= eldest.next().getValue().size();
+            eldest.remove();
+            evictions.incrementAndGet();
+        }
+    }
+
+    /**
+     * Copies a leg node by node, re-linking parents within the copy and re-tagging the order number.
+     *
+     * @param leg     The leg to copy.
+     * @param orderNo Order number for the copied nodes.
+     * @return The copied leg.
+     */
+    static List<Node> copyLeg(List<Node> leg, String orderNo) {
+        List<Node> copy = new ArrayList<>(leg.size());
+        Node parent = null;
+        for (Node node : leg) {
+            Node clone = new Node(node.lngLat, node.angle, orderNo);
+            clone.startCost = node.startCost;
+            clone.endCost = node.endCost;
+            clone.parent = parent;
+            copy.add(clone);
+            parent = clone;
+        }
+        return copy;
+    }
+
+    /**
+     * Copies the cached legs, least recently used first.
+     *
+     * @return Map from key to a copy of each cached leg.
+     */
+    public synchronized Map<RouteKey, List<Node>> snapshot() {
+        Map<RouteKey, List<Node>> copy = new LinkedHashMap<>();
+        for (Map.Entry<RouteKey, List<Node>> entry : entries.entrySet()) {
+            copy.put(entry.getKey(), copyLeg(entry.getValue(), entry.getValue().get(0).orderNo));
+        }
+        return copy;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        cachedNodes = 0;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(hits.get(), misses.get(), evictions.get(), entries.size());
+    }
+}
@@ -0,0 +1,52 @@
+package org.example;
+
+/**
+ * Wall-clock and expansion allowance for a single leg search.
+ * A budget is consumed one expansion at a time; the clock is only read every few expansions.
+ */
+public class SearchBudget {
+
+    private static final int CLOCK_CHECK_INTERVAL = 64;
+
+    private final long deadlineNanos;
+    private long expansionsLeft;
+    private long spent;
+    private boolean exhausted;
+
+    /**
+     * Starts a budget running from now.
+     *
+     * @param millis     Wall-clock allowance in milliseconds, or a non-positive value for no time limit.
+     * @param expansions Node expansion allowance, or a non-positive value for no expansion limit.
+     */
+    public SearchBudget(long millis, long expansions) {
+        this.deadlineNanos = millis > 0 ? System.nanoTime() + millis * 1_000_000 : Long.MAX_VALUE;
+        this.expansionsLeft = expansions > 0 ? expansions : Long.MAX_VALUE;
+    }
+
+    /**
+     * Consumes one expansion.
+     *
+     * @return true if the expansion may go ahead, false once the budget is exhausted.
+     */
+    public boolean spend() {
+        if (exhausted) return false;
+        if (--expansionsLeft < 0 ||
+                (++spent % CLOCK_CHECK_INTERVAL == 0 && deadlineNanos != Long.MAX_VALUE && System.nanoTime() >= deadlineNanos)) {
+            exhausted = true;
+        }
+        return !exhausted;
+    }
+
+    /**
+     * Checks whether the budget has run out, reading the clock immediately.
+     *
+     * @return true if no more work should be started.
+     */
+    public boolean isExhausted() {
+        if (!exhausted && deadlineNanos != Long.MAX_VALUE && System.nanoTime() >= deadlineNanos) {
+            exhausted = true;
+        }
+        return exhausted;
+    }
+}
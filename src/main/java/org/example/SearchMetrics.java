@@ -0,0 +1,126 @@
+package org.example;
+
+import java.util.List;
+
+/**
+ * Search effort counters for one leg, or aggregated over several legs.
+ * While a leg is being planned its metrics are active on the planning thread, so shared code
+ * such as the no-fly zone index can count work without the metrics being passed down every call.
+ */
+public class SearchMetrics {
+
+    private static final ThreadLocal<SearchMetrics> active = new ThreadLocal<>();
+
+    long nodesExpanded;
+    long nodesGenerated;
+    long peakOpenSize;
+    long closedSize;
+    long validityChecks;
+    long polygonEdgeTests;
+    long wallNanos;
+    int legs;
+    int cachedLegs;
+
+    private long startNanos;
+
+    /**
+     * Per-order metrics, one entry per planned leg in flight order.
+     *
+     * @param orderNo    Order number the legs belong to.
+     * @param legs       Metrics of each leg.
+     * @param movesSaved Moves removed from the order's path after planning.
+     */
+    public record OrderMetrics(String orderNo, List<SearchMetrics> legs, int movesSaved) {
+
+        public OrderMetrics(String orderNo, List<SearchMetrics> legs) {
+            this(orderNo, legs, 0);
+        }
+
+        /**
+         * Aggregates the legs of this order.
+         *
+         * @return Combined metrics.
+         */
+        public SearchMetrics total() {
+            SearchMetrics total = new SearchMetrics();
+            for (SearchMetrics leg : legs) {
+                total.add(leg);
+            }
+            return total;
+        }
+    }
+
+    /**
+     * Returns the metrics of the leg being planned on the current thread.
+     *
+     * @return The active metrics, or null outside leg planning.
+     */
+    static SearchMetrics current() {
+        return active.get();
+    }
+
+    /**
+     * Starts metrics for a new leg and makes them active on the current thread.
+     *
+     * @return The new leg metrics.
+     */
+    static SearchMetrics startLeg() {
+        SearchMetrics metrics = new SearchMetrics();
+        metrics.legs = 1;
+        active.set(metrics);
+        metrics.startNanos = System.nanoTime();
+        return metrics;
+    }
+
+    /**
+     * Stops the wall clock of this leg and deactivates it on the current thread.
+     */
+    void stopLeg() {
+        wallNanos += System.nanoTime() - startNanos;
+        active.remove();
+    }
+
+    /**
+     * Records the current open set size, keeping the largest seen.
+     *
+     * @param size Current number of open states.
+     */
+    void recordOpenSize(int size) {
+        if (size > peakOpenSize) peakOpenSize = size;
+    }
+
+    /**
+     * Adds another set of metrics to this one. Peak open size is the larger of the two, other counters are summed.
+     *
+     * @param other Metrics to add.
+     */
+    public void add(SearchMetrics other) {
+        nodesExpanded += other.nodesExpanded;
+        nodesGenerated += other.nodesGenerated;
+        peakOpenSize = Math.max(peakOpenSize, other.peakOpenSize);
+        closedSize += other.closedSize;
+        validityChecks += other.validityChecks;
+        polygonEdgeTests += other.polygonEdgeTests;
+        wallNanos += other.wallNanos;
+        legs += other.legs;
+        cachedLegs += other.cachedLegs;
+    }
+
+    public long getNodesExpanded() { return this.nodesExpanded; }
+
+    public long getNodesGenerated() { return this.nodesGenerated; }
+
+    public long getPeakOpenSize() { return this.peakOpenSize; }
+
+    public long getClosedSize() { return this.closedSize; }
+
+    public long getValidityChecks() { return this.validityChecks; }
+
+    public long getPolygonEdgeTests() { return this.polygonEdgeTests; }
+
+    public double getWallTimeMs() { return this.wallNanos / 1e6; }
+
+    public int getLegs() { return this.legs; }
+
+    public int getCachedLegs() { return this.cachedLegs; }
+}
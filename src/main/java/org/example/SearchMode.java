@@ -0,0 +1,31 @@
+package org.example;
+
+/**
+ * Selects the search algorithm used by Flightpath to find sub-paths.
+ */
+public enum SearchMode {
+    /** A* keyed on full Node equality (position and costs). */
+    CLASSIC,
+    /** A* keyed on integer lattice cells, with primitive visited and cost tables. */
+    LATTICE,
+    /** Shortest any-angle polyline over a visibility graph of zone vertices, discretised into compass moves. */
+    VISIBILITY_GRAPH,
+    /** Lattice A* grown from both the start and the goal until the frontiers meet. */
+    BIDIRECTIONAL,
+    /** Weighted lattice A* that keeps improving its first path until the per-leg budget runs out. */
+    ANYTIME;
+
+    /**
+     * @return true if the search can keep a leg inside the central area once it has entered it.
+     */
+    public boolean tracksCentralArea() {
+        return this == LATTICE || this == ANYTIME;
+    }
+
+    /**
+     * @return true if the search always finds the same path for the same leg, so its legs may be cached.
+     */
+    public boolean isRepeatable() {
+        return this != ANYTIME;
+    }
+}
@@ -0,0 +1,387 @@
+package org.example;
+
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+import uk.ac.ed.inf.ilp.data.Order;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Groups a day's orders into multi-stop flights.
+ * Orders from the same restaurant are packed into stops of at most the flight capacity in pizzas, then stops are
+ * merged into flights by descending savings while the merged flight stays within the capacity and move budget.
+ * The stops of each flight are sequenced by nearest neighbour followed by swap and relocate improvements over a
+ * matrix of leg lengths found with Flightpath's search. Once the drone has collected its first pizzas, every leg is
+ * planned so it never leaves the central area after entering it.
+ */
+public class TourPlanner {
+
+    //Cost of a leg that cannot be flown
+    static final int INFEASIBLE = Integer.MAX_VALUE;
+
+    private static final LngLatHandler lngLatHandler = new LngLatHandler();
+
+    private final NamedRegion[] noFlyZones;
+    private final NamedRegion centralArea;
+    private final LngLat home;
+    private final int capacity;
+    private final int moveBudget;
+
+    /**
+     * One flight from home and back, with the orders it collects.
+     *
+     * @param orders Orders collected on the flight.
+     * @param path   Path of the flight, with a hover at the start and at each stop.
+     */
+    public record Flight(List<Order> orders, List<Node> path) { }
+
+    /**
+     * Orders collected together at one restaurant.
+     */
+    private static final class Stop {
+        final int node;
+        final List<Order> orders = new ArrayList<>();
+        int pizzas;
+        //Position of the stop's first order in the day's order sequence
+        final int firstIndex;
+
+        Stop(int node, int firstIndex) {
+            this.node = node;
+            this.firstIndex = firstIndex;
+        }
+    }
+
+    /**
+     * Constructs a tour planner.
+     *
+     * @param noFlyZones  Array of no-fly zones.
+     * @param centralArea Central area of operation.
+     * @param home        Position every flight starts from and returns to.
+     * @param capacity    Most pizzas carried on one flight.
+     * @param moveBudget  Most moves a multi-stop flight may take.
+     */
+    public TourPlanner(NamedRegion[] noFlyZones, NamedRegion centralArea, LngLat home, int capacity, int moveBudget) {
+        this.noFlyZones = noFlyZones;
+        this.centralArea = centralArea;
+        this.home = home;
+        this.capacity = capacity;
+        this.moveBudget = moveBudget;
+    }
+
+    /**
+     * Plans the flights delivering a day's orders.
+     * Search effort of the legs flown is appended per flight; legs searched only to fill the cost matrix are not recorded.
+     *
+     * @param orders        Orders to deliver, in delivery sequence.
+     * @param restaurants   Position of the restaurant of each order.
+     * @param flightMetrics List the search effort of each flight is appended to, in the same sequence as the flights.
+     * @return Flights in order of their earliest order.
+     * @throws IOException If an I/O error occurs.
+     */
+    public List<Flight> plan(List<Order> orders, List<LngLat> restaurants, List<SearchMetrics.OrderMetrics> flightMetrics) throws IOException {
+        //Matrix node 0 is home, followed by each distinct restaurant
+        List<LngLat> nodes = new ArrayList<>(List.of(home));
+        List<Stop> stops = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            int node = nodes.indexOf(restaurants.get(i));
+            if (node < 0) {
+                node = nodes.size();
+                nodes.add(restaurants.get(i));
+            }
+
+            int pizzas = orders.get(i).getPizzasInOrder().length;
+            Stop target = null;
+            for (Stop stop : stops) {
+                if (stop.node == node && stop.pizzas + pizzas <= capacity) {
+                    target = stop;
+                    break;
+                }
+            }
+            if (target == null) {
+                target = new Stop(node, i);
+                stops.add(target);
+            }
+            target.orders.add(orders.get(i));
+            target.pizzas += pizzas;
+        }
+
+        int[][] cost = costMatrix(nodes);
+        List<List<Stop>> flights = mergeStops(stops, cost);
+        flights.sort(Comparator.comparingInt(flight -> flight.stream().mapToInt(stop -> stop.firstIndex).min().orElse(0)));
+
+        List<Flight> planned = new ArrayList<>();
+        for (List<Stop> flight : flights) {
+            List<SearchMetrics> legs = new ArrayList<>();
+            List<Node> path = flyStops(flight, nodes, legs);
+            if (path == null || path.size() > moveBudget) {
+                //A leg from an actual stop position could not be flown, or the legs flown from the actual stop positions
+                //came out longer than the matrix promised, so fall back to one flight per stop
+                for (Stop stop : flight) {
+                    List<SearchMetrics> stopLegs = new ArrayList<>();
+                    List<Node> stopPath = flyStops(List.of(stop), nodes, stopLegs);
+                    addFlight(planned, flightMetrics, stop.orders, stopPath, stopLegs);
+                }
+                continue;
+            }
+
+            List<Order> flightOrders = new ArrayList<>();
+            for (Stop stop : flight) {
+                flightOrders.addAll(stop.orders);
+            }
+            addFlight(planned, flightMetrics, flightOrders, path, legs);
+        }
+        return planned;
+    }
+
+    private static void addFlight(List<Flight> planned, List<SearchMetrics.OrderMetrics> flightMetrics, List<Order> orders, List<Node> path,
+                                  List<SearchMetrics> legs) {
+        List<String> orderNos = new ArrayList<>();
+        for (Order order : orders) {
+            orderNos.add(order.getOrderNo());
+        }
+        planned.add(new Flight(orders, path));
+        flightMetrics.add(new SearchMetrics.OrderMetrics(String.join(",", orderNos), legs));
+    }
+
+    /**
+     * Finds the length in moves of the leg between every pair of matrix nodes.
+     * Legs leaving a restaurant carry pizzas, so they may not leave the central area once inside it.
+     *
+     * @param nodes Home followed by each restaurant.
+     * @return Leg lengths, INFEASIBLE where no leg exists.
+     */
+    int[][] costMatrix(List<LngLat> nodes) {
+        int[][] cost = new int[nodes.size()][nodes.size()];
+        for (int from = 0; from < nodes.size(); from++) {
+            for (int to = 0; to < nodes.size(); to++) {
+                if (from == to) continue;
+                LngLat start = nodes.get(from);
+                LngLat end = nodes.get(to);
+
+                boolean carrying = from != 0;
+                if (carrying && to != 0 && lngLatHandler.isInRegion(start, centralArea) && !lngLatHandler.isInRegion(end, centralArea)) {
+                    cost[from][to] = INFEASIBLE;
+                    continue;
+                }
+                List<Node> leg = Flightpath.findPath(start.lng(), start.lat(), end.lng(), end.lat(), noFlyZones,
+                        carrying ? centralArea : null, "", new ArrayList<>());
+                cost[from][to] = leg.isEmpty() ? INFEASIBLE : leg.size() - 1;
+            }
+        }
+        return cost;
+    }
+
+    /**
+     * Merges single-stop flights by descending savings of flying two stops in one flight.
+     *
+     * @param stops Stops to merge.
+     * @param cost  Leg lengths between matrix nodes.
+     * @return Flights as sequenced stops.
+     */
+    private List<List<Stop>> mergeStops(List<Stop> stops, int[][] cost) {
+        List<List<Stop>> flights = new ArrayList<>();
+        List<Long> flightCosts = new ArrayList<>();
+        for (Stop stop : stops) {
+            flights.add(new ArrayList<>(List.of(stop)));
+            flightCosts.add(tourCost(List.of(stop), cost));
+        }
+
+        List<int[]> pairs = new ArrayList<>();
+        List<Long> savings = new ArrayList<>();
+        for (int i = 0; i < stops.size(); i++) {
+            for (int j = 0; j < stops.size(); j++) {
+                int a = stops.get(i).node, b = stops.get(j).node;
+                if (a == b || cost[a][b] == INFEASIBLE || cost[a][0] == INFEASIBLE || cost[0][b] == INFEASIBLE) continue;
+                long saving = (long) cost[a][0] + cost[0][b] - cost[a][b];
+                if (saving > 0) {
+                    pairs.add(new int[]{i, j});
+                    savings.add(saving);
+                }
+            }
+        }
+        List<Integer> bySaving = new ArrayList<>();
+        for (int i = 0; i < pairs.size(); i++) bySaving.add(i);
+        bySaving.sort(Comparator.comparing(savings::get, Comparator.reverseOrder()));
+
+        for (int p : bySaving) {
+            Stop first = stops.get(pairs.get(p)[0]);
+            Stop second = stops.get(pairs.get(p)[1]);
+            int fi = flightOf(flights, first), fj = flightOf(flights, second);
+            if (fi == fj) continue;
+            if (pizzas(flights.get(fi)) + pizzas(flights.get(fj)) > capacity) continue;
+
+            List<Stop> merged = new ArrayList<>(flights.get(fi));
+            merged.addAll(flights.get(fj));
+            merged = sequence(merged, cost);
+            long mergedCost = tourCost(merged, cost);
+            if (mergedCost >= flightCosts.get(fi) + flightCosts.get(fj) || mergedCost + hovers(merged) > moveBudget) continue;
+
+            flights.set(fi, merged);
+            flightCosts.set(fi, mergedCost);
+            flights.remove(fj);
+            flightCosts.remove(fj);
+        }
+        return flights;
+    }
+
+    private static int flightOf(List<List<Stop>> flights, Stop stop) {
+        for (int i = 0; i < flights.size(); i++) {
+            if (flights.get(i).contains(stop)) return i;
+        }
+        throw new IllegalStateException("Stop is in no flight");
+    }
+
+    /**
+     * Number of hovers a flight adds to its moves: one at home and one collection per order.
+     *
+     * @param flight Stops of the flight.
+     * @return Hovers on the flight.
+     */
+    private static int hovers(List<Stop> flight) {
+        int hovers = 1;
+        for (Stop stop : flight) hovers += stop.orders.size();
+        return hovers;
+    }
+
+    private static int pizzas(List<Stop> flight) {
+        int pizzas = 0;
+        for (Stop stop : flight) pizzas += stop.pizzas;
+        return pizzas;
+    }
+
+    /**
+     * Orders the stops of a flight by nearest neighbour from home, then improves the order by swapping and relocating stops.
+     *
+     * @param stops Stops of the flight.
+     * @param cost  Leg lengths between matrix nodes.
+     * @return Sequenced stops.
+     */
+    private static List<Stop> sequence(List<Stop> stops, int[][] cost) {
+        List<Stop> remaining = new ArrayList<>(stops);
+        List<Stop> tour = new ArrayList<>();
+        int current = 0;
+        while (!remaining.isEmpty()) {
+            Stop nearest = remaining.get(0);
+            for (Stop stop : remaining) {
+                if (cost[current][stop.node] < cost[current][nearest.node]) nearest = stop;
+            }
+            tour.add(nearest);
+            remaining.remove(nearest);
+            current = nearest.node;
+        }
+
+        long best = tourCost(tour, cost);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            for (int i = 0; i < tour.size(); i++) {
+                for (int j = 0; j < tour.size(); j++) {
+                    if (i == j) continue;
+                    List<Stop> swapped = new ArrayList<>(tour);
+                    swapped.set(i, tour.get(j));
+                    swapped.set(j, tour.get(i));
+                    List<Stop> relocated = new ArrayList<>(tour);
+                    relocated.add(j, relocated.remove(i));
+
+                    for (List<Stop> candidate : List.of(swapped, relocated)) {
+                        long candidateCost = tourCost(candidate, cost);
+                        if (candidateCost < best) {
+                            tour = candidate;
+                            best = candidateCost;
+                            improved = true;
+                        }
+                    }
+                }
+            }
+        }
+        return tour;
+    }
+
+    /**
+     * Length in moves of a flight from home through the stops in sequence and back.
+     *
+     * @param tour Sequenced stops.
+     * @param cost Leg lengths between matrix nodes.
+     * @return Total moves, or Long.MAX_VALUE if any leg cannot be flown.
+     */
+    private static long tourCost(List<Stop> tour, int[][] cost) {
+        long total = 0;
+        int current = 0;
+        for (int i = 0; i <= tour.size(); i++) {
+            int next = i < tour.size() ? tour.get(i).node : 0;
+            if (cost[current][next] == INFEASIBLE) return Long.MAX_VALUE;
+            total += cost[current][next];
+            current = next;
+        }
+        return total;
+    }
+
+    /**
+     * Flies a sequenced flight leg by leg from the actual end of each leg.
+     * A single stop is flown as an ordinary order, and nodes on the way to a stop are tagged with its first order.
+     * Every order collected at a stop gets its own collection hover.
+     *
+     * @param flight Sequenced stops.
+     * @param nodes  Home followed by each restaurant.
+     * @param legs   List the search effort of each leg is appended to.
+     * @return Path of the flight, or null if a leg cannot be flown.
+     * @throws IOException If an I/O error occurs.
+     */
+    private List<Node> flyStops(List<Stop> flight, List<LngLat> nodes, List<SearchMetrics> legs) throws IOException {
+        if (flight.size() == 1) {
+            Stop stop = flight.get(0);
+            List<Node> path = new ArrayList<>(Flightpath.getOrderPath(noFlyZones, centralArea, nodes.get(stop.node), stop.orders.get(0).getOrderNo(), legs));
+            //The first hover after the one at home is the collection
+            int collection = 1;
+            while (path.get(collection).angle != 999) collection++;
+            addCollectionHovers(path, collection, stop);
+            return path;
+        }
+
+        List<Node> path = new ArrayList<>();
+        double lng = home.lng(), lat = home.lat();
+        String orderNo = "";
+        for (int i = 0; i <= flight.size(); i++) {
+            LngLat target = i < flight.size() ? nodes.get(flight.get(i).node) : home;
+            String collectedOrderNo = orderNo;
+            if (i < flight.size()) orderNo = flight.get(i).orders.get(0).getOrderNo();
+
+            //Pizzas are on board after the first stop
+            List<Node> leg = Flightpath.findPath(lng, lat, target.lng(), target.lat(), noFlyZones, i > 0 ? centralArea : null, orderNo, legs);
+            if (leg.isEmpty()) return null;
+            //The hover starting each later leg is the collection at the previous stop
+            if (i > 0) leg.get(0).orderNo = collectedOrderNo;
+            path.addAll(leg);
+            if (i > 0) addCollectionHovers(path, path.size() - leg.size(), flight.get(i - 1));
+            lng = leg.get(leg.size() - 1).lng();
+            lat = leg.get(leg.size() - 1).lat();
+        }
+        return path;
+    }
+
+    /**
+     * Adds a hover after the collection hover of a stop for each further order collected there.
+     * A flightpath record takes the order of the node it leaves, so the arrival is the first order's hover and the
+     * hover left for each later order is tagged with that order.
+     *
+     * @param path       Path of the flight.
+     * @param collection Index of the stop's collection hover.
+     * @param stop       Stop the orders are collected at.
+     */
+    private static void addCollectionHovers(List<Node> path, int collection, Stop stop) {
+        Node previous = path.get(collection);
+        for (int j = 1; j < stop.orders.size(); j++) {
+            previous.orderNo = stop.orders.get(j).getOrderNo();
+            Node hover = new Node(previous.lngLat, 999, previous.orderNo);
+            hover.parent = previous;
+            path.add(collection + j, hover);
+            previous = hover;
+        }
+        if (collection + stop.orders.size() < path.size()) {
+            path.get(collection + stop.orders.size()).parent = previous;
+        }
+    }
+}
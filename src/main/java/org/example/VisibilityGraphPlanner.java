@@ -0,0 +1,261 @@
+package org.example;
+
+import uk.ac.ed.inf.ilp.constant.SystemConstants;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Any-angle planner for drone sub-paths.
+ * A shortest waypoint polyline is found over a visibility graph of slightly inflated no-fly zone vertices,
+ * then converted into legal 22.5 degree moves by steering towards each waypoint in turn.
+ */
+public class VisibilityGraphPlanner {
+
+    //Distance zone vertices are pushed outwards so waypoints keep clear of zone edges
+    private static final double INFLATION = SystemConstants.DRONE_MOVE_DISTANCE * 2;
+    //Headings tried either side of the direct bearing before a stretch is abandoned
+    private static final int MAX_HEADING_OFFSET = 4;
+
+    private static final LngLatHandler lngLatHandler = new LngLatHandler();
+
+    private final NamedRegion[] noFlyZones;
+    private final NoFlyZoneIndex zoneIndex;
+    private final List<LngLat> vertices = new ArrayList<>();
+    private final List<int[]> vertexEdges = new ArrayList<>();
+
+    /**
+     * Builds the zone-vertex part of the visibility graph.
+     *
+     * @param noFlyZones Array of no-fly zones.
+     */
+    public VisibilityGraphPlanner(NamedRegion[] noFlyZones) {
+        this.noFlyZones = noFlyZones;
+        this.zoneIndex = Flightpath.zoneIndexFor(noFlyZones);
+
+        for (NamedRegion zone : noFlyZones) {
+            for (LngLat vertex : inflate(zone.vertices())) {
+                if (!isInsideAnyZone(vertex)) {
+                    vertices.add(vertex);
+                }
+            }
+        }
+
+        for (int i = 0; i < vertices.size(); i++) {
+            List<Integer> visible = new ArrayList<>();
+            for (int j = 0; j < vertices.size(); j++) {
+                if (i != j && isVisible(vertices.get(i), vertices.get(j))) {
+                    visible.add(j);
+                }
+            }
+            vertexEdges.add(visible.stream().mapToInt(Integer::intValue).toArray());
+        }
+    }
+
+    public NamedRegion[] noFlyZones() { return this.noFlyZones; }
+
+    /**
+     * Pushes each polygon vertex away from the polygon centroid.
+     * A closing vertex repeating the first one is dropped.
+     *
+     * @param polygon Vertices of the polygon.
+     * @return Inflated vertices.
+     */
+    private static List<LngLat> inflate(LngLat[] polygon) {
+        int count = polygon.length;
+        if (count > 1 && polygon[0].equals(polygon[count - 1])) count--;
+
+        double centroidLng = 0, centroidLat = 0;
+        for (int i = 0; i < count; i++) {
+            centroidLng += polygon[i].lng();
+            centroidLat += polygon[i].lat();
+        }
+        centroidLng /= count;
+        centroidLat /= count;
+
+        List<LngLat> inflated = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double dLng = polygon[i].lng() - centroidLng;
+            double dLat = polygon[i].lat() - centroidLat;
+            double length = Math.hypot(dLng, dLat);
+            if (length == 0) continue;
+            inflated.add(new LngLat(polygon[i].lng() + dLng / length * INFLATION, polygon[i].lat() + dLat / length * INFLATION));
+        }
+        return inflated;
+    }
+
+    private boolean isInsideAnyZone(LngLat point) {
+        return zoneIndex.isInAnyZone(point.lng(), point.lat());
+    }
+
+    private boolean isVisible(LngLat a, LngLat b) {
+        return zoneIndex.isValidSegment(b.lng(), b.lat(), a.lng(), a.lat());
+    }
+
+    /**
+     * Finds the shortest waypoint polyline from start to goal through the visibility graph.
+     *
+     * @param start Start position.
+     * @param goal  Goal position.
+     * @return Waypoints from start to goal inclusive, or an empty list if the goal is unreachable.
+     */
+    List<LngLat> findWaypoints(LngLat start, LngLat goal) {
+        if (isVisible(start, goal)) {
+            return List.of(start, goal);
+        }
+
+        //Graph vertices are the zone vertices followed by start and goal
+        int count = vertices.size() + 2;
+        int startIndex = count - 2, goalIndex = count - 1;
+        LngLat[] points = vertices.toArray(new LngLat[count]);
+        points[startIndex] = start;
+        points[goalIndex] = goal;
+
+        boolean[] visibleFromStart = new boolean[count];
+        boolean[] visibleFromGoal = new boolean[count];
+        for (int i = 0; i < vertices.size(); i++) {
+            visibleFromStart[i] = isVisible(start, points[i]);
+            visibleFromGoal[i] = isVisible(points[i], goal);
+        }
+
+        //Dijkstra over the small dense graph
+        double[] distance = new double[count];
+        int[] previous = new int[count];
+        boolean[] settled = new boolean[count];
+        Arrays.fill(distance, Double.MAX_VALUE);
+        Arrays.fill(previous, -1);
+        distance[startIndex] = 0;
+
+        while (true) {
+            int current = -1;
+            for (int i = 0; i < count; i++) {
+                if (!settled[i] && distance[i] < Double.MAX_VALUE && (current == -1 || distance[i] < distance[current])) {
+                    current = i;
+                }
+            }
+            if (current == -1 || current == goalIndex) break;
+            settled[current] = true;
+
+            if (current == startIndex) {
+                for (int i = 0; i < vertices.size(); i++) {
+                    if (visibleFromStart[i]) relax(current, i, points, distance, previous);
+                }
+            } else {
+                for (int next : vertexEdges.get(current)) {
+                    relax(current, next, points, distance, previous);
+                }
+                if (visibleFromGoal[current]) relax(current, goalIndex, points, distance, previous);
+            }
+        }
+
+        if (previous[goalIndex] == -1) return List.of();
+
+        List<LngLat> waypoints = new ArrayList<>();
+        for (int i = goalIndex; i != -1; i = previous[i]) {
+            waypoints.add(points[i]);
+        }
+        Collections.reverse(waypoints);
+        return waypoints;
+    }
+
+    private static void relax(int from, int to, LngLat[] points, double[] distance, int[] previous) {
+        double candidate = distance[from] + lngLatHandler.distanceTo(points[from], points[to]);
+        if (candidate < distance[to]) {
+            distance[to] = candidate;
+            previous[to] = from;
+        }
+    }
+
+    /**
+     * Finds a path from start to end position avoiding no-fly zones.
+     * Falls back to the lattice search from the last reached position if a stretch cannot be discretised.
+     *
+     * @param startLng Longitude of start position.
+     * @param startLat Latitude of start position.
+     * @param endLng   Longitude of end position.
+     * @param endLat   Latitude of end position.
+     * @param orderNo  Order number for identification.
+     * @return List of nodes forming the path, in the same form as Flightpath.findPath.
+     */
+    public List<Node> findPath(double startLng, double startLat, double endLng, double endLat, String orderNo) {
+        //First node should hover, as in the grid searches
+        Node current = new Node(new LngLat(startLng, startLat), 999, orderNo);
+        LngLat goal = new LngLat(endLng, endLat);
+        List<Node> path = new ArrayList<>();
+        path.add(current);
+
+        List<LngLat> waypoints = findWaypoints(current.lngLat, goal);
+        for (int w = 1; w < waypoints.size() && current != null; w++) {
+            boolean isGoal = w == waypoints.size() - 1;
+            double tolerance = isGoal ? Flightpath.GOAL_TOLERANCE : SystemConstants.DRONE_MOVE_DISTANCE;
+            current = steerTowards(current, waypoints.get(w), tolerance, path, orderNo);
+        }
+
+        if (current != null && !waypoints.isEmpty()) {
+            return path;
+        }
+
+        //Discretisation got stuck, finish the leg with the lattice search from where it stopped
+        Node last = path.get(path.size() - 1);
+        List<Node> rest = Flightpath.findPathLattice(last.lng(), last.lat(), endLng, endLat, noFlyZones, orderNo);
+        if (rest.isEmpty()) return rest;
+        for (int i = 1; i < rest.size(); i++) {
+            Node node = rest.get(i);
+            if (i == 1) node.parent = last;
+            path.add(node);
+        }
+        return path;
+    }
+
+    /**
+     * Appends legal compass moves heading towards a waypoint until within tolerance of it.
+     * Each move takes the heading closest to the bearing that passes the legality check.
+     *
+     * @param from      Node to start from.
+     * @param waypoint  Waypoint to steer towards.
+     * @param tolerance Distance at which the waypoint counts as reached.
+     * @param path      Path the moves are appended to.
+     * @param orderNo   Order number for identification.
+     * @return The last node reached, or null if no legal heading made progress.
+     */
+    private Node steerTowards(Node from, LngLat waypoint, double tolerance, List<Node> path, String orderNo) {
+        Node current = from;
+        SearchMetrics metrics = SearchMetrics.current();
+        int budget = (int) (2 * lngLatHandler.distanceTo(from.lngLat, waypoint) / SystemConstants.DRONE_MOVE_DISTANCE) + 32;
+
+        while (lngLatHandler.distanceTo(current.lngLat, waypoint) >= tolerance) {
+            if (budget-- == 0) return null;
+
+            double bearing = Math.toDegrees(Math.atan2(waypoint.lat() - current.lat(), waypoint.lng() - current.lng()));
+            int nearest = (int) Math.round((bearing < 0 ? bearing + 360 : bearing) / LngLatHandler.DIRECTION_STEP) % LngLatHandler.DIRECTIONS;
+
+            Node next = null;
+            for (int offset = 0; offset <= MAX_HEADING_OFFSET && next == null; offset++) {
+                for (int sign : offset == 0 ? new int[]{1} : new int[]{1, -1}) {
+                    int direction = Math.floorMod(nearest + sign * offset, LngLatHandler.DIRECTIONS);
+                    double toLng = current.lng() + LngLatHandler.DIRECTION_LNG[direction];
+                    double toLat = current.lat() + LngLatHandler.DIRECTION_LAT[direction];
+                    if (zoneIndex.isValidMove(toLng, toLat, current.lng(), current.lat())) {
+                        next = new Node(new LngLat(toLng, toLat), LngLatHandler.DIRECTION_ANGLES[direction], orderNo);
+                        break;
+                    }
+                }
+            }
+            if (next == null) return null;
+            if (metrics != null) {
+                metrics.nodesExpanded++;
+                metrics.nodesGenerated++;
+            }
+
+            next.parent = current;
+            next.startCost = current.startCost + SystemConstants.DRONE_MOVE_DISTANCE;
+            path.add(next);
+            current = next;
+        }
+        return current;
+    }
+}
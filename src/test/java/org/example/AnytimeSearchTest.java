@@ -0,0 +1,93 @@
+package org.example;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.util.List;
+
+public class AnytimeSearchTest extends TestCase {
+
+    public AnytimeSearchTest(String testName) { super(testName); }
+
+    public static Test suite() { return new TestSuite(AnytimeSearchTest.class); }
+
+    private static final LngLatHandler lngLatHandler = new LngLatHandler();
+
+    private static final NamedRegion[] zones = TestRegions.block;
+
+    private static final LngLat goal = new LngLat(-3.186, 55.944);
+
+    private static void assertLegal(List<Node> path) {
+        Assert.assertFalse(path.isEmpty());
+        Assert.assertEquals(999.0, path.get(0).angle, 0);
+        Assert.assertTrue(lngLatHandler.distanceTo(path.get(path.size() - 1).lngLat, goal) < Flightpath.GOAL_TOLERANCE);
+        for (int i = 1; i < path.size(); i++) {
+            Node previous = path.get(i - 1);
+            Node current = path.get(i);
+            Assert.assertSame(previous, current.parent);
+            Assert.assertTrue(Flightpath.isValidMove(current.lng(), current.lat(), previous.lng(), previous.lat(), zones));
+        }
+    }
+
+    public void testUnlimitedBudgetReachesExactSearch() {
+        AnytimeSearch.Result result = AnytimeSearch.findPath(-3.191, 55.944, goal.lng(), goal.lat(), zones, "test", 3.0, new SearchBudget(0, 0));
+        List<Node> exact = Flightpath.findPathLattice(-3.191, 55.944, goal.lng(), goal.lat(), zones, "test");
+
+        assertLegal(result.path());
+        Assert.assertEquals(1.0, result.bound(), 0);
+        Assert.assertEquals(exact.size(), result.path().size());
+    }
+
+    public void testExhaustedBudgetKeepsFirstPath() {
+        AnytimeSearch.Result result = AnytimeSearch.findPath(-3.191, 55.944, goal.lng(), goal.lat(), zones, "test", 3.0, new SearchBudget(0, 1));
+
+        assertLegal(result.path());
+        Assert.assertEquals(3.0, result.bound(), 0);
+    }
+
+    public void testPathFoundAsBudgetRunsOutIsKept() {
+        List<Node> first = Flightpath.findPathLattice(-3.191, 55.944, goal.lng(), goal.lat(), zones, "test", 5.0, Double.MAX_VALUE, null);
+        List<Node> improved = Flightpath.findPathLattice(-3.191, 55.944, goal.lng(), goal.lat(), zones, "test", 3.0, first.get(first.size() - 1).startCost, null);
+        Assert.assertFalse(improved.isEmpty());
+
+        //Runs out once the second search has started, as a deadline passing during it would
+        SearchBudget budget = new SearchBudget(0, 0) {
+            private boolean spent;
+
+            @Override
+            public boolean spend() {
+                spent = true;
+                return super.spend();
+            }
+
+            @Override
+            public boolean isExhausted() {
+                return spent;
+            }
+        };
+        AnytimeSearch.Result result = AnytimeSearch.findPath(-3.191, 55.944, goal.lng(), goal.lat(), zones, "test", 5.0, budget);
+
+        assertLegal(result.path());
+        Assert.assertEquals(improved.size(), result.path().size());
+        Assert.assertEquals(5.0, result.bound(), 0);
+    }
+
+    public void testWeightedPathWithinBound() {
+        List<Node> weighted = Flightpath.findPathLattice(-3.191, 55.944, goal.lng(), goal.lat(), zones, "test", 2.0, Double.MAX_VALUE, null);
+        List<Node> exact = Flightpath.findPathLattice(-3.191, 55.944, goal.lng(), goal.lat(), zones, "test");
+
+        assertLegal(weighted);
+        Assert.assertTrue(weighted.size() - 1 <= 2.0 * (exact.size() - 1));
+    }
+
+    public void testCostLimitPrunesWorsePaths() {
+        List<Node> exact = Flightpath.findPathLattice(-3.191, 55.944, goal.lng(), goal.lat(), zones, "test");
+        double exactCost = exact.get(exact.size() - 1).startCost;
+
+        Assert.assertTrue(Flightpath.findPathLattice(-3.191, 55.944, goal.lng(), goal.lat(), zones, "test", 1.0, exactCost, null).isEmpty());
+    }
+}
@@ -0,0 +1,77 @@
+package org.example;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import uk.ac.ed.inf.ilp.data.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class BatchPlannerTest extends TestCase {
+
+    public BatchPlannerTest(String testName) { super(testName); }
+
+    public static Test suite() { return new TestSuite(BatchPlannerTest.class); }
+
+    private static final Pizza pizza = new Pizza("B1: Margarita", 1000);
+    private static final Restaurant[] restaurants = new Restaurant[]{
+            new Restaurant("Batch", new LngLat(-3.1885, 55.9445), DayOfWeek.values(), new Pizza[]{pizza})};
+    private static final NamedRegion centralArea = TestRegions.centralArea;
+    private static final NamedRegion[] noFlyZones = new NamedRegion[0];
+
+    private static final LocalDate start = LocalDate.of(2099, 1, 1);
+    private static final LocalDate end = LocalDate.of(2099, 1, 3);
+
+    @Override
+    protected void tearDown() throws IOException {
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+            for (String prefix : new String[]{"drone-", "flightpath-", "deliveries-", "metrics-"}) {
+                String suffix = prefix.equals("drone-") ? ".geojson" : ".json";
+                Files.deleteIfExists(Paths.get(prefix + date + suffix));
+            }
+        }
+    }
+
+    public void testPlansEveryDayInOrder() throws IOException {
+        List<LocalDate> loaded = Collections.synchronizedList(new ArrayList<>());
+        int days = BatchPlanner.planDays(noFlyZones, centralArea, restaurants, start, end, date -> {
+            loaded.add(date);
+            return OrderValidator.validateDailyOrders(new Order[]{TestOrders.order("B" + date.getDayOfMonth(), date, pizza)}, restaurants);
+        });
+
+        Assert.assertEquals(3, days);
+        Assert.assertEquals(List.of(start, start.plusDays(1), end), loaded);
+        for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+            Assert.assertTrue(Files.exists(Paths.get("flightpath-" + date + ".json")));
+        }
+    }
+
+    public void testFetchFailureStopsBatch() {
+        try {
+            BatchPlanner.planDays(noFlyZones, centralArea, restaurants, start, end, date -> {
+                if (date.equals(end)) throw new IOException("missing");
+                return new Order[0];
+            });
+            Assert.fail("Expected the fetch failure to be reported");
+        } catch (IOException e) {
+            Assert.assertEquals("missing", e.getMessage());
+        }
+    }
+
+    public void testRejectsReversedRange() throws IOException {
+        try {
+            BatchPlanner.planDays(noFlyZones, centralArea, restaurants, end, start, date -> new Order[0]);
+            Assert.fail("Expected a reversed range to be rejected");
+        } catch (IllegalArgumentException e) {
+            Assert.assertTrue(e.getMessage().contains("before"));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package org.example;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.util.List;
+
+public class BidirectionalSearchTest extends TestCase {
+
+    public BidirectionalSearchTest(String testName) { super(testName); }
+
+    public static Test suite() { return new TestSuite(BidirectionalSearchTest.class); }
+
+    private static final LngLatHandler lngLatHandler = new LngLatHandler();
+
+    private static final NamedRegion[] zones = TestRegions.block;
+
+    public void testPathIsLegalAndReachesGoal() {
+        LngLat goal = new LngLat(-3.186, 55.944);
+        List<Node> path = BidirectionalSearch.findPath(-3.191, 55.944, goal.lng(), goal.lat(), zones, "test");
+
+        Assert.assertFalse(path.isEmpty());
+        Assert.assertEquals(999.0, path.get(0).angle, 0);
+        Assert.assertTrue(lngLatHandler.distanceTo(path.get(path.size() - 1).lngLat, goal) < Flightpath.GOAL_TOLERANCE);
+        for (int i = 1; i < path.size(); i++) {
+            Node previous = path.get(i - 1);
+            Node current = path.get(i);
+            Assert.assertSame(previous, current.parent);
+            Assert.assertEquals(lngLatHandler.nextPosition(previous.lngLat, current.angle), current.lngLat);
+            Assert.assertTrue(Flightpath.isValidMove(current.lng(), current.lat(), previous.lng(), previous.lat(), zones));
+        }
+    }
+
+    public void testMatchesLatticeLength() {
+        List<Node> bidirectional = BidirectionalSearch.findPath(-3.191, 55.944, -3.186, 55.944, zones, "test");
+        List<Node> lattice = Flightpath.findPathLattice(-3.191, 55.944, -3.186, 55.944, zones, "test");
+
+        Assert.assertTrue(Math.abs(bidirectional.size() - lattice.size()) <= 2);
+    }
+
+    public void testStartWithinTolerance() {
+        List<Node> path = BidirectionalSearch.findPath(-3.191, 55.944, -3.19095, 55.944, zones, "test");
+
+        Assert.assertEquals(1, path.size());
+    }
+}
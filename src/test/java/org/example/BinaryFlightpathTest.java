@@ -0,0 +1,133 @@
+package org.example;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import uk.ac.ed.inf.ilp.data.LngLat;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class BinaryFlightpathTest extends TestCase {
+
+    public BinaryFlightpathTest(String testName) { super(testName); }
+
+    public static Test suite() { return new TestSuite(BinaryFlightpathTest.class); }
+
+    private Path directory;
+
+    @Override
+    protected void setUp() throws IOException {
+        directory = Files.createTempDirectory("binary");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    //Two orders flown back to back, with an off-compass angle and a jump that cannot be replayed from moves
+    private static List<Node> path() {
+        LngLatHandler lngLatHandler = new LngLatHandler();
+        List<Node> path = new ArrayList<>();
+        Node current = new Node(new LngLat(-3.186874, 55.944494), 999, "AAAA");
+        path.add(current);
+        double[] angles = {0, 22.5, 45, 999, 337.5, 10, 180, 999};
+        for (int i = 0; i < angles.length; i++) {
+            LngLat position = angles[i] == 999 ? current.lngLat : lngLatHandler.nextPosition(current.lngLat, angles[i]);
+            current = new Node(position, angles[i], i < 4 ? "AAAA" : "BBBB");
+            path.add(current);
+        }
+        path.add(new Node(new LngLat(-3.19, 55.945), 90, "BBBB"));
+        path.add(new Node(new LngLat(-3.19, 55.945), 999, null));
+        return path;
+    }
+
+    public void testRoundTripIsExact() throws IOException {
+        for (boolean gzip : new boolean[]{false, true}) {
+            List<Node> path = path();
+            Path file = directory.resolve("path" + gzip + BinaryFlightpath.EXTENSION);
+            BinaryFlightpath.write(path, file, gzip);
+
+            List<Node> read;
+            try (BinaryFlightpath.Reader reader = BinaryFlightpath.open(file)) {
+                read = reader.readAll();
+            }
+            Assert.assertEquals(path.size(), read.size());
+            for (int i = 0; i < path.size(); i++) {
+                Assert.assertEquals(path.get(i).lng(), read.get(i).lng());
+                Assert.assertEquals(path.get(i).lat(), read.get(i).lat());
+                Assert.assertEquals(path.get(i).angle, read.get(i).angle);
+                Assert.assertEquals(path.get(i).orderNo, read.get(i).orderNo);
+            }
+        }
+    }
+
+    public void testExportMatchesJsonFlightpath() throws IOException {
+        List<Node> path = path();
+        String direct = directory.resolve("direct").toString();
+        new JsonConverter().convertFlightpathToJson(path, direct);
+
+        Path file = directory.resolve("path" + BinaryFlightpath.EXTENSION);
+        BinaryFlightpath.write(path, file, true);
+        String exported = directory.resolve("exported").toString();
+        BinaryFlightpath.main(new String[]{file.toString(), exported});
+
+        Assert.assertTrue(Arrays.equals(Files.readAllBytes(Path.of(direct + ".json")), Files.readAllBytes(Path.of(exported + ".json"))));
+    }
+
+    public void testOneBytePerCompassMove() throws IOException {
+        LngLatHandler lngLatHandler = new LngLatHandler();
+        List<Node> path = new ArrayList<>();
+        Node current = new Node(new LngLat(-3.186874, 55.944494), 999, "00001000");
+        path.add(current);
+        for (int i = 0; i < 1000; i++) {
+            current = new Node(lngLatHandler.nextPosition(current.lngLat, (i % 16) * 22.5), (i % 16) * 22.5, "00001000");
+            path.add(current);
+        }
+        Path file = directory.resolve("long" + BinaryFlightpath.EXTENSION);
+        BinaryFlightpath.write(path, file, false);
+
+        //Header, one dictionary entry and one leg
+        Assert.assertEquals(9 + 4 + 10 + 32 + 1000 + 4, Files.size(file));
+    }
+
+    public void testRejectsCorruptFiles() throws IOException {
+        Path file = directory.resolve("path" + BinaryFlightpath.EXTENSION);
+        Files.write(file, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9});
+        try {
+            BinaryFlightpath.open(file).close();
+            fail("Expected IOException");
+        } catch (IOException expected) {
+            //Expected
+        }
+
+        BinaryFlightpath.write(path(), file, false);
+        byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 6));
+        try (BinaryFlightpath.Reader reader = BinaryFlightpath.open(file)) {
+            reader.readAll();
+            fail("Expected IOException");
+        } catch (IOException expected) {
+            //Expected
+        }
+
+        try (BinaryFlightpath.Reader reader = BinaryFlightpath.open(file)) {
+            for (Node ignored : reader) {
+                //Read until the truncation
+            }
+            fail("Expected UncheckedIOException");
+        } catch (UncheckedIOException expected) {
+            //Expected
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package org.example;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.List;
+
+public class FleetSchedulerTest extends TestCase {
+
+    public FleetSchedulerTest(String testName) { super(testName); }
+
+    public static Test suite() { return new TestSuite(FleetSchedulerTest.class); }
+
+    public void testSingleDroneFliesEverythingInSequence() {
+        FleetScheduler.Schedule schedule = new FleetScheduler(1, 1000).assign(new int[]{30, 50, 20});
+        Assert.assertEquals(List.of(0, 1, 2), schedule.droneFlights().get(0));
+        Assert.assertEquals(101, schedule.makespan());
+        Assert.assertTrue(schedule.unassigned().isEmpty());
+    }
+
+    public void testBalancesMovesAcrossDrones() {
+        int[] moves = {70, 30, 40, 60, 50, 50};
+        FleetScheduler.Schedule schedule = new FleetScheduler(2, 1000).assign(moves);
+
+        //Total is 300, so a perfect split gives 150 moves plus the closing hover each
+        Assert.assertEquals(151, schedule.makespan());
+        int flights = 0;
+        for (int d = 0; d < 2; d++) {
+            List<Integer> assigned = schedule.droneFlights().get(d);
+            flights += assigned.size();
+            for (int i = 1; i < assigned.size(); i++) {
+                Assert.assertTrue("flights stay in their original sequence", assigned.get(i - 1) < assigned.get(i));
+            }
+        }
+        Assert.assertEquals(moves.length, flights);
+    }
+
+    public void testImprovesOnGreedyPlacement() {
+        //Longest first alone gives 70 moves against 50, swapping a 30 for a 20 evens it to 60 each
+        FleetScheduler.Schedule schedule = new FleetScheduler(2, 1000).assign(new int[]{30, 30, 20, 20, 20});
+        Assert.assertEquals(61, schedule.makespan());
+    }
+
+    public void testRespectsBatteryLimit() {
+        int[] moves = {60, 60, 60, 120};
+        FleetScheduler.Schedule schedule = new FleetScheduler(2, 100).assign(moves);
+
+        //Drones recharge between flights, so only the flight longer than one charge is left out
+        Assert.assertEquals(List.of(3), schedule.unassigned());
+        for (List<Integer> flights : schedule.droneFlights()) {
+            for (int flight : flights) {
+                Assert.assertTrue(moves[flight] <= 100);
+            }
+        }
+        Assert.assertEquals(121, schedule.makespan());
+    }
+
+    public void testBatteryLimitIsTheSameForAnyFleetSize() {
+        int[] moves = {60, 150, 90, 120};
+        for (int drones = 1; drones <= 4; drones++) {
+            Assert.assertEquals(List.of(1, 3), new FleetScheduler(drones, 100).assign(moves).unassigned());
+        }
+    }
+
+    public void testEmptyDronesFlyNothing() {
+        FleetScheduler.Schedule schedule = new FleetScheduler(3, 1000).assign(new int[]{40});
+        Assert.assertEquals(41, schedule.makespan());
+        int idle = 0;
+        for (int moves : schedule.droneMoves()) {
+            if (moves == 0) idle++;
+        }
+        Assert.assertEquals(2, idle);
+    }
+
+    public void testRejectsInvalidFleet() {
+        try {
+            new FleetScheduler(0, 1000);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            //Expected
+        }
+        try {
+            new FleetScheduler(2, 0);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            //Expected
+        }
+    }
+}
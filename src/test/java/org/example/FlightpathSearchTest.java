@@ -0,0 +1,188 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import uk.ac.ed.inf.ilp.constant.OrderStatus;
+import uk.ac.ed.inf.ilp.data.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.example.TestRegions.box;
+
+/**
+ * Flightpath searches on synthetic zones, needing no server.
+ */
+public class FlightpathSearchTest extends TestCase {
+
+    public FlightpathSearchTest(String testName) { super(testName); }
+
+    public static Test suite() { return new TestSuite(FlightpathSearchTest.class); }
+
+    private static final LngLatHandler lngLatHandler = new LngLatHandler();
+
+    private static final LngLat appleton = new LngLat(-3.186874, 55.944494);
+
+    private static final NamedRegion central = TestRegions.centralArea;
+    //Wall cuts the central area in two, so the only way round is outside it
+    private static final NamedRegion[] wall = new NamedRegion[]{box("wall", -3.1905, 55.9415, -3.1900, 55.9465)};
+
+    private static final Pizza margarita = new Pizza("R1: Margarita", 1000);
+    private static final Pizza calzone = new Pizza("R2: Calzone", 1400);
+    private static final Restaurant[] restaurants = new Restaurant[]{
+            new Restaurant("Inside", new LngLat(-3.1885, 55.9445), DayOfWeek.values(), new Pizza[]{margarita}),
+            new Restaurant("Outside", new LngLat(-3.1940, 55.9436), DayOfWeek.values(), new Pizza[]{calzone})};
+    private static final String date = "2099-02-01";
+    private static final NamedRegion[] block = new NamedRegion[]{box("block", -3.1900, 55.9435, -3.1895, 55.9442)};
+
+    @Override
+    protected void tearDown() throws IOException {
+        Flightpath.setSearchMode(SearchMode.CLASSIC);
+        Flightpath.setPlanningThreads(1);
+        Flightpath.setFleet(1, FleetScheduler.DEFAULT_BATTERY_MOVES);
+        for (String suffix : new String[]{"", "-1", "-2"}) {
+            Files.deleteIfExists(Paths.get("drone-" + date + suffix + ".geojson"));
+            Files.deleteIfExists(Paths.get("flightpath-" + date + suffix + ".json"));
+        }
+        Files.deleteIfExists(Paths.get("deliveries-" + date + ".json"));
+        Files.deleteIfExists(Paths.get("metrics-" + date + ".json"));
+    }
+
+    private static Order[] orders(Pizza... pizzas) {
+        Order[] orders = new Order[pizzas.length];
+        for (int i = 0; i < pizzas.length; i++) {
+            orders[i] = TestOrders.validOrder("P" + i, LocalDate.parse(date), pizzas[i]);
+        }
+        return orders;
+    }
+
+    private static void assertNeverLeavesAfterEntering(List<Node> path) {
+        boolean entered = false;
+        for (Node node : path) {
+            boolean inside = lngLatHandler.isInRegion(node.lngLat, central);
+            Assert.assertFalse(entered && !inside);
+            entered |= inside;
+        }
+    }
+
+    public void testLatticeKeyMergesNearbyPositions() {
+        LngLat there = lngLatHandler.nextPosition(appleton, 45);
+        LngLat back = lngLatHandler.nextPosition(there, 225);
+
+        Assert.assertEquals(Flightpath.latticeKey(appleton, appleton), Flightpath.latticeKey(back, appleton));
+        Assert.assertFalse(Flightpath.latticeKey(appleton, appleton) == Flightpath.latticeKey(there, appleton));
+    }
+
+    public void testConstrainedReturnNeverLeavesCentralArea() {
+        LngLat goal = new LngLat(-3.188, 55.944);
+
+        List<Node> path = Flightpath.findPathLattice(-3.1925, 55.944, goal.lng(), goal.lat(), wall, "test", 1.0, Double.MAX_VALUE, null, central);
+        Assert.assertFalse(path.isEmpty());
+        Assert.assertTrue(lngLatHandler.distanceTo(path.get(path.size() - 1).lngLat, goal) < Flightpath.GOAL_TOLERANCE);
+        assertNeverLeavesAfterEntering(path);
+
+        //Starting inside, getting round the wall would mean leaving the central area
+        Assert.assertFalse(Flightpath.findPathLattice(-3.191, 55.944, goal.lng(), goal.lat(), wall, "test").isEmpty());
+        Assert.assertTrue(Flightpath.findPathLattice(-3.191, 55.944, goal.lng(), goal.lat(), wall, "test", 1.0, Double.MAX_VALUE, null, central).isEmpty());
+    }
+
+    public void testConstrainedLegsUseTheSelectedSearch() {
+        LngLat goal = new LngLat(-3.188, 55.944);
+        for (SearchMode mode : SearchMode.values()) {
+            Flightpath.setSearchMode(mode);
+            List<Node> path = Flightpath.findPath(-3.1925, 55.944, goal.lng(), goal.lat(), wall, central, "test", new ArrayList<>());
+            Assert.assertFalse(mode.toString(), path.isEmpty());
+            Assert.assertTrue(mode.toString(), lngLatHandler.distanceTo(path.get(path.size() - 1).lngLat, goal) < Flightpath.GOAL_TOLERANCE);
+            assertNeverLeavesAfterEntering(path);
+
+            //Searches that cannot track the central area fall back to the lattice search rather than leaving it
+            Assert.assertTrue(mode.toString(), Flightpath.findPath(-3.191, 55.944, goal.lng(), goal.lat(), wall, central, "test", new ArrayList<>()).isEmpty());
+        }
+    }
+
+    public void testEmptyConstrainedReturnFallsBackToPerimeterRoute() throws IOException {
+        //Everything lies inside a walled ring. A second wall cuts the central area in two; its halves only meet
+        //through a sealed corridor just north of the central area, so Appleton cannot be reached without leaving
+        //the central area after entering it from the restaurant's side. The corridor is tuned to this central area
+        NamedRegion ringCentral = box("central", -3.192, 55.942, -3.184, 55.946);
+        NamedRegion[] zones = new NamedRegion[]{
+                box("ringNorth", -3.197, 55.950, -3.179, 55.951), box("ringSouth", -3.197, 55.938, -3.179, 55.939),
+                box("ringWest", -3.197, 55.938, -3.196, 55.951), box("ringEast", -3.180, 55.938, -3.179, 55.951),
+                box("wall", -3.1885, 55.9400, -3.1880, 55.9462), box("south", -3.1885, 55.9400, -3.180, 55.9422),
+                box("east", -3.1842, 55.9405, -3.180, 55.9475), box("ceiling", -3.196, 55.9475, -3.180, 55.9490),
+                box("corridorWest", -3.196, 55.9458, -3.1915, 55.9475)};
+        LngLat restaurant = new LngLat(-3.1935, 55.944);
+        Flightpath.setSearchMode(SearchMode.LATTICE);
+
+        Assert.assertTrue(Flightpath.findPath(restaurant.lng(), restaurant.lat(), appleton.lng(), appleton.lat(), zones, ringCentral, "1", new ArrayList<>()).isEmpty());
+        List<Node> path = Flightpath.getOrderPath(zones, ringCentral, restaurant, "1", new ArrayList<>());
+        Assert.assertTrue(lngLatHandler.distanceTo(path.get(path.size() - 1).lngLat, appleton) < Flightpath.GOAL_TOLERANCE);
+    }
+
+    public void testParallelPlanningMatchesSequential() throws IOException {
+        Pizza[] ordered = new Pizza[]{margarita, calzone, calzone, margarita, calzone, margarita};
+        List<Node> sequential = Flightpath.getFullDayPath(block, central, restaurants, orders(ordered), date).getLeft();
+
+        Flightpath.setPlanningThreads(4);
+        List<Node> parallel = Flightpath.getFullDayPath(block, central, restaurants, orders(ordered), date).getLeft();
+
+        Assert.assertEquals(sequential.size(), parallel.size());
+        for (int i = 0; i < sequential.size(); i++) {
+            Assert.assertEquals(sequential.get(i).lngLat, parallel.get(i).lngLat);
+            Assert.assertEquals(sequential.get(i).orderNo, parallel.get(i).orderNo);
+        }
+    }
+
+    public void testOrderWithoutRestaurantIsReportedFromPlanningThreads() throws IOException {
+        Pizza unknown = new Pizza("R9: Unknown", 1000);
+        Flightpath.setPlanningThreads(4);
+        try {
+            Flightpath.getFullDayPath(block, central, restaurants, orders(margarita, unknown, calzone), date);
+            Assert.fail("Expected the missing restaurant to be reported");
+        } catch (IllegalStateException e) {
+            Assert.assertTrue(e.getMessage().contains("No restaurant found for order: P1"));
+        }
+    }
+
+    public void testFleetDeliversEveryOrderAcrossDrones() throws IOException {
+        Order[] dayOrders = orders(margarita, calzone, margarita, calzone);
+        Flightpath.setFleet(2, FleetScheduler.DEFAULT_BATTERY_MOVES);
+        List<List<Node>> flights = Flightpath.getFullDayPath(block, central, restaurants, dayOrders, date).getRight();
+
+        Assert.assertEquals(dayOrders.length, flights.size());
+        for (Order order : dayOrders) {
+            Assert.assertEquals(OrderStatus.DELIVERED, order.getOrderStatus());
+        }
+        for (int drone = 1; drone <= 2; drone++) {
+            Assert.assertTrue(Files.exists(Paths.get("flightpath-" + date + "-" + drone + ".json")));
+            Assert.assertTrue(Files.exists(Paths.get("drone-" + date + "-" + drone + ".geojson")));
+        }
+    }
+
+    public void testFlightsLongerThanOneChargeAreRecordedAsUndelivered() throws IOException {
+        List<Node> single = Flightpath.getFullDayPath(block, central, restaurants, orders(margarita), date).getLeft();
+        //One charge covers an inside flight, so the longer outside flights cannot be flown by any number of drones
+        for (int drones = 1; drones <= 2; drones++) {
+            Order[] dayOrders = orders(margarita, calzone, margarita, calzone);
+            Flightpath.setFleet(drones, single.size());
+            Flightpath.getFullDayPath(block, central, restaurants, dayOrders, date);
+
+            Assert.assertEquals(OrderStatus.DELIVERED, dayOrders[0].getOrderStatus());
+            Assert.assertEquals(OrderStatus.DELIVERED, dayOrders[2].getOrderStatus());
+            Assert.assertEquals(OrderStatus.VALID_BUT_NOT_DELIVERED, dayOrders[1].getOrderStatus());
+            JsonNode metrics = new ObjectMapper().readTree(Paths.get("metrics-" + date + ".json").toFile());
+            List<String> undelivered = new ArrayList<>();
+            metrics.get("undeliveredOrders").forEach(orderNo -> undelivered.add(orderNo.asText()));
+            Assert.assertEquals(List.of("P1", "P3"), undelivered);
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package org.example;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import uk.ac.ed.inf.ilp.constant.SystemConstants;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.util.List;
+
+public class HeuristicTest extends TestCase {
+
+    public HeuristicTest(String testName) { super(testName); }
+
+    public static Test suite() { return new TestSuite(HeuristicTest.class); }
+
+    private static final LngLatHandler lngLatHandler = new LngLatHandler();
+
+    //Wall between start and goal that forces a detour to the north or south
+    private static final NamedRegion[] zones = new NamedRegion[]{
+            new NamedRegion("wall", new LngLat[]{new LngLat(-3.189, 55.942), new LngLat(-3.188, 55.942), new LngLat(-3.188, 55.946), new LngLat(-3.189, 55.946)})};
+
+    public void testLatticeDistanceMatchesHeadings() {
+        double move = SystemConstants.DRONE_MOVE_DISTANCE;
+
+        Assert.assertEquals(move, LatticeDistanceHeuristic.distance(move, 0), 1e-15);
+        LngLat diagonal = lngLatHandler.nextPosition(new LngLat(0, 0), 67.5);
+        Assert.assertEquals(move, LatticeDistanceHeuristic.distance(diagonal.lng(), diagonal.lat()), 1e-15);
+        Assert.assertEquals(0, LatticeDistanceHeuristic.distance(0, 0), 0);
+    }
+
+    public void testLatticeDistanceBetweenHeadings() {
+        //Halfway between two headings the detour factor is greatest
+        double angle = Math.toRadians(LngLatHandler.DIRECTION_STEP / 2);
+        double expected = 1 / Math.cos(angle);
+        Assert.assertEquals(expected, LatticeDistanceHeuristic.distance(Math.cos(angle), -Math.sin(angle)), 1e-12);
+        Assert.assertTrue(LatticeDistanceHeuristic.distance(0.3, 0.7) >= Math.hypot(0.3, 0.7));
+    }
+
+    public void testLatticeDistanceNeverExceedsPath() {
+        NamedRegion[] open = new NamedRegion[0];
+        List<Node> path = Flightpath.findPathLattice(-3.19, 55.944, -3.1862, 55.9453, open, "test");
+        double cost = (path.size() - 1) * SystemConstants.DRONE_MOVE_DISTANCE;
+
+        Assert.assertTrue(LatticeDistanceHeuristic.distance(-3.1862 + 3.19, 55.9453 - 55.944) <= cost + Flightpath.GOAL_TOLERANCE);
+    }
+
+    public void testLandmarkSeesAroundZones() {
+        LngLat west = new LngLat(-3.191, 55.944);
+        LngLat east = new LngLat(-3.186, 55.944);
+        LandmarkHeuristic heuristic = new LandmarkHeuristic(new LngLat[]{west}, zones);
+
+        double straight = LatticeDistanceHeuristic.distance(east.lng() - west.lng(), 0);
+        double estimate = heuristic.estimate(east.lng(), east.lat(), west.lng(), west.lat());
+        List<Node> path = Flightpath.findPathLattice(east.lng(), east.lat(), west.lng(), west.lat(), zones, "test");
+        double cost = (path.size() - 1) * SystemConstants.DRONE_MOVE_DISTANCE;
+
+        Assert.assertTrue(estimate > straight);
+        Assert.assertTrue(estimate <= cost + Flightpath.GOAL_TOLERANCE);
+    }
+
+    public void testLandmarkUnknownCellsFallBackToLattice() {
+        LandmarkHeuristic heuristic = new LandmarkHeuristic(new LngLat[]{new LngLat(-3.191, 55.944)}, zones);
+
+        Assert.assertTrue(Double.isNaN(heuristic.distanceFromLandmark(0, 10, 10)));
+        Assert.assertEquals(LatticeDistanceHeuristic.distance(1, 1) - Flightpath.GOAL_TOLERANCE, heuristic.estimate(10, 10, 11, 11), 1e-12);
+    }
+
+    public void testEstimatesAllowForGoalTolerance() {
+        //A position within tolerance of the goal has already arrived, so no heuristic may expect another move
+        double lng = -3.19, lat = 55.944;
+        double nearLng = lng + Flightpath.GOAL_TOLERANCE * 0.9;
+        LandmarkHeuristic landmarks = new LandmarkHeuristic(new LngLat[]{new LngLat(-3.191, 55.944)}, zones);
+
+        Assert.assertEquals(0, new LatticeDistanceHeuristic().estimate(nearLng, lat, lng, lat), 0);
+        Assert.assertEquals(0, landmarks.estimate(nearLng, lat, lng, lat), 0);
+        Assert.assertEquals(0, Flightpath.heuristicFor(zones).estimate(nearLng, lat, lng, lat), 0);
+    }
+}
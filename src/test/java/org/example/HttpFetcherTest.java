@@ -0,0 +1,229 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class HttpFetcherTest extends TestCase {
+
+    public HttpFetcherTest(String testName) { super(testName); }
+
+    public static Test suite() { return new TestSuite(HttpFetcherTest.class); }
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private Path directory;
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private String baseUrl;
+
+    @Override
+    protected void setUp() throws IOException {
+        directory = Files.createTempDirectory("fetch");
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        serverThreads = Executors.newFixedThreadPool(4);
+        server.setExecutor(serverThreads);
+        server.start();
+        baseUrl = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        server.stop(0);
+        serverThreads.shutdownNow();
+        try (var files = Files.walk(directory)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) Files.delete(file);
+        }
+    }
+
+    private HttpFetcher fetcher() {
+        return new HttpFetcher(directory, 3, Duration.ofMillis(10), Duration.ofSeconds(10));
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(status, status == 304 ? -1 : bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            if (status != 304) out.write(bytes);
+        }
+    }
+
+    public void testFetchesResourcesConcurrently() throws IOException {
+        //Each response waits for all four requests, so this only completes if they are in flight at once
+        CountDownLatch arrived = new CountDownLatch(4);
+        server.createContext("/", exchange -> {
+            arrived.countDown();
+            try {
+                respond(exchange, arrived.await(10, TimeUnit.SECONDS) ? 200 : 500, exchange.getRequestURI().getPath());
+            } catch (InterruptedException e) {
+                respond(exchange, 500, "");
+            }
+        });
+
+        List<HttpFetcher.Result> results = fetcher().fetchAll(baseUrl, "restaurants", "centralArea", "noFlyZones", "orders/2023-11-15");
+
+        Assert.assertEquals(4, results.size());
+        Assert.assertEquals("/restaurants", Files.readString(directory.resolve("restaurants")));
+        Assert.assertEquals("/orders/2023-11-15", Files.readString(directory.resolve("2023-11-15")));
+    }
+
+    public void testUnchangedFilesAreRevalidated() throws IOException {
+        AtomicInteger fullResponses = new AtomicInteger();
+        server.createContext("/etag", exchange -> {
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                respond(exchange, 304, "");
+            } else {
+                fullResponses.incrementAndGet();
+                exchange.getResponseHeaders().set("ETag", "\"v1\"");
+                respond(exchange, 200, "tagged");
+            }
+        });
+        server.createContext("/dated", exchange -> {
+            if ("Wed, 15 Nov 2023 00:00:00 GMT".equals(exchange.getRequestHeaders().getFirst("If-Modified-Since"))) {
+                respond(exchange, 304, "");
+            } else {
+                fullResponses.incrementAndGet();
+                exchange.getResponseHeaders().set("Last-Modified", "Wed, 15 Nov 2023 00:00:00 GMT");
+                respond(exchange, 200, "dated");
+            }
+        });
+
+        Assert.assertEquals(List.of(HttpFetcher.Result.DOWNLOADED, HttpFetcher.Result.DOWNLOADED), fetcher().fetchAll(baseUrl, "etag", "dated"));
+        //A new fetcher, as in the next run, still finds the validators on disk
+        Assert.assertEquals(List.of(HttpFetcher.Result.NOT_MODIFIED, HttpFetcher.Result.NOT_MODIFIED), fetcher().fetchAll(baseUrl, "etag", "dated"));
+        Assert.assertEquals(2, fullResponses.get());
+        Assert.assertEquals("tagged", Files.readString(directory.resolve("etag")));
+        Assert.assertEquals("dated", Files.readString(directory.resolve("dated")));
+
+        //Validators are not sent once the file they describe is gone
+        Files.delete(directory.resolve("etag"));
+        Assert.assertEquals(List.of(HttpFetcher.Result.DOWNLOADED), fetcher().fetchAll(baseUrl, "etag"));
+        Assert.assertEquals(3, fullResponses.get());
+    }
+
+    public void testServerErrorsAreRetried() throws IOException {
+        AtomicInteger requests = new AtomicInteger();
+        server.createContext("/flaky", exchange -> {
+            if (requests.incrementAndGet() < 3) {
+                respond(exchange, 503, "busy");
+            } else {
+                respond(exchange, 200, "finally");
+            }
+        });
+
+        fetcher().fetchAll(baseUrl + "/", "flaky");
+
+        Assert.assertEquals(3, requests.get());
+        Assert.assertEquals("finally", Files.readString(directory.resolve("flaky")));
+    }
+
+    public void testFailuresKeepPreviousFile() throws IOException {
+        AtomicInteger requests = new AtomicInteger();
+        server.createContext("/broken", exchange -> {
+            requests.incrementAndGet();
+            respond(exchange, 500, "error page");
+        });
+        server.createContext("/missing", exchange -> {
+            requests.incrementAndGet();
+            respond(exchange, 404, "not found");
+        });
+        Files.writeString(directory.resolve("broken"), "previous");
+
+        try {
+            fetcher().fetchAll(baseUrl, "broken");
+            fail("Expected IOException");
+        } catch (IOException expected) {
+            //Expected
+        }
+        Assert.assertEquals(3, requests.get());
+        Assert.assertEquals("previous", Files.readString(directory.resolve("broken")));
+
+        //Client errors are not retried
+        try {
+            fetcher().fetchAll(baseUrl, "missing");
+            fail("Expected IOException");
+        } catch (IOException expected) {
+            //Expected
+        }
+        Assert.assertEquals(4, requests.get());
+        Assert.assertFalse(Files.exists(directory.resolve("missing")));
+        //No temporary files are left behind
+        try (var files = Files.list(directory)) {
+            Assert.assertEquals(1, files.count());
+        }
+    }
+
+    public void testParsesBodyWithoutWritingFiles() throws IOException {
+        server.createContext("/orders/2023-11-15", exchange -> respond(exchange, 200, "[\"00000001\", \"00000002\"]"));
+
+        CompletableFuture<String[]> orders = fetcher().fetchParsed(URI.create(baseUrl + "/orders/2023-11-15"), null, in -> mapper.readValue(in, String[].class));
+        HttpFetcher.awaitAll(List.of(orders));
+
+        Assert.assertEquals(List.of("00000001", "00000002"), List.of(orders.join()));
+        try (var files = Files.list(directory)) {
+            Assert.assertEquals(0, files.count());
+        }
+    }
+
+    public void testPersistedPayloadIsExactAndRevalidated() throws IOException {
+        AtomicInteger fullResponses = new AtomicInteger();
+        //Trailing whitespace the parser never needs to read is still saved
+        String payload = "[\"R1\", \"R2\"]\n\n";
+        server.createContext("/restaurants", exchange -> {
+            if ("\"v1\"".equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+                respond(exchange, 304, "");
+            } else {
+                fullResponses.incrementAndGet();
+                exchange.getResponseHeaders().set("ETag", "\"v1\"");
+                respond(exchange, 200, payload);
+            }
+        });
+
+        for (int i = 0; i < 2; i++) {
+            CompletableFuture<String[]> restaurants = fetcher().fetchParsed(URI.create(baseUrl + "/restaurants"), "restaurants", in -> mapper.readValue(in, String[].class));
+            HttpFetcher.awaitAll(List.of(restaurants));
+            Assert.assertEquals(List.of("R1", "R2"), List.of(restaurants.join()));
+        }
+        //The second fetch was answered with a 304 and parsed from the saved copy
+        Assert.assertEquals(1, fullResponses.get());
+        Assert.assertEquals(payload, Files.readString(directory.resolve("restaurants")));
+    }
+
+    public void testParseFailuresAreReported() throws IOException {
+        server.createContext("/broken", exchange -> respond(exchange, 200, "[\"R1\", "));
+
+        CompletableFuture<String[]> restaurants = fetcher().fetchParsed(URI.create(baseUrl + "/broken"), "broken", in -> mapper.readValue(in, String[].class));
+        try {
+            HttpFetcher.awaitAll(List.of(restaurants));
+            fail("Expected IOException");
+        } catch (IOException expected) {
+            //Expected
+        }
+        //Neither the payload nor its temporary file is kept
+        try (var files = Files.list(directory)) {
+            Assert.assertEquals(0, files.count());
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.example;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import uk.ac.ed.inf.ilp.constant.OrderStatus;
+import uk.ac.ed.inf.ilp.constant.OrderValidationCode;
+import uk.ac.ed.inf.ilp.data.CreditCardInformation;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.Order;
+import uk.ac.ed.inf.ilp.data.Pizza;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class JsonConverterTest extends TestCase {
+
+    public JsonConverterTest(String testName) { super(testName); }
+
+    public static Test suite() { return new TestSuite(JsonConverterTest.class); }
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private Path directory;
+
+    @Override
+    protected void setUp() throws IOException {
+        directory = Files.createTempDirectory("converter");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        JsonConverter.setCoordinatePrecision(-1);
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    private static List<Node> path() {
+        LngLatHandler lngLatHandler = new LngLatHandler();
+        List<Node> path = new ArrayList<>();
+        Node previous = new Node(new LngLat(-3.186874, 55.944494), 999, "AAAA");
+        path.add(previous);
+        for (int i = 0; i < 3; i++) {
+            Node next = new Node(lngLatHandler.nextPosition(previous.lngLat, 22.5), 22.5, i < 2 ? "AAAA" : "BBBB");
+            next.parent = previous;
+            path.add(next);
+            previous = next;
+        }
+        return path;
+    }
+
+    public void testFlightpathHasOneRecordPerLine() throws IOException {
+        List<Node> path = path();
+        String fileName = directory.resolve("flightpath").toString();
+        new JsonConverter().convertFlightpathToJson(path, fileName);
+
+        List<String> lines = Files.readAllLines(Path.of(fileName + ".json"));
+        Assert.assertEquals(4, lines.size());
+        Assert.assertTrue(lines.get(0).startsWith("[{\"orderNo\":\"AAAA\",\"fromLongitude\":-3.186874,\"fromLatitude\":55.944494,\"angle\":22.5,"));
+        Assert.assertEquals("]", lines.get(3));
+
+        JsonNode records = mapper.readTree(Path.of(fileName + ".json").toFile());
+        Assert.assertEquals(3, records.size());
+        //The move onto the next order is still reported against the order it finishes
+        Assert.assertEquals("AAAA", records.get(2).get("orderNo").asText());
+        Assert.assertEquals(path.get(3).lng(), records.get(2).get("toLongitude").asDouble());
+        Assert.assertEquals(path.get(3).lat(), records.get(2).get("toLatitude").asDouble());
+    }
+
+    public void testEmptyFlightpathIsEmptyArray() throws IOException {
+        String fileName = directory.resolve("empty").toString();
+        new JsonConverter().convertFlightpathToJson(new ArrayList<>(), fileName);
+        Assert.assertEquals("[]", Files.readString(Path.of(fileName + ".json")));
+    }
+
+    public void testGeoJsonIsCompactLineString() throws IOException {
+        List<Node> path = path();
+        String fileName = directory.resolve("drone").toString();
+        new JsonConverter().convertNodesToGeoJson(path, fileName);
+
+        String text = Files.readString(Path.of(fileName + ".geojson"));
+        Assert.assertFalse(text.contains("\n"));
+        JsonNode geometry = mapper.readTree(text).get("features").get(0).get("geometry");
+        Assert.assertEquals("LineString", geometry.get("type").asText());
+        Assert.assertEquals(path.size(), geometry.get("coordinates").size());
+        Assert.assertEquals(path.get(2).lng(), geometry.get("coordinates").get(2).get(0).asDouble());
+    }
+
+    public void testCoordinatePrecision() throws IOException {
+        JsonConverter.setCoordinatePrecision(5);
+        String fileName = directory.resolve("rounded").toString();
+        new JsonConverter().convertNodesToGeoJson(path(), fileName);
+
+        JsonNode coordinates = mapper.readTree(Path.of(fileName + ".geojson").toFile()).get("features").get(0).get("geometry").get("coordinates");
+        Assert.assertEquals("-3.18687", coordinates.get(0).get(0).asText());
+        Assert.assertEquals("55.94449", coordinates.get(0).get(1).asText());
+        Assert.assertEquals(55.94455, coordinates.get(1).get(1).asDouble());
+
+        try {
+            JsonConverter.setCoordinatePrecision(16);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException expected) {
+            //Expected
+        }
+    }
+
+    public void testDeliveriesKeepFieldOrder() throws IOException {
+        Order order = new Order("00001000", LocalDate.of(2099, 1, 1), OrderStatus.DELIVERED, OrderValidationCode.NO_ERROR,
+                1100, new Pizza[]{new Pizza("P", 1000)}, new CreditCardInformation("1234567812345678", "01/99", "123"));
+        String fileName = directory.resolve("deliveries").toString();
+        new JsonConverter().convertOrdersToJson(new Order[]{order}, fileName);
+
+        Assert.assertEquals("[{\"orderNo\":\"00001000\",\"orderStatus\":\"DELIVERED\",\"orderValidationCode\":\"NO_ERROR\",\"costInPence\":1100}]",
+                Files.readString(Path.of(fileName + ".json")));
+    }
+}
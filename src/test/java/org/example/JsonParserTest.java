@@ -9,11 +9,16 @@ import uk.ac.ed.inf.ilp.data.NamedRegion;
 import uk.ac.ed.inf.ilp.data.Order;
 import uk.ac.ed.inf.ilp.data.Restaurant;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
 
 public class JsonParserTest extends TestCase {
 
@@ -83,4 +88,66 @@ public class JsonParserTest extends TestCase {
         Assert.assertEquals(namedRegions[0].name(), "George Square Area");
         Assert.assertEquals(namedRegions[0].vertices()[0].lng(), -3.190578818321228);
     }
+
+    private static final String ORDER_JSON = "{\"orderNo\": \"%s\", \"orderDate\": \"2023-11-15\", \"orderStatus\": \"UNDEFINED\", "
+            + "\"orderValidationCode\": \"UNDEFINED\", \"priceTotalInPence\": 1100, \"pizzasInOrder\": [{\"name\": \"R1: Margarita\", \"priceInPence\": 1000}], "
+            + "\"creditCardInformation\": {\"creditCardNumber\": \"1234123412341234\", \"creditCardExpiry\": \"09/99\", \"cvv\": \"123\"}}";
+
+    public void testStreamOrdersYieldsEachOrderInTurn() throws IOException {
+        Path file = Files.createTempFile("orders", ".json");
+        try {
+            Files.writeString(file, "[" + String.format(ORDER_JSON, "00000001") + ",\n" + String.format(ORDER_JSON, "00000002") + "]");
+
+            List<String> orderNumbers = new ArrayList<>();
+            int count = jsonParser.streamOrders(file.toString(), order -> orderNumbers.add(order.getOrderNo()));
+
+            Assert.assertEquals(2, count);
+            Assert.assertEquals(List.of("00000001", "00000002"), orderNumbers);
+            Order[] orders = jsonParser.parseOrders(file.toString());
+            Assert.assertEquals(LocalDate.parse("2023-11-15"), orders[1].getOrderDate());
+            Assert.assertEquals("R1: Margarita", orders[1].getPizzasInOrder()[0].name());
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    public void testStreamOrdersHandlesEmptyAndMissingFiles() throws IOException {
+        Path file = Files.createTempFile("orders", ".json");
+        try {
+            Files.writeString(file, "[]");
+            Assert.assertEquals(0, jsonParser.streamOrders(file.toString(), order -> fail("No orders expected")));
+        } finally {
+            Files.delete(file);
+        }
+        Assert.assertEquals(0, jsonParser.parseOrders(file.toString()).length);
+    }
+
+    public void testStreamOrdersRejectsNonArrays() throws IOException {
+        Path file = Files.createTempFile("orders", ".json");
+        try {
+            Files.writeString(file, String.format(ORDER_JSON, "00000001"));
+            jsonParser.streamOrders(file.toString(), order -> { });
+            fail("Expected IOException");
+        } catch (IOException expected) {
+            //Expected
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    public void testParsesStreamsAndBuffers() throws IOException {
+        byte[] orders = ("[" + String.format(ORDER_JSON, "00000001") + "," + String.format(ORDER_JSON, "00000002") + "]").getBytes(StandardCharsets.UTF_8);
+        Assert.assertEquals("00000002", jsonParser.parseOrders(new ByteArrayInputStream(orders))[1].getOrderNo());
+
+        //Reading a buffer leaves its position for the caller
+        ByteBuffer buffer = ByteBuffer.allocateDirect(orders.length).put(orders).flip();
+        List<String> orderNumbers = new ArrayList<>();
+        Assert.assertEquals(2, jsonParser.streamOrders(buffer, order -> orderNumbers.add(order.getOrderNo())));
+        Assert.assertEquals(List.of("00000001", "00000002"), orderNumbers);
+        Assert.assertEquals(0, buffer.position());
+
+        String region = "{\"name\": \"Central\", \"vertices\": [{\"lng\": -3.19, \"lat\": 55.94}, {\"lng\": -3.18, \"lat\": 55.95}]}";
+        Assert.assertEquals("Central", jsonParser.parseCentralArea(new ByteArrayInputStream(region.getBytes(StandardCharsets.UTF_8))).name());
+        Assert.assertEquals(1, jsonParser.parseNoFlyZones(new ByteArrayInputStream(("[" + region + "]").getBytes(StandardCharsets.UTF_8))).length);
+    }
 }
@@ -85,4 +85,16 @@ public class LngLatHandlerTest extends TestCase {
         Assert.assertEquals(Double.parseDouble(df.format(newPos2.lng())), Double.parseDouble(df.format(-3.2001060660172)));
         Assert.assertEquals(Double.parseDouble(df.format(newPos2.lat())), Double.parseDouble(df.format(55.9998939339828)));
     }
+
+    public void testNextPositionTableMatchesTrigonometry() {
+        LngLat startPos = new LngLat(-3.186874, 55.944494);
+
+        for (int direction = 0; direction < 16; direction++) {
+            double angle = direction * 22.5;
+            LngLat newPos = lngLatHandler.nextPosition(startPos, angle);
+
+            Assert.assertEquals(startPos.lng() + SystemConstants.DRONE_MOVE_DISTANCE * Math.cos(Math.toRadians(angle)), newPos.lng(), 0);
+            Assert.assertEquals(startPos.lat() + SystemConstants.DRONE_MOVE_DISTANCE * Math.sin(Math.toRadians(angle)), newPos.lat(), 0);
+        }
+    }
 }
@@ -0,0 +1,36 @@
+package org.example;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+public class LongDoubleHashMapTest extends TestCase {
+
+    public LongDoubleHashMapTest(String testName) { super(testName); }
+
+    public static Test suite() { return new TestSuite(LongDoubleHashMapTest.class); }
+
+    public void testPutAndGet() {
+        LongDoubleHashMap map = new LongDoubleHashMap();
+        map.put(7L, 0.5);
+        map.put(7L, 0.25);
+
+        Assert.assertEquals(0.25, map.get(7L, Double.MAX_VALUE), 0);
+        Assert.assertEquals(Double.MAX_VALUE, map.get(8L, Double.MAX_VALUE), 0);
+        Assert.assertTrue(map.containsKey(7L));
+        Assert.assertEquals(1, map.size());
+    }
+
+    public void testGrowsPastInitialCapacity() {
+        LongDoubleHashMap map = new LongDoubleHashMap(4);
+        for (long i = 0; i < 10000; i++) {
+            map.put(i * 31, i * 0.5);
+        }
+
+        Assert.assertEquals(10000, map.size());
+        for (long i = 0; i < 10000; i++) {
+            Assert.assertEquals(i * 0.5, map.get(i * 31, -1), 0);
+        }
+    }
+}
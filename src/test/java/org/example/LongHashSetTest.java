@@ -0,0 +1,56 @@
+package org.example;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+public class LongHashSetTest extends TestCase {
+
+    public LongHashSetTest(String testName) { super(testName); }
+
+    public static Test suite() { return new TestSuite(LongHashSetTest.class); }
+
+    public void testAddAndContains() {
+        LongHashSet set = new LongHashSet();
+
+        Assert.assertTrue(set.add(42L));
+        Assert.assertFalse(set.add(42L));
+        Assert.assertTrue(set.contains(42L));
+        Assert.assertFalse(set.contains(43L));
+        Assert.assertEquals(1, set.size());
+    }
+
+    public void testGrowsPastInitialCapacity() {
+        LongHashSet set = new LongHashSet(4);
+        for (long i = -5000; i < 5000; i++) {
+            set.add((i << 32) | (i & 0xffffffffL));
+        }
+
+        Assert.assertEquals(10000, set.size());
+        for (long i = -5000; i < 5000; i++) {
+            Assert.assertTrue(set.contains((i << 32) | (i & 0xffffffffL)));
+        }
+        Assert.assertFalse(set.contains(5000L << 32));
+    }
+
+    public void testClear() {
+        LongHashSet set = new LongHashSet();
+        set.add(1L);
+        set.add(-1L);
+        set.clear();
+
+        Assert.assertTrue(set.isEmpty());
+        Assert.assertFalse(set.contains(1L));
+    }
+
+    public void testReservedKeyRejected() {
+        LongHashSet set = new LongHashSet();
+        try {
+            set.add(Long.MIN_VALUE);
+            fail("Expected IllegalArgumentException");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package org.example;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.util.Random;
+
+public class NoFlyZoneIndexTest extends TestCase {
+
+    public NoFlyZoneIndexTest(String testName) { super(testName); }
+
+    public static Test suite() { return new TestSuite(NoFlyZoneIndexTest.class); }
+
+    private static final LngLatHandler lngLatHandler = new LngLatHandler();
+
+    private static final NamedRegion[] zones = new NamedRegion[]{
+            new NamedRegion("George Square Area", new LngLat[]{new LngLat(-3.190578818321228, 55.94402412577528), new LngLat(-3.1899887323379517, 55.94284650540911), new LngLat(-3.187097311019897, 55.94328811724263), new LngLat(-3.187682032585144, 55.944477740393744), new LngLat(-3.190578818321228, 55.94402412577528)}),
+            new NamedRegion("Dr Elsie Inglis Quadrangle", new LngLat[]{new LngLat(-3.1907182931900024, 55.94519570234043), new LngLat(-3.1906163692474365, 55.94498241796357), new LngLat(-3.1900262832641597, 55.94507554227258), new LngLat(-3.190133571624756, 55.94529783810495), new LngLat(-3.1907182931900024, 55.94519570234043)}),
+            new NamedRegion("Far Away", new LngLat[]{new LngLat(-3.0, 56.0), new LngLat(-2.99, 56.0), new LngLat(-2.99, 56.01)})};
+
+    private static boolean bruteForce(double toLng, double toLat, double fromLng, double fromLat) {
+        for (NamedRegion zone : zones) {
+            if (lngLatHandler.isInRegion(new LngLat(toLng, toLat), zone)) return false;
+            if (PointInAreaHandler.doesLineIntersectPolygon(new LngLat(toLng, toLat), new LngLat(fromLng, fromLat), zone.vertices())) return false;
+        }
+        return true;
+    }
+
+    public void testMovesMatchBruteForce() {
+        NoFlyZoneIndex index = new NoFlyZoneIndex(zones);
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20000; i++) {
+            double fromLng = -3.192 + random.nextDouble() * 0.006;
+            double fromLat = 55.942 + random.nextDouble() * 0.004;
+            int direction = random.nextInt(16);
+            double toLng = fromLng + LngLatHandler.DIRECTION_LNG[direction];
+            double toLat = fromLat + LngLatHandler.DIRECTION_LAT[direction];
+
+            Assert.assertEquals(bruteForce(toLng, toLat, fromLng, fromLat), index.isValidMove(toLng, toLat, fromLng, fromLat));
+        }
+    }
+
+    public void testLongSegmentsMatchBruteForce() {
+        NoFlyZoneIndex index = new NoFlyZoneIndex(zones);
+        Random random = new Random(7);
+
+        for (int i = 0; i < 2000; i++) {
+            double fromLng = -3.195 + random.nextDouble() * 0.01;
+            double fromLat = 55.940 + random.nextDouble() * 0.008;
+            double toLng = -3.195 + random.nextDouble() * 0.01;
+            double toLat = 55.940 + random.nextDouble() * 0.008;
+
+            Assert.assertEquals(bruteForce(toLng, toLat, fromLng, fromLat), index.isValidMove(toLng, toLat, fromLng, fromLat));
+        }
+    }
+
+    public void testEmptyZones() {
+        NoFlyZoneIndex index = new NoFlyZoneIndex(new NamedRegion[0]);
+
+        Assert.assertTrue(index.isValidMove(-3.19, 55.94, -3.19015, 55.94));
+    }
+}
@@ -0,0 +1,131 @@
+package org.example;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+
+public class OccupancyRasterTest extends TestCase {
+
+    public OccupancyRasterTest(String testName) { super(testName); }
+
+    public static Test suite() { return new TestSuite(OccupancyRasterTest.class); }
+
+    private static final LngLatHandler lngLatHandler = new LngLatHandler();
+
+    private static final NamedRegion[] zones = new NamedRegion[]{
+            new NamedRegion("George Square Area", new LngLat[]{new LngLat(-3.190578818321228, 55.94402412577528), new LngLat(-3.1899887323379517, 55.94284650540911), new LngLat(-3.187097311019897, 55.94328811724263), new LngLat(-3.187682032585144, 55.944477740393744), new LngLat(-3.190578818321228, 55.94402412577528)}),
+            new NamedRegion("Dr Elsie Inglis Quadrangle", new LngLat[]{new LngLat(-3.1907182931900024, 55.94519570234043), new LngLat(-3.1906163692474365, 55.94498241796357), new LngLat(-3.1900262832641597, 55.94507554227258), new LngLat(-3.190133571624756, 55.94529783810495), new LngLat(-3.1907182931900024, 55.94519570234043)})};
+
+    private static Path tempDirectory() throws IOException {
+        return Files.createTempDirectory("raster-test");
+    }
+
+    private static void deleteAll(Path directory) throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    public void testFreeAndBlockedCellsAgreeWithExactTest() {
+        OccupancyRaster raster = OccupancyRaster.build(zones, OccupancyRaster.DEFAULT_CELL_SIZE);
+        Random random = new Random(11);
+        int decided = 0;
+
+        for (int i = 0; i < 50000; i++) {
+            double lng = -3.192 + random.nextDouble() * 0.006;
+            double lat = 55.942 + random.nextDouble() * 0.004;
+            int state = raster.state(lng, lat);
+            if (state == OccupancyRaster.BOUNDARY) continue;
+
+            boolean inside = false;
+            for (NamedRegion zone : zones) {
+                inside |= lngLatHandler.isInRegion(lng, lat, zone);
+            }
+            Assert.assertEquals(inside, state == OccupancyRaster.BLOCKED);
+            decided++;
+        }
+        //Boundary cells are a thin band, so most positions are decided by the raster alone
+        Assert.assertTrue(decided > 45000);
+    }
+
+    public void testCentralAreaIndexAgreesWithExactTest() {
+        NamedRegion centralArea = new NamedRegion("central", new LngLat[]{new LngLat(-3.192473, 55.946233), new LngLat(-3.192473, 55.942617), new LngLat(-3.184319, 55.942617), new LngLat(-3.184319, 55.946233), new LngLat(-3.192473, 55.946233)});
+        CentralAreaIndex index = new CentralAreaIndex(centralArea);
+        Random random = new Random(13);
+
+        for (int i = 0; i < 50000; i++) {
+            double lng = -3.194 + random.nextDouble() * 0.011;
+            double lat = 55.941 + random.nextDouble() * 0.007;
+            Assert.assertEquals(lngLatHandler.isInRegion(lng, lat, centralArea), index.contains(lng, lat));
+        }
+        //Vertices and edges fall in boundary cells and still count as inside
+        for (LngLat vertex : centralArea.vertices()) {
+            Assert.assertTrue(index.contains(vertex.lng(), vertex.lat()));
+        }
+        Assert.assertTrue(index.contains(-3.188, 55.942617));
+    }
+
+    public void testVerticesAreBoundary() {
+        OccupancyRaster raster = OccupancyRaster.build(zones, OccupancyRaster.DEFAULT_CELL_SIZE);
+        for (NamedRegion zone : zones) {
+            for (LngLat vertex : zone.vertices()) {
+                Assert.assertEquals(OccupancyRaster.BOUNDARY, raster.state(vertex.lng(), vertex.lat()));
+            }
+        }
+        Assert.assertEquals(OccupancyRaster.FREE, raster.state(-3.0, 56.0));
+        Assert.assertTrue(raster.isFree(-3.0, 56.0, -2.99, 56.01));
+    }
+
+    public void testRoundTripThroughFile() throws IOException {
+        Path directory = tempDirectory();
+        try {
+            OccupancyRaster raster = OccupancyRaster.build(zones, OccupancyRaster.DEFAULT_CELL_SIZE);
+            Path file = directory.resolve("raster.bin");
+            raster.writeTo(file);
+            OccupancyRaster loaded = OccupancyRaster.readFrom(file);
+
+            Random random = new Random(3);
+            for (int i = 0; i < 10000; i++) {
+                double lng = -3.192 + random.nextDouble() * 0.006;
+                double lat = 55.942 + random.nextDouble() * 0.004;
+                Assert.assertEquals(raster.state(lng, lat), loaded.state(lng, lat));
+            }
+        } finally {
+            deleteAll(directory);
+        }
+    }
+
+    public void testLoadOrBuildCachesAndRejectsCorruptFiles() throws IOException {
+        Path directory = tempDirectory();
+        try {
+            OccupancyRaster.loadOrBuild(zones, directory);
+            Path file;
+            try (var files = Files.list(directory)) {
+                file = files.findFirst().orElseThrow();
+            }
+            Assert.assertTrue(file.getFileName().toString().startsWith("occupancy-"));
+
+            Files.write(file, new byte[]{1, 2, 3});
+            OccupancyRaster rebuilt = OccupancyRaster.loadOrBuild(zones, directory);
+            Assert.assertEquals(OccupancyRaster.BLOCKED, rebuilt.state(-3.1889, 55.9437));
+            Assert.assertNotNull(OccupancyRaster.readFrom(file));
+        } finally {
+            deleteAll(directory);
+        }
+    }
+
+    public void testHashDependsOnGeometry() {
+        NamedRegion[] moved = new NamedRegion[]{new NamedRegion(zones[0].name(), new LngLat[]{
+                new LngLat(-3.19, 55.944), new LngLat(-3.189, 55.943), new LngLat(-3.187, 55.943)})};
+        Assert.assertFalse(OccupancyRaster.hashOf(zones, OccupancyRaster.DEFAULT_CELL_SIZE) == OccupancyRaster.hashOf(moved, OccupancyRaster.DEFAULT_CELL_SIZE));
+    }
+}
@@ -0,0 +1,83 @@
+package org.example;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.util.Arrays;
+import java.util.Random;
+
+public class OpenListTest extends TestCase {
+
+    public OpenListTest(String testName) { super(testName); }
+
+    public static Test suite() { return new TestSuite(OpenListTest.class); }
+
+    /**
+     * Inserts, decreases and polls random scores, checking that ids come out in non-decreasing f order.
+     */
+    private static void checkOrdering(OpenList openList) {
+        Random random = new Random(1);
+        int count = 5000;
+        double[] best = new double[count];
+        Arrays.fill(best, Double.MAX_VALUE);
+
+        for (int i = 0; i < count * 3; i++) {
+            int id = random.nextInt(count);
+            double f = 0.01 + random.nextDouble() * 0.02;
+            openList.insertOrDecrease(id, f);
+            best[id] = Math.min(best[id], f);
+        }
+
+        double previous = -1;
+        int polled = 0;
+        while (!openList.isEmpty()) {
+            double f = openList.peekF();
+            int id = openList.poll();
+            Assert.assertEquals(best[id], f, 0);
+            Assert.assertTrue(f >= previous);
+            Assert.assertFalse(openList.contains(id));
+            previous = f;
+            polled++;
+        }
+
+        int queued = 0;
+        for (double f : best) {
+            if (f != Double.MAX_VALUE) queued++;
+        }
+        Assert.assertEquals(queued, polled);
+    }
+
+    public void testDaryHeapOrdering() {
+        checkOrdering(new IndexedDaryHeap(4));
+    }
+
+    public void testBinaryHeapOrdering() {
+        checkOrdering(new IndexedDaryHeap(2));
+    }
+
+    public void testBucketQueueOrdering() {
+        checkOrdering(new BucketQueue(BucketQueue.DEFAULT_BUCKET_WIDTH));
+    }
+
+    public void testIncreaseIsIgnored() {
+        for (OpenListType type : OpenListType.values()) {
+            OpenList openList = type.create();
+            openList.insertOrDecrease(3, 1.0);
+            openList.insertOrDecrease(3, 2.0);
+
+            Assert.assertEquals(1, openList.size());
+            Assert.assertEquals(1.0, openList.peekF(), 0);
+        }
+    }
+
+    public void testScoresBelowFirstInsert() {
+        OpenList openList = new BucketQueue(BucketQueue.DEFAULT_BUCKET_WIDTH);
+        openList.insertOrDecrease(0, 1.0);
+        openList.insertOrDecrease(1, 0.5);
+
+        Assert.assertEquals(1, openList.poll());
+        Assert.assertEquals(0, openList.poll());
+    }
+}
@@ -0,0 +1,119 @@
+package org.example;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class OutputStageTest extends TestCase {
+
+    public OutputStageTest(String testName) { super(testName); }
+
+    public static Test suite() { return new TestSuite(OutputStageTest.class); }
+
+    private Path directory;
+
+    @Override
+    protected void setUp() throws IOException {
+        directory = Files.createTempDirectory("output");
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    private long fileCount() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    public void testWritesFilesLargerThanTheBuffer() throws IOException {
+        for (OutputStage.SyncPolicy policy : OutputStage.SyncPolicy.values()) {
+            OutputStage stage = new OutputStage(2, policy, true);
+            byte[] contents = new byte[OutputStage.BUFFER_BYTES * 2 + 17];
+            for (int i = 0; i < contents.length; i++) contents[i] = (byte) i;
+            Path file = directory.resolve("large-" + policy);
+
+            stage.submit(file, out -> {
+                //Mix single bytes with a large array to cross buffer boundaries both ways
+                out.write(contents[0]);
+                out.write(contents, 1, contents.length - 1);
+            });
+            stage.awaitAll();
+            stage.shutdown();
+
+            Assert.assertTrue(Arrays.equals(contents, Files.readAllBytes(file)));
+        }
+        Assert.assertEquals(OutputStage.SyncPolicy.values().length, fileCount());
+    }
+
+    public void testFilesAreWrittenConcurrently() throws Exception {
+        OutputStage stage = new OutputStage(3, OutputStage.SyncPolicy.NONE, true);
+        //Each writer waits for the other two, so this only completes if all three run at once
+        CountDownLatch started = new CountDownLatch(3);
+        for (int i = 0; i < 3; i++) {
+            String name = "file" + i;
+            stage.submit(directory.resolve(name), out -> {
+                started.countDown();
+                try {
+                    if (!started.await(10, TimeUnit.SECONDS)) throw new IOException("Writers ran one after another");
+                } catch (InterruptedException e) {
+                    throw new IOException(e);
+                }
+                out.write(name.getBytes());
+            });
+        }
+        stage.awaitAll();
+        stage.shutdown();
+
+        for (int i = 0; i < 3; i++) {
+            Assert.assertEquals("file" + i, Files.readString(directory.resolve("file" + i)));
+        }
+    }
+
+    public void testFailedWriteKeepsPreviousFile() throws IOException {
+        Path file = directory.resolve("flightpath.json");
+        Files.writeString(file, "previous");
+        OutputStage stage = new OutputStage(1, OutputStage.SyncPolicy.DATA, true);
+
+        stage.submit(file, out -> {
+            out.write("partial".getBytes());
+            throw new IOException("disk full");
+        });
+        try {
+            stage.awaitAll();
+            fail("Expected IOException");
+        } catch (IOException expected) {
+            Assert.assertEquals("disk full", expected.getMessage());
+        }
+        stage.shutdown();
+
+        Assert.assertEquals("previous", Files.readString(file));
+        //The temporary file is removed
+        Assert.assertEquals(1, fileCount());
+    }
+
+    public void testWritesInPlaceWithoutRename() throws IOException {
+        Path file = directory.resolve("deliveries.json");
+        Files.writeString(file, "a much longer previous file");
+        OutputStage stage = new OutputStage(1, OutputStage.SyncPolicy.NONE, false);
+
+        stage.submit(file, out -> out.write("[]".getBytes()));
+        stage.awaitAll();
+        stage.shutdown();
+
+        Assert.assertEquals("[]", Files.readString(file));
+    }
+}
@@ -0,0 +1,135 @@
+package org.example;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class PathShortenerTest extends TestCase {
+
+    public PathShortenerTest(String testName) { super(testName); }
+
+    public static Test suite() { return new TestSuite(PathShortenerTest.class); }
+
+    private static final LngLatHandler lngLatHandler = new LngLatHandler();
+
+    private static final LngLat home = new LngLat(-3.186874, 55.944494);
+
+    private static final NamedRegion centralArea = TestRegions.box("central", -3.192473, 55.942617, -3.180, 55.946233);
+
+    /**
+     * Builds an order path from a list of headings, 999 marking the collection hover.
+     */
+    private static List<Node> pathOf(double... angles) {
+        List<Node> path = new ArrayList<>();
+        Node current = new Node(home, 999, "1");
+        path.add(current);
+        for (double angle : angles) {
+            Node next = new Node(lngLatHandler.nextPosition(current.lngLat, angle), angle, "1");
+            next.parent = current;
+            path.add(next);
+            current = next;
+        }
+        return path;
+    }
+
+    private static double[] zigZagOut(int pairs, int back) {
+        double[] angles = new double[pairs * 2 + 1 + back];
+        for (int i = 0; i < pairs; i++) {
+            angles[2 * i] = 45;
+            angles[2 * i + 1] = 315;
+        }
+        angles[pairs * 2] = 999;
+        for (int i = 0; i < back; i++) {
+            angles[pairs * 2 + 1 + i] = 180;
+        }
+        return angles;
+    }
+
+    private static void assertLegal(List<Node> path, LngLat restaurant, NamedRegion[] zones) {
+        int hovers = 0;
+        for (int i = 0; i < path.size(); i++) {
+            Node node = path.get(i);
+            if (node.angle == 999) {
+                hovers++;
+                if (i > 0) {
+                    Assert.assertEquals(path.get(i - 1).lngLat, node.lngLat);
+                    Assert.assertTrue(lngLatHandler.distanceTo(node.lngLat, restaurant) < Flightpath.GOAL_TOLERANCE);
+                }
+                continue;
+            }
+            Node previous = path.get(i - 1);
+            Assert.assertEquals(lngLatHandler.nextPosition(previous.lngLat, node.angle), node.lngLat);
+            Assert.assertTrue(Flightpath.isValidMove(node.lng(), node.lat(), previous.lng(), previous.lat(), zones));
+        }
+        Assert.assertEquals(2, hovers);
+        Assert.assertTrue(lngLatHandler.distanceTo(path.get(path.size() - 1).lngLat, home) < Flightpath.GOAL_TOLERANCE);
+    }
+
+    public void testZigZagIsStraightened() {
+        List<Node> path = pathOf(zigZagOut(7, 10));
+        LngLat restaurant = path.get(14).lngLat;
+        NamedRegion[] zones = new NamedRegion[0];
+
+        PathShortener.Result result = new PathShortener(zones, centralArea, restaurant, home).shorten(path);
+
+        Assert.assertTrue(result.movesSaved() >= 4);
+        Assert.assertEquals(path.size() - result.movesSaved(), result.path().size());
+        Assert.assertEquals(home, result.path().get(0).lngLat);
+        assertLegal(result.path(), restaurant, zones);
+    }
+
+    public void testShortcutsAvoidNoFlyZones() {
+        double[] angles = zigZagOut(7, 10);
+        //Return over the top of the zig-zag so the wall below its middle peak blocks only the straight line
+        angles[15] = 135;
+        angles[24] = 225;
+        List<Node> path = pathOf(angles);
+        LngLat restaurant = path.get(14).lngLat;
+        double midLng = path.get(7).lng();
+        NamedRegion[] zones = new NamedRegion[]{TestRegions.box("wall", midLng - 0.00002, home.lat() - 0.00004, midLng + 0.00002, home.lat() + 0.00006)};
+        assertLegal(path, restaurant, zones);
+
+        PathShortener.Result result = new PathShortener(zones, centralArea, restaurant, home).shorten(path);
+
+        assertLegal(result.path(), restaurant, zones);
+    }
+
+    public void testStraightPathIsUnchanged() {
+        double[] angles = new double[21];
+        for (int i = 0; i < 10; i++) angles[i] = 0;
+        angles[10] = 999;
+        for (int i = 11; i < 21; i++) angles[i] = 180;
+        List<Node> path = pathOf(angles);
+
+        PathShortener.Result result = new PathShortener(new NamedRegion[0], centralArea, path.get(10).lngLat, home).shorten(path);
+
+        Assert.assertEquals(0, result.movesSaved());
+        Assert.assertSame(path, result.path());
+    }
+
+    public void testReturnNeverLeavesCentralArea() {
+        //Restaurant outside the central area's east edge, the return must not leave once back inside
+        NamedRegion narrow = TestRegions.box("central", -3.192473, 55.942617, -3.1855, 55.946233);
+        List<Node> path = pathOf(zigZagOut(7, 10));
+        LngLat restaurant = path.get(14).lngLat;
+
+        PathShortener.Result result = new PathShortener(new NamedRegion[0], narrow, restaurant, home).shorten(path);
+
+        boolean entered = false;
+        boolean returning = false;
+        for (int i = 1; i < result.path().size(); i++) {
+            Node node = result.path().get(i);
+            if (node.angle == 999) returning = true;
+            if (!returning) continue;
+            boolean inside = lngLatHandler.isInRegion(node.lngLat, narrow);
+            Assert.assertFalse(entered && !inside);
+            entered |= inside;
+        }
+    }
+}
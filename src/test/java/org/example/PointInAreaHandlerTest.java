@@ -95,4 +95,12 @@ public class PointInAreaHandlerTest extends TestCase {
         Assert.assertFalse(isPointInsidePolygon);
         Assert.assertTrue(isPoint2InsidePolygon);
     }
+
+    public void testLineTouchesBox() {
+        // A line ending inside the box, one crossing it, one touching a corner and one passing by
+        Assert.assertTrue(PointInAreaHandler.doesLineTouchBox(-1, 0.5, 0.5, 0.5, 0, 0, 1, 1));
+        Assert.assertTrue(PointInAreaHandler.doesLineTouchBox(-1, 0.5, 2, 0.5, 0, 0, 1, 1));
+        Assert.assertTrue(PointInAreaHandler.doesLineTouchBox(2, 0, 0, 2, 0, 0, 1, 1));
+        Assert.assertFalse(PointInAreaHandler.doesLineTouchBox(-1, 2, 2, 2, 0, 0, 1, 1));
+    }
 }
@@ -0,0 +1,108 @@
+package org.example;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+import uk.ac.ed.inf.ilp.data.Pizza;
+import uk.ac.ed.inf.ilp.data.Restaurant;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.DayOfWeek;
+import java.util.List;
+
+public class RouteAtlasTest extends TestCase {
+
+    public RouteAtlasTest(String testName) { super(testName); }
+
+    public static Test suite() { return new TestSuite(RouteAtlasTest.class); }
+
+    private static final LngLat appleton = new LngLat(-3.186874, 55.944494);
+
+    private static final NamedRegion[] zones = new NamedRegion[]{TestRegions.box("block", -3.189, 55.9435, -3.188, 55.9455)};
+
+    private static final NamedRegion centralArea = TestRegions.centralArea;
+
+    private static final Restaurant[] restaurants = new Restaurant[]{
+            new Restaurant("West", new LngLat(-3.1912, 55.9445), new DayOfWeek[]{DayOfWeek.MONDAY}, new Pizza[]{new Pizza("A", 1000)}),
+            new Restaurant("Outside", new LngLat(-3.1940, 55.9436), new DayOfWeek[]{DayOfWeek.MONDAY}, new Pizza[]{new Pizza("B", 1000)})};
+
+    private Path directory;
+    private SearchMode previousMode;
+
+    @Override
+    protected void setUp() throws IOException {
+        directory = Files.createTempDirectory("atlas-test");
+        previousMode = Flightpath.getSearchMode();
+        Flightpath.setSearchMode(SearchMode.LATTICE);
+    }
+
+    @Override
+    protected void tearDown() throws IOException {
+        Flightpath.setSearchMode(previousMode);
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) Files.delete(file);
+        }
+        Files.delete(directory);
+    }
+
+    public void testReplayedLegsMatchLiveSearch() throws IOException {
+        Path file = directory.resolve("atlas.bin");
+        int legs = RouteAtlas.build(file, zones, centralArea, restaurants);
+        RouteAtlas atlas = RouteAtlas.open(file);
+
+        //One outbound and one return leg per restaurant
+        Assert.assertEquals(4, legs);
+        Assert.assertEquals(legs, atlas.size());
+        for (Restaurant restaurant : restaurants) {
+            LngLat target = restaurant.location();
+            List<Node> live = Flightpath.searchPath(appleton.lng(), appleton.lat(), target.lng(), target.lat(), zones, "1");
+            List<Node> replayed = atlas.lookup(RouteCache.key(appleton.lng(), appleton.lat(), target.lng(), target.lat(), zones,
+                    SearchMode.LATTICE, 1.0, HeuristicType.EUCLIDEAN, OpenListType.D_ARY_HEAP), "1");
+
+            Assert.assertNotNull(replayed);
+            Assert.assertEquals(live.size(), replayed.size());
+            for (int i = 0; i < live.size(); i++) {
+                Assert.assertEquals(live.get(i).lngLat, replayed.get(i).lngLat);
+                Assert.assertEquals(live.get(i).angle, replayed.get(i).angle);
+                Assert.assertEquals("1", replayed.get(i).orderNo);
+            }
+        }
+    }
+
+    public void testUnknownLegIsNotServed() throws IOException {
+        Path file = directory.resolve("atlas.bin");
+        RouteAtlas.build(file, zones, centralArea, restaurants);
+        RouteAtlas atlas = RouteAtlas.open(file);
+
+        Assert.assertNull(atlas.lookup(RouteCache.key(appleton.lng(), appleton.lat(), -3.19, 55.943, zones, SearchMode.LATTICE), "1"));
+        Assert.assertNull(atlas.lookup(RouteCache.key(appleton.lng(), appleton.lat(), -3.1912, 55.9445, zones, SearchMode.CLASSIC), "1"));
+    }
+
+    public void testHashDetectsChangedInputs() throws IOException {
+        Path file = directory.resolve("atlas.bin");
+        RouteAtlas.build(file, zones, centralArea, restaurants);
+        RouteAtlas atlas = RouteAtlas.open(file);
+
+        Assert.assertTrue(atlas.matches(zones, centralArea, restaurants, OpenListType.D_ARY_HEAP));
+        Assert.assertFalse(atlas.matches(new NamedRegion[0], centralArea, restaurants, OpenListType.D_ARY_HEAP));
+        Assert.assertFalse(atlas.matches(zones, centralArea, new Restaurant[]{restaurants[0]}, OpenListType.D_ARY_HEAP));
+        //The bucket queue breaks ties differently, so legs searched with the heap are not its legs
+        Assert.assertFalse(atlas.matches(zones, centralArea, restaurants, OpenListType.BUCKET_QUEUE));
+    }
+
+    public void testCorruptFileIsRejected() throws IOException {
+        Path file = directory.resolve("atlas.bin");
+        Files.write(file, new byte[]{0x52, 0x41, 0x54, 0x4c, 0, 0, 0, 1, 0});
+        try {
+            RouteAtlas.open(file);
+            fail("Expected IOException");
+        } catch (IOException e) {
+            //Expected
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package org.example;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class RouteCacheTest extends TestCase {
+
+    public RouteCacheTest(String testName) { super(testName); }
+
+    public static Test suite() { return new TestSuite(RouteCacheTest.class); }
+
+    private static final NamedRegion[] zones = new NamedRegion[]{
+            new NamedRegion("zone", new LngLat[]{new LngLat(0, 0), new LngLat(1, 0), new LngLat(1, 1)})};
+
+    private static List<Node> leg(String orderNo, int length) {
+        LngLatHandler lngLatHandler = new LngLatHandler();
+        List<Node> leg = new ArrayList<>();
+        Node previous = new Node(new LngLat(-3.186874, 55.944494), 999, orderNo);
+        leg.add(previous);
+        for (int i = 1; i < length; i++) {
+            Node next = new Node(lngLatHandler.nextPosition(previous.lngLat, 90), 90, orderNo);
+            next.parent = previous;
+            leg.add(next);
+            previous = next;
+        }
+        return leg;
+    }
+
+    public void testHitReturnsRetaggedCopy() {
+        RouteCache cache = new RouteCache(10, 1000);
+        RouteCache.RouteKey key = RouteCache.key(0, 0, 1, 1, zones, SearchMode.CLASSIC);
+        List<Node> first = cache.getOrCompute(key, "AAAA", () -> leg("AAAA", 5));
+        List<Node> second = cache.getOrCompute(key, "BBBB", () -> { throw new AssertionError("should be cached"); });
+
+        Assert.assertEquals(first.size(), second.size());
+        for (int i = 0; i < first.size(); i++) {
+            Assert.assertEquals(first.get(i).lngLat, second.get(i).lngLat);
+            Assert.assertEquals("BBBB", second.get(i).orderNo);
+            Assert.assertNotSame(first.get(i), second.get(i));
+        }
+        Assert.assertSame(second.get(3), second.get(4).parent);
+        Assert.assertEquals(1, cache.getStats().hits());
+        Assert.assertEquals(1, cache.getStats().misses());
+    }
+
+    public void testEvictsLeastRecentlyUsed() {
+        RouteCache cache = new RouteCache(2, 1000);
+        RouteCache.RouteKey a = RouteCache.key(0, 0, 1, 1, zones, SearchMode.CLASSIC);
+        RouteCache.RouteKey b = RouteCache.key(0, 0, 2, 2, zones, SearchMode.CLASSIC);
+        RouteCache.RouteKey c = RouteCache.key(0, 0, 3, 3, zones, SearchMode.CLASSIC);
+        cache.getOrCompute(a, "1", () -> leg("1", 3));
+        cache.getOrCompute(b, "2", () -> leg("2", 3));
+        cache.getOrCompute(a, "1", () -> leg("1", 3));
+        cache.getOrCompute(c, "3", () -> leg("3", 3));
+
+        Assert.assertEquals(1, cache.getStats().evictions());
+        cache.getOrCompute(a, "1", () -> { throw new AssertionError("a should still be cached"); });
+    }
+
+    public void testNodeLimitEvicts() {
+        RouteCache cache = new RouteCache(10, 8);
+        cache.getOrCompute(RouteCache.key(0, 0, 1, 1, zones, SearchMode.CLASSIC), "1", () -> leg("1", 5));
+        cache.getOrCompute(RouteCache.key(0, 0, 2, 2, zones, SearchMode.CLASSIC), "2", () -> leg("2", 5));
+
+        Assert.assertEquals(1, cache.getStats().size());
+    }
+
+    public void testFingerprintChangesWithZones() {
+        NamedRegion[] moved = new NamedRegion[]{
+                new NamedRegion("zone", new LngLat[]{new LngLat(0, 0), new LngLat(1, 0), new LngLat(1, 1.5)})};
+
+        Assert.assertFalse(RouteCache.fingerprint(zones) == RouteCache.fingerprint(moved));
+    }
+
+    public void testPrecomputedFingerprintsGiveTheSameKey() {
+        Assert.assertEquals(RouteCache.key(0, 0, 1, 1, zones, zones[0], SearchMode.LATTICE, 1.0, HeuristicType.EUCLIDEAN, OpenListType.D_ARY_HEAP),
+                RouteCache.key(0, 0, 1, 1, new NoFlyZoneIndex(zones).fingerprint(), RouteCache.fingerprint(new NamedRegion[]{zones[0]}),
+                        SearchMode.LATTICE, 1.0, HeuristicType.EUCLIDEAN, OpenListType.D_ARY_HEAP));
+    }
+
+    public void testOpenListIsPartOfTheKey() {
+        Assert.assertFalse(RouteCache.key(0, 0, 1, 1, zones, SearchMode.LATTICE, 1.0, HeuristicType.EUCLIDEAN, OpenListType.D_ARY_HEAP)
+                .equals(RouteCache.key(0, 0, 1, 1, zones, SearchMode.LATTICE, 1.0, HeuristicType.EUCLIDEAN, OpenListType.BUCKET_QUEUE)));
+    }
+
+    public void testAnytimeLegsAreNotCached() {
+        NamedRegion[] block = TestRegions.block;
+        RouteCache cache = new RouteCache(10, 100000);
+        Flightpath.setRouteCache(cache);
+        try {
+            Flightpath.setSearchMode(SearchMode.LATTICE);
+            Flightpath.findPath(-3.191, 55.944, -3.186, 55.944, block, null, "1", new ArrayList<>());
+            Assert.assertEquals(1, cache.getStats().size());
+
+            //Anytime legs depend on how much of the budget the clock allowed
+            Flightpath.setSearchMode(SearchMode.ANYTIME);
+            Flightpath.findPath(-3.191, 55.944, -3.186, 55.944, block, null, "1", new ArrayList<>());
+            Flightpath.findPath(-3.191, 55.944, -3.186, 55.944, block, null, "1", new ArrayList<>());
+            Assert.assertEquals(1, cache.getStats().size());
+            Assert.assertEquals(0, cache.getStats().hits());
+        } finally {
+            Flightpath.setRouteCache(null);
+            Flightpath.setSearchMode(SearchMode.CLASSIC);
+        }
+    }
+}
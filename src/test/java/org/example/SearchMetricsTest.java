@@ -0,0 +1,66 @@
+package org.example;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.util.List;
+
+public class SearchMetricsTest extends TestCase {
+
+    public SearchMetricsTest(String testName) { super(testName); }
+
+    public static Test suite() { return new TestSuite(SearchMetricsTest.class); }
+
+    private static final NamedRegion[] zones = TestRegions.block;
+
+    public void testLegCountsSearchWork() {
+        SearchMetrics metrics = SearchMetrics.startLeg();
+        List<Node> path;
+        try {
+            path = Flightpath.findPathLattice(-3.191, 55.944, -3.186, 55.944, zones, "test");
+        } finally {
+            metrics.stopLeg();
+        }
+
+        Assert.assertFalse(path.isEmpty());
+        Assert.assertTrue(metrics.getNodesExpanded() >= path.size() - 1);
+        Assert.assertTrue(metrics.getNodesGenerated() >= metrics.getNodesExpanded());
+        Assert.assertTrue(metrics.getPeakOpenSize() > 0);
+        Assert.assertEquals(metrics.getNodesExpanded(), metrics.getClosedSize());
+        Assert.assertTrue(metrics.getValidityChecks() > 0);
+        Assert.assertTrue(metrics.getPolygonEdgeTests() > 0);
+        Assert.assertTrue(metrics.getWallTimeMs() >= 0);
+        Assert.assertNull(SearchMetrics.current());
+    }
+
+    public void testNothingCountedOutsideLeg() {
+        Assert.assertNull(SearchMetrics.current());
+        Flightpath.findPathLattice(-3.191, 55.944, -3.186, 55.944, zones, "test");
+        Assert.assertNull(SearchMetrics.current());
+    }
+
+    public void testOrderTotalAggregatesLegs() {
+        SearchMetrics first = new SearchMetrics();
+        first.legs = 1;
+        first.nodesExpanded = 10;
+        first.peakOpenSize = 40;
+        first.wallNanos = 1_000_000;
+        SearchMetrics second = new SearchMetrics();
+        second.legs = 1;
+        second.cachedLegs = 1;
+        second.nodesExpanded = 5;
+        second.peakOpenSize = 25;
+        second.wallNanos = 500_000;
+
+        SearchMetrics total = new SearchMetrics.OrderMetrics("order", List.of(first, second)).total();
+
+        Assert.assertEquals(15, total.getNodesExpanded());
+        Assert.assertEquals(40, total.getPeakOpenSize());
+        Assert.assertEquals(2, total.getLegs());
+        Assert.assertEquals(1, total.getCachedLegs());
+        Assert.assertEquals(1.5, total.getWallTimeMs(), 1e-9);
+    }
+}
@@ -0,0 +1,52 @@
+package org.example;
+
+import uk.ac.ed.inf.ilp.constant.OrderStatus;
+import uk.ac.ed.inf.ilp.constant.OrderValidationCode;
+import uk.ac.ed.inf.ilp.constant.SystemConstants;
+import uk.ac.ed.inf.ilp.data.CreditCardInformation;
+import uk.ac.ed.inf.ilp.data.Order;
+import uk.ac.ed.inf.ilp.data.Pizza;
+
+import java.time.LocalDate;
+
+/**
+ * Synthetic orders shared by the tests that plan without the REST service.
+ */
+final class TestOrders {
+
+    private TestOrders() { }
+
+    /**
+     * Builds an order that has not been validated yet, paid with a card that passes validation.
+     *
+     * @param orderNo Order number.
+     * @param date    Date the order is for.
+     * @param pizzas  Pizzas ordered.
+     * @return The order, with an undefined status and validation code.
+     */
+    static Order order(String orderNo, LocalDate date, Pizza... pizzas) {
+        return order(orderNo, date, OrderStatus.UNDEFINED, OrderValidationCode.UNDEFINED, pizzas);
+    }
+
+    /**
+     * Builds an order that is already valid and waiting to be delivered.
+     *
+     * @param orderNo Order number.
+     * @param date    Date the order is for.
+     * @param pizzas  Pizzas ordered.
+     * @return The order, valid but not delivered.
+     */
+    static Order validOrder(String orderNo, LocalDate date, Pizza... pizzas) {
+        return order(orderNo, date, OrderStatus.VALID_BUT_NOT_DELIVERED, OrderValidationCode.NO_ERROR, pizzas);
+    }
+
+    private static Order order(String orderNo, LocalDate date, OrderStatus status, OrderValidationCode code, Pizza... pizzas) {
+        int total = SystemConstants.ORDER_CHARGE_IN_PENCE;
+        for (Pizza pizza : pizzas) {
+            total += pizza.priceInPence();
+        }
+        //Expires at the end of the year after next, so the card stays valid whenever the tests run
+        String expiry = "12/" + String.format("%02d", (LocalDate.now().getYear() + 2) % 100);
+        return new Order(orderNo, date, status, code, total, pizzas, new CreditCardInformation("1234567812345678", expiry, "123"));
+    }
+}
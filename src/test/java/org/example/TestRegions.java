@@ -0,0 +1,32 @@
+package org.example;
+
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+/**
+ * Synthetic regions around Appleton Tower shared by the tests that search without the REST service.
+ */
+final class TestRegions {
+
+    private TestRegions() { }
+
+    //Central area as served by the REST service
+    static final NamedRegion centralArea = box("central", -3.192473, 55.942617, -3.184319, 55.946233);
+
+    //Single square zone between a start west of it and a goal east of it, on the latitude of Appleton Tower
+    static final NamedRegion[] block = new NamedRegion[]{box("block", -3.189, 55.9435, -3.188, 55.9445)};
+
+    /**
+     * Builds an axis-aligned rectangular region.
+     *
+     * @param name  Name of the region.
+     * @param west  Longitude of the western edge.
+     * @param south Latitude of the southern edge.
+     * @param east  Longitude of the eastern edge.
+     * @param north Latitude of the northern edge.
+     * @return The region, with its vertices anticlockwise from the south-west corner.
+     */
+    static NamedRegion box(String name, double west, double south, double east, double north) {
+        return new NamedRegion(name, new LngLat[]{new LngLat(west, south), new LngLat(east, south), new LngLat(east, north), new LngLat(west, north)});
+    }
+}
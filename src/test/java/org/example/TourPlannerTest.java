@@ -0,0 +1,169 @@
+package org.example;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+import uk.ac.ed.inf.ilp.data.Order;
+import uk.ac.ed.inf.ilp.data.Pizza;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+public class TourPlannerTest extends TestCase {
+
+    public TourPlannerTest(String testName) { super(testName); }
+
+    public static Test suite() { return new TestSuite(TourPlannerTest.class); }
+
+    private static final LngLatHandler lngLatHandler = new LngLatHandler();
+
+    private static final LngLat home = new LngLat(-3.186874, 55.944494);
+
+    private static final NamedRegion centralArea = TestRegions.centralArea;
+
+    private static final NamedRegion[] zones = new NamedRegion[]{TestRegions.box("block", -3.1885, 55.9435, -3.1880, 55.9440)};
+
+    private static final LngLat west = new LngLat(-3.1900, 55.9432);
+    private static final LngLat westNeighbour = new LngLat(-3.1905, 55.9436);
+    private static final LngLat outside = new LngLat(-3.1940, 55.9436);
+
+    private SearchMode previousMode;
+
+    @Override
+    protected void setUp() {
+        previousMode = Flightpath.getSearchMode();
+        Flightpath.setSearchMode(SearchMode.LATTICE);
+    }
+
+    @Override
+    protected void tearDown() {
+        Flightpath.setSearchMode(previousMode);
+    }
+
+    private static Order order(String orderNo, int pizzas) {
+        Pizza[] ordered = new Pizza[pizzas];
+        for (int i = 0; i < pizzas; i++) ordered[i] = new Pizza("P", 1000);
+        return TestOrders.validOrder(orderNo, LocalDate.of(2099, 1, 1), ordered);
+    }
+
+    private static List<TourPlanner.Flight> plan(int capacity, int moveBudget, List<Order> orders, List<LngLat> restaurants) throws IOException {
+        return new TourPlanner(zones, centralArea, home, capacity, moveBudget).plan(orders, restaurants, new ArrayList<>());
+    }
+
+    /**
+     * Checks every move is legal, the flight starts and ends at home, collects at each restaurant given,
+     * and never leaves the central area after entering it with pizzas on board.
+     */
+    private static void assertLegalFlight(List<Node> path, List<LngLat> stops) {
+        Assert.assertEquals(home, path.get(0).lngLat);
+        Assert.assertTrue(lngLatHandler.distanceTo(path.get(path.size() - 1).lngLat, home) < Flightpath.GOAL_TOLERANCE);
+
+        int collected = 0;
+        boolean entered = false;
+        for (int i = 1; i < path.size(); i++) {
+            Node node = path.get(i);
+            if (node.angle == 999 && path.get(i - 1).angle == 999 && i > 1) {
+                //Further orders collected at the same stop hover in place
+                Assert.assertEquals(path.get(i - 1).lngLat, node.lngLat);
+            } else if (node.angle == 999) {
+                Assert.assertTrue(lngLatHandler.distanceTo(node.lngLat, stops.get(collected)) < Flightpath.GOAL_TOLERANCE);
+                collected++;
+            } else {
+                Node previous = path.get(i - 1);
+                Assert.assertEquals(lngLatHandler.nextPosition(previous.lngLat, node.angle), node.lngLat);
+                Assert.assertTrue(Flightpath.isValidMove(node.lng(), node.lat(), previous.lng(), previous.lat(), zones));
+            }
+            if (collected > 0) {
+                boolean inside = lngLatHandler.isInRegion(node.lngLat, centralArea);
+                Assert.assertFalse(entered && !inside);
+                entered |= inside;
+            }
+        }
+        Assert.assertEquals(stops.size(), collected);
+    }
+
+    public void testOrdersFromOneRestaurantShareAFlight() throws IOException {
+        List<Order> orders = List.of(order("A", 1), order("B", 2), order("C", 1));
+        List<TourPlanner.Flight> flights = plan(4, Flightpath.DEFAULT_TOUR_MOVE_BUDGET, orders, List.of(west, west, west));
+
+        Assert.assertEquals(1, flights.size());
+        Assert.assertEquals(orders, flights.get(0).orders());
+        assertLegalFlight(flights.get(0).path(), List.of(west));
+    }
+
+    /**
+     * Returns the order of each flightpath record that hovers, as the flightpath file tags them.
+     */
+    private static List<String> hoverRecords(List<Node> path) {
+        List<String> orderNos = new ArrayList<>();
+        for (int i = 1; i < path.size(); i++) {
+            if (path.get(i).angle == 999) orderNos.add(path.get(i - 1).orderNo);
+        }
+        return orderNos;
+    }
+
+    public void testEveryOrderHasACollectionHover() throws IOException {
+        List<Order> orders = List.of(order("A", 1), order("B", 2), order("C", 1), order("D", 1));
+        for (List<LngLat> restaurants : List.of(List.of(west, west, west, west), List.of(west, west, outside, outside))) {
+            for (TourPlanner.Flight flight : plan(8, Flightpath.DEFAULT_TOUR_MOVE_BUDGET, orders, restaurants)) {
+                List<String> hovers = hoverRecords(flight.path());
+                for (Order order : flight.orders()) {
+                    Assert.assertTrue(order.getOrderNo(), hovers.contains(order.getOrderNo()));
+                }
+            }
+        }
+    }
+
+    public void testFlownFlightsStayWithinMoveBudget() throws IOException {
+        List<Order> orders = List.of(order("A", 1), order("B", 1), order("C", 1));
+        List<LngLat> restaurants = List.of(west, outside, westNeighbour);
+        for (int moveBudget = 20; moveBudget <= 120; moveBudget += 5) {
+            List<TourPlanner.Flight> flights = plan(8, moveBudget, orders, restaurants);
+            int delivered = 0;
+            for (TourPlanner.Flight flight : flights) {
+                if (flight.orders().size() > 1) Assert.assertTrue(flight.path().size() <= moveBudget);
+                delivered += flight.orders().size();
+            }
+            Assert.assertEquals(3, delivered);
+        }
+    }
+
+    public void testCapacitySplitsFlights() throws IOException {
+        List<Order> orders = List.of(order("A", 3), order("B", 3), order("C", 1));
+        List<TourPlanner.Flight> flights = plan(4, Flightpath.DEFAULT_TOUR_MOVE_BUDGET, orders, List.of(west, west, west));
+
+        Assert.assertEquals(2, flights.size());
+        Assert.assertEquals(List.of(orders.get(0), orders.get(2)), flights.get(0).orders());
+        Assert.assertEquals(List.of(orders.get(1)), flights.get(1).orders());
+    }
+
+    public void testNearbyRestaurantsAreVisitedInOneFlight() throws IOException {
+        List<Order> orders = List.of(order("A", 1), order("B", 1), order("C", 1));
+        List<TourPlanner.Flight> flights = plan(8, Flightpath.DEFAULT_TOUR_MOVE_BUDGET, orders, List.of(west, outside, westNeighbour));
+
+        Assert.assertEquals(1, flights.size());
+        Assert.assertEquals(3, flights.get(0).orders().size());
+        //Once pizzas are collected inside the central area the drone cannot fly out, so the outside stop comes first
+        List<Node> path = flights.get(0).path();
+        Node firstStop = null;
+        for (int i = 1; i < path.size() && firstStop == null; i++) {
+            if (path.get(i).angle == 999) firstStop = path.get(i);
+        }
+        Assert.assertTrue(lngLatHandler.distanceTo(firstStop.lngLat, outside) < Flightpath.GOAL_TOLERANCE);
+        Assert.assertEquals("B", firstStop.orderNo);
+    }
+
+    public void testMoveBudgetKeepsFlightsSeparate() throws IOException {
+        List<Order> orders = List.of(order("A", 1), order("B", 1));
+        List<TourPlanner.Flight> flights = plan(8, 10, orders, List.of(west, outside));
+
+        Assert.assertEquals(2, flights.size());
+        assertLegalFlight(flights.get(0).path(), List.of(west));
+        assertLegalFlight(flights.get(1).path(), List.of(outside));
+    }
+}
@@ -0,0 +1,55 @@
+package org.example;
+
+import junit.framework.Assert;
+import junit.framework.Test;
+import junit.framework.TestCase;
+import junit.framework.TestSuite;
+import uk.ac.ed.inf.ilp.data.LngLat;
+import uk.ac.ed.inf.ilp.data.NamedRegion;
+
+import java.util.List;
+
+public class VisibilityGraphPlannerTest extends TestCase {
+
+    public VisibilityGraphPlannerTest(String testName) { super(testName); }
+
+    public static Test suite() { return new TestSuite(VisibilityGraphPlannerTest.class); }
+
+    private static final LngLatHandler lngLatHandler = new LngLatHandler();
+
+    //Square zone sitting directly between start and goal
+    private static final NamedRegion[] zones = new NamedRegion[]{
+            new NamedRegion("block", new LngLat[]{new LngLat(-3.189, 55.943), new LngLat(-3.187, 55.943), new LngLat(-3.187, 55.945), new LngLat(-3.189, 55.945)})};
+
+    public void testWaypointsGoAroundZone() {
+        VisibilityGraphPlanner planner = new VisibilityGraphPlanner(zones);
+        List<LngLat> waypoints = planner.findWaypoints(new LngLat(-3.191, 55.944), new LngLat(-3.185, 55.944));
+
+        Assert.assertTrue(waypoints.size() > 2);
+        Assert.assertTrue(waypoints.size() < 6);
+    }
+
+    public void testDirectWhenVisible() {
+        VisibilityGraphPlanner planner = new VisibilityGraphPlanner(zones);
+        List<LngLat> waypoints = planner.findWaypoints(new LngLat(-3.191, 55.946), new LngLat(-3.185, 55.946));
+
+        Assert.assertEquals(2, waypoints.size());
+    }
+
+    public void testPathIsLegal() {
+        VisibilityGraphPlanner planner = new VisibilityGraphPlanner(zones);
+        LngLat goal = new LngLat(-3.185, 55.944);
+        List<Node> path = planner.findPath(-3.191, 55.944, goal.lng(), goal.lat(), "test");
+
+        Assert.assertEquals(999.0, path.get(0).angle, 0);
+        Assert.assertTrue(lngLatHandler.distanceTo(path.get(path.size() - 1).lngLat, goal) < Flightpath.GOAL_TOLERANCE);
+        for (int i = 1; i < path.size(); i++) {
+            Node previous = path.get(i - 1);
+            Node current = path.get(i);
+            Assert.assertSame(previous, current.parent);
+            Assert.assertEquals(lngLatHandler.nextPosition(previous.lngLat, current.angle), current.lngLat);
+            Assert.assertFalse(lngLatHandler.isInRegion(current.lngLat, zones[0]));
+            Assert.assertFalse(PointInAreaHandler.doesLineIntersectPolygon(previous.lngLat, current.lngLat, zones[0].vertices()));
+        }
+    }
+}